@@ -0,0 +1,51 @@
+package bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <P>Runs the JMH benchmark suite (GenerationBenchmark,
+ * ConstructionBenchmark and SearchBenchmark) with allocation
+ * profiling: JMH's gc profiler is always on, so every result comes
+ * with gc.alloc.rate (MB/sec) and gc.alloc.rate.norm (bytes per
+ * operation).  This is the main class of target/benchmarks.jar, built
+ * by mvn package.</P>
+ *
+ * <P>It takes the usual JMH options, for instance:</P>
+ * <PRE>
+ * java -jar target/benchmarks.jar                        (everything)
+ * java -jar target/benchmarks.jar SearchBenchmark.dijkstra -p size=100,1000 -p sparcity=50
+ * java -jar target/benchmarks.jar -h                     (all the options)
+ * </PRE>
+ *
+ * <P>Each benchmark runs in a forked JVM with an 8GB heap; the largest
+ * mazes with HASH_MAP storage may need more (-jvmArgsAppend -Xmx16g).
+ * A case that fails, for instance by running out of memory, is
+ * reported and the others still run.</P>
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+	}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+				|| commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args); // nothing to run
+			return;
+		}
+		Options options = new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
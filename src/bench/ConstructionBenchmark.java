@@ -0,0 +1,38 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.MazeGraph;
+
+/**
+ * <P>JMH benchmark of MazeGraph construction, for each storage, on the
+ * mazes of MazeState.  See Benchmarks for how to run it.</P>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ConstructionBenchmark {
+
+	/** The maze, and the storage to build its graph with */
+	public static class Graph extends MazeState {
+
+		@Param
+		public MazeGraph.Storage storage; // every storage
+	}
+
+	@Benchmark
+	public MazeGraph construct(Graph state) {
+		return new MazeGraph(state.maze, state.storage);
+	}
+}
@@ -0,0 +1,93 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maze.Maze;
+import maze.MazeGenerator;
+
+/**
+ * <P>JMH benchmarks of maze generation: with each MazeGenerator, and in
+ * parallel tiles on every processor, for the same sizes, sparcity
+ * levels and seed as MazeState.  See Benchmarks for how to run
+ * them.</P>
+ *
+ * <P>On Java 14 and later the gc profiler counts the allocation of
+ * every thread, so the figures for the tiles include the work of the
+ * pool's threads.</P>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class GenerationBenchmark {
+
+	/** The size and sparcity of the maze to generate */
+	@State(Scope.Benchmark)
+	public static class Size {
+
+		@Param({"100", "1000", "2000", "4000"})
+		public int size;
+
+		@Param({"0", "50", "100"})
+		public int sparcity;
+	}
+
+	/** The generator (only the generate benchmark runs once per
+	 * generator) */
+	@State(Scope.Benchmark)
+	public static class Generator {
+
+		@Param({"wallGrowth", "kruskal", "prim", "wilson", "eller"})
+		public String name;
+
+		public MazeGenerator generator;
+
+		@Setup(Level.Trial)
+		public void pickGenerator() {
+			switch (name) {
+			case "wallGrowth":
+				generator = MazeGenerator.wallGrowth();
+				break;
+			case "kruskal":
+				generator = MazeGenerator.kruskal();
+				break;
+			case "prim":
+				generator = MazeGenerator.prim();
+				break;
+			case "wilson":
+				generator = MazeGenerator.wilson();
+				break;
+			case "eller":
+				generator = MazeGenerator.eller();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown generator " + name);
+			}
+		}
+	}
+
+	@Benchmark
+	public Maze generate(Size size, Generator generator) {
+		return new Maze(size.size, size.size, size.sparcity, MazeState.SEED, generator.generator);
+	}
+
+	@Benchmark
+	public Maze generateTiled(Size size) {
+		return new Maze(size.size, size.size, size.sparcity, MazeState.SEED, MazeGenerator::wallGrowth,
+				Runtime.getRuntime().availableProcessors());
+	}
+}
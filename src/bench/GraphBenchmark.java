@@ -0,0 +1,207 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import graph.DijkstraQueue;
+import graph.MazeGraph;
+import maze.Juncture;
+import maze.Maze;
+import maze.MazeGenerator;
+
+/**
+ * <P>A quick, dependency-free version of the JMH suite (see
+ * Benchmarks): the same maze generation (with each MazeGenerator),
+ * MazeGraph construction and graph searches (DoBFS, DoDFS and
+ * DoDijsktra with each DijkstraQueue), across maze sizes and sparcity
+ * levels, as a plain main class that can run without a build.  Mazes
+ * are built with the seeded Maze constructor, so every run measures
+ * the same mazes.  Use the JMH suite for figures to compare: it forks
+ * a fresh JVM per benchmark and consumes every result, where this
+ * harness shares one JVM and one sink field.</P>
+ * 
+ * <P>Each benchmark is run a number of warm-up iterations (to let the
+ * JIT compile it) and then measured.  Besides the time per operation,
+ * the bytes allocated per operation and the allocation rate are
+ * reported (the same figures as JMH's gc.alloc.rate profiler), read
+ * from the thread allocation counter of the JVM (n/a if the JVM has
+ * none).  That counter only sees the benchmark's own thread, so for
+ * the cases that run on other threads (the tiled generator) the
+ * allocation is n/a as well.</P>
+ * 
+ * <P>Usage (all arguments are optional):</P>
+ * <PRE>
+ * java bench.GraphBenchmark [--sizes 100,1000,2000,4000] [--sparcity 0,50,100]
+ *     [--warmup 3] [--iterations 5] [--seed 2020] [--filter dijkstra]
+ * </PRE>
+ * 
+ * <P>Large mazes need a large heap (-Xmx).  A case that runs out of
+ * memory is reported and skipped.</P>
+ */
+public class GraphBenchmark {
+
+	private int[] sizes = {100, 1000, 2000, 4000};
+	private int[] sparcities = {0, 50, 100};
+	private int warmup = 3;
+	private int iterations = 5;
+	private long seed = 2020;
+	private String filter = "";
+
+	/* Used to keep the JIT from discarding the results of an operation */
+	private long sink;
+
+	public static void main(String[] args) {
+		new GraphBenchmark(args).runAll();
+	}
+
+	private GraphBenchmark(String[] args) {
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			if (args[i].equals("--sizes")) {
+				sizes = parseList(value);
+			} else if (args[i].equals("--sparcity")) {
+				sparcities = parseList(value);
+			} else if (args[i].equals("--warmup")) {
+				warmup = Integer.parseInt(value);
+			} else if (args[i].equals("--iterations")) {
+				iterations = Integer.parseInt(value);
+			} else if (args[i].equals("--seed")) {
+				seed = Long.parseLong(value);
+			} else if (args[i].equals("--filter")) {
+				filter = value;
+			} else {
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+	}
+
+	private static int[] parseList(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+
+	private void runAll() {
+		System.out.printf("%-34s %6s %5s %12s %12s %14s %12s%n", 
+				"benchmark", "size", "sparc", "avg ms/op", "min ms/op", "alloc B/op", "alloc MB/s");
+		for (int size : sizes) {
+			for (int sparcity : sparcities) {
+				try {
+					runMaze(size, sparcity);
+				} catch (OutOfMemoryError e) {
+					System.out.printf("%-34s %6d %5d   skipped: out of memory%n", "(all)", size, sparcity);
+				}
+			}
+		}
+		if (sink == 42) {
+			System.out.println();
+		}
+	}
+
+	private void runMaze(final int size, final int sparcity) {
+		String[] names = {"wall growth", "kruskal", "prim", "wilson", "eller"};
+		final MazeGenerator[] generators = {MazeGenerator.wallGrowth(), MazeGenerator.kruskal(), 
+				MazeGenerator.prim(), MazeGenerator.wilson(), MazeGenerator.eller()};
+		for (int i = 0; i < generators.length; i++) {
+			final MazeGenerator generator = generators[i];
+			measure("generate " + names[i], size, sparcity, new Runnable() {
+				public void run() {
+					sink += new Maze(size, size, sparcity, seed, generator).getMaxWeight();
+				}
+			});
+		}
+		final int threads = Runtime.getRuntime().availableProcessors();
+		measure("generate tiled x" + threads, size, sparcity, false, new Runnable() {
+			public void run() {
+				sink += new Maze(size, size, sparcity, seed, MazeGenerator::wallGrowth, threads).getMaxWeight();
+			}
+		});
+		final Maze maze = new Maze(size, size, sparcity, seed);
+		final Juncture start = new Juncture(0, 0);
+		final Juncture end = new Juncture(size - 1, size - 1);
+
+		for (final MazeGraph.Storage storage : MazeGraph.Storage.values()) {
+			measure("construct " + storage, size, sparcity, new Runnable() {
+				public void run() {
+					sink += new MazeGraph(maze, storage).getVertexCount();
+				}
+			});
+		}
+
+		for (MazeGraph.Storage storageType : MazeGraph.Storage.values()) {
+			final MazeGraph graph;
+			try {
+				graph = new MazeGraph(maze, storageType);
+			} catch (OutOfMemoryError e) {
+				System.out.printf("%-34s %6d %5d   skipped: out of memory%n", "searches " + storageType, size, sparcity);
+				continue;
+			}
+			String storage = " " + storageType;
+			measure("bfs" + storage, size, sparcity, new Runnable() {
+				public void run() {
+					graph.DoBFS(start, end);
+				}
+			});
+			measure("dfs" + storage, size, sparcity, new Runnable() {
+				public void run() {
+					graph.DoDFS(start, end);
+				}
+			});
+			for (DijkstraQueue queue : DijkstraQueue.values()) {
+				graph.setDijkstraQueue(queue);
+				measure("dijkstra " + queue + storage, size, sparcity, new Runnable() {
+					public void run() {
+						graph.DoDijsktra(start, end);
+					}
+				});
+			}
+		}
+	}
+
+	/* Runs the warm-up and measured iterations of one benchmark and 
+	 * prints a line of results */
+	private void measure(String name, int size, int sparcity, Runnable operation) {
+		measure(name, size, sparcity, true, operation);
+	}
+
+	/* As above; singleThreaded is false for an operation that does its
+	 * work on other threads, whose allocation this thread cannot see */
+	private void measure(String name, int size, int sparcity, boolean singleThreaded, Runnable operation) {
+		if (!name.toLowerCase().contains(filter.toLowerCase())) {
+			return;
+		}
+		for (int i = 0; i < warmup; i++) {
+			operation.run();
+		}
+		long totalNanos = 0;
+		long minNanos = Long.MAX_VALUE;
+		long allocatedBefore = allocatedBytes();
+		for (int i = 0; i < iterations; i++) {
+			long begin = System.nanoTime();
+			operation.run();
+			long elapsed = System.nanoTime() - begin;
+			totalNanos += elapsed;
+			minNanos = Math.min(minNanos, elapsed);
+		}
+		long allocated = allocatedBytes() - allocatedBefore;
+		double seconds = totalNanos / 1e9;
+		if (!singleThreaded || allocatedBefore < 0) {
+			System.out.printf("%-34s %6d %5d %12.3f %12.3f %14s %12s%n", name, size, sparcity,
+					totalNanos / 1e6 / iterations, minNanos / 1e6, "n/a", "n/a");
+			return;
+		}
+		System.out.printf("%-34s %6d %5d %12.3f %12.3f %14d %12.1f%n", name, size, sparcity,
+				totalNanos / 1e6 / iterations, minNanos / 1e6, allocated / iterations,
+				seconds > 0 ? allocated / seconds / (1 << 20) : 0.0);
+	}
+
+	/* Bytes allocated so far by this thread (-1 if the JVM cannot tell) */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
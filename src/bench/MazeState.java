@@ -0,0 +1,41 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import maze.Juncture;
+import maze.Maze;
+
+/**
+ * <P>The maze a JMH benchmark runs on: a square maze of each size and
+ * sparcity level, built once per trial with the seeded Maze
+ * constructor, so every run measures the same mazes.  The searches go
+ * from the upper left corner to the lower right one.</P>
+ */
+@State(Scope.Benchmark)
+public class MazeState {
+
+	/** The seed of every maze */
+	public static final long SEED = 2020;
+
+	/** Width and height of the maze, in junctures */
+	@Param({"100", "1000", "2000", "4000"})
+	public int size;
+
+	@Param({"0", "50", "100"})
+	public int sparcity;
+
+	public Maze maze;
+	public Juncture start;
+	public Juncture end;
+
+	@Setup(Level.Trial)
+	public void buildMaze() {
+		maze = new Maze(size, size, sparcity, SEED);
+		start = new Juncture(0, 0);
+		end = new Juncture(size - 1, size - 1);
+	}
+}
@@ -0,0 +1,71 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.DijkstraQueue;
+import graph.MazeGraph;
+
+/**
+ * <P>JMH benchmarks of DoBFS, DoDFS and DoDijsktra (with each
+ * DijkstraQueue) on the mazes of MazeState, for each storage of the
+ * MazeGraph.  See Benchmarks for how to run them.</P>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SearchBenchmark {
+
+	/** The graph of the maze, built once per trial */
+	public static class Graph extends MazeState {
+
+		@Param
+		public MazeGraph.Storage storage; // every storage
+
+		public MazeGraph graph;
+
+		@Setup(Level.Trial)
+		public void buildGraph() {
+			graph = new MazeGraph(maze, storage);
+		}
+	}
+
+	/** The queue for Dijkstra's algorithm (only the dijkstra benchmark
+	 * runs once per queue) */
+	@State(Scope.Benchmark)
+	public static class Queue {
+
+		@Param
+		public DijkstraQueue queue; // every queue
+	}
+
+	@Benchmark
+	public void bfs(Graph state) {
+		state.graph.DoBFS(state.start, state.end);
+	}
+
+	@Benchmark
+	public void dfs(Graph state) {
+		state.graph.DoDFS(state.start, state.end);
+	}
+
+	@Benchmark
+	public void dijkstra(Graph state, Queue queue) {
+		state.graph.setDijkstraQueue(queue.queue);
+		state.graph.DoDijsktra(state.start, state.end);
+	}
+}
@@ -0,0 +1,65 @@
+package graph;
+
+/**
+ * <P>An observer that follows the graph algorithms in batches of
+ * vertex ids instead of one vertex at a time.  Where a 
+ * GraphAlgorithmObserver receives one call per visited vertex (and a 
+ * boxed Integer for every Dijkstra cost), a BatchAlgorithmObserver 
+ * receives arrays of ids and primitive costs, so following a search
+ * costs one call per batch and no allocation.</P>
+ * 
+ * <P>Ids can be turned back into vertices with WeightedGraph.getVertex.
+ * The arrays passed to these methods are reused by the graph: they
+ * are only valid during the call, and only their first "count" 
+ * entries are meaningful.</P>
+ * 
+ * <P>Within one kind of notification (visits, finished vertices or
+ * frontier vertices) the ids arrive in the order the search produced
+ * them.  Every batch is delivered before notifySearchIsOver.</P>
+ */
+public interface BatchAlgorithmObserver {
+
+	/** Called by the graph when one of its Do... methods begins.
+	 * 
+	 * @param algorithm the search being run
+	 */
+	public void notifySearchHasBegun(SearchAlgorithm algorithm);
+
+	/** Called with vertices visited by BFS or DFS (in either direction,
+	 * for the bidirectional BFS), or expanded by A*.
+	 * 
+	 * @param ids ids of the vertices, in the order they were visited
+	 * @param count number of ids in the batch
+	 */
+	public void notifyVisits(int[] ids, int count);
+
+	/** Called with vertices added to the finished set of Dijkstra's
+	 * algorithm (or of either half of the bidirectional version).
+	 * 
+	 * @param ids ids of the vertices, in the order they were finished
+	 * @param costs cost of the best path to each vertex (from the end
+	 * instead, for vertices finished by a backward search)
+	 * @param count number of vertices in the batch
+	 */
+	public void notifyFinished(int[] ids, int[] costs, int count);
+
+	/** Called with vertices added to the frontier of an A* search (or
+	 * whose cost through the frontier improved).  Observers that do not
+	 * follow A* searches need not implement this method.
+	 * 
+	 * @param ids ids of the vertices
+	 * @param count number of ids in the batch
+	 */
+	public default void notifyFrontier(int[] ids, int count) {
+	}
+
+	/** Called by the graph when the search is over, whether or not the
+	 * end vertex was reached.
+	 * 
+	 * @param pathIds ids of the vertices on the path found, from start
+	 * to end (for DoBFS and DoDFS, the path the search took to the end)
+	 * @param pathLength number of vertices on the path, 0 if the end
+	 * vertex was not reached
+	 */
+	public void notifySearchIsOver(int[] pathIds, int pathLength);
+}
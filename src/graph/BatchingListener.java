@@ -0,0 +1,90 @@
+package graph;
+
+/**
+ * Collects the progress of a search into fixed size batches of ids
+ * (and costs) and hands each full batch to a set of 
+ * BatchAlgorithmObservers.  Nothing is allocated per vertex.
+ */
+final class BatchingListener implements SearchListener {
+
+	/** Number of ids delivered per call (except for the last batch) */
+	static final int BATCH_SIZE = 256;
+
+	private final BatchAlgorithmObserver[] observers;
+
+	private final int[] visits = new int[BATCH_SIZE];
+	private int visitCount;
+	private final int[] finished = new int[BATCH_SIZE];
+	private final int[] costs = new int[BATCH_SIZE];
+	private int finishedCount;
+	private final int[] frontier = new int[BATCH_SIZE];
+	private int frontierCount;
+
+	BatchingListener(BatchAlgorithmObserver[] observers) {
+		this.observers = observers;
+	}
+
+	@Override
+	public void visit(int vertex, int parent, int depth) {
+		visits[visitCount++] = vertex;
+		if (visitCount == BATCH_SIZE) {
+			flushVisits();
+		}
+	}
+
+	@Override
+	public void finished(int vertex, int cost) {
+		finished[finishedCount] = vertex;
+		costs[finishedCount++] = cost;
+		if (finishedCount == BATCH_SIZE) {
+			flushFinished();
+		}
+	}
+
+	@Override
+	public void frontier(int vertex) {
+		frontier[frontierCount++] = vertex;
+		if (frontierCount == BATCH_SIZE) {
+			flushFrontier();
+		}
+	}
+
+	@Override
+	public void expanded(int vertex) {
+		visit(vertex, -1, 0);
+	}
+
+	/** Delivers whatever is left in the batches. */
+	void flush() {
+		flushVisits();
+		flushFinished();
+		flushFrontier();
+	}
+
+	private void flushVisits() {
+		if (visitCount > 0) {
+			for (BatchAlgorithmObserver observer : observers) {
+				observer.notifyVisits(visits, visitCount);
+			}
+			visitCount = 0;
+		}
+	}
+
+	private void flushFinished() {
+		if (finishedCount > 0) {
+			for (BatchAlgorithmObserver observer : observers) {
+				observer.notifyFinished(finished, costs, finishedCount);
+			}
+			finishedCount = 0;
+		}
+	}
+
+	private void flushFrontier() {
+		if (frontierCount > 0) {
+			for (BatchAlgorithmObserver observer : observers) {
+				observer.notifyFrontier(frontier, frontierCount);
+			}
+			frontierCount = 0;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * <P>Dial's bucket queue for Dijkstra's algorithm on graphs with small
+ * integer weights.  While Dijkstra's algorithm runs, every key in the
+ * queue lies between the key of the last vertex removed and that key
+ * plus the largest edge weight C, so C + 1 buckets used in a circle
+ * are enough to hold all of them.  Inserting, decreasing a key and
+ * removing the minimum take O(1) time plus the empty buckets skipped,
+ * and no keys are ever compared.</P>
+ * 
+ * <P>Each bucket is a doubly linked list threaded through per-vertex
+ * arrays, so a vertex can be unlinked from its old bucket when its key
+ * decreases and nothing is allocated after reset.</P>
+ * 
+ * <P>Keys offered must never be smaller than the smallest key in the
+ * queue, and never more than C larger; Dijkstra's algorithm guarantees
+ * both.</P>
+ */
+final class BucketQueue implements VertexQueue {
+
+	private final int bucketCount;
+	private final int[] bucketHead;  // first vertex in each bucket, or -1
+	private int[] next = new int[0]; // links of the bucket lists
+	private int[] previous = new int[0];
+	private int[] keys = new int[0];
+	private boolean[] queued = new boolean[0];
+	private int size;
+	private int cursor; // no key in the queue is smaller than this (-1 until the first offer)
+
+	/** @param maxWeight the largest edge weight C in the graph */
+	BucketQueue(int maxWeight) {
+		this.bucketCount = maxWeight + 1;
+		this.bucketHead = new int[bucketCount];
+	}
+
+	@Override
+	public void reset(int capacity) {
+		if (keys.length < capacity) {
+			next = new int[capacity];
+			previous = new int[capacity];
+			keys = new int[capacity];
+			queued = new boolean[capacity];
+		} else { // only vertices still in a bucket are marked as queued
+			for (int bucket = 0; bucket < bucketCount && size > 0; bucket++) {
+				for (int v = bucketHead[bucket]; v != -1; v = next[v]) {
+					queued[v] = false;
+					size--;
+				}
+			}
+		}
+		Arrays.fill(bucketHead, -1);
+		size = 0;
+		cursor = -1;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void offer(int vertex, int key) {
+		if (queued[vertex]) {
+			if (key >= keys[vertex]) {
+				return;
+			}
+			unlink(vertex);
+		} else {
+			if (cursor < 0) {
+				cursor = key;
+			}
+			queued[vertex] = true;
+			size++;
+		}
+		keys[vertex] = key;
+		int bucket = key % bucketCount;
+		int head = bucketHead[bucket];
+		next[vertex] = head;
+		previous[vertex] = -1;
+		if (head != -1) {
+			previous[head] = vertex;
+		}
+		bucketHead[bucket] = vertex;
+	}
+
+	@Override
+	public int poll() {
+		int vertex = bucketHead[firstBucket()];
+		unlink(vertex);
+		queued[vertex] = false;
+		size--;
+		return vertex;
+	}
+
+	@Override
+	public int peekKey() {
+		return keys[bucketHead[firstBucket()]];
+	}
+
+	/* Advances the cursor to the first non-empty bucket (at most C
+	 * buckets away, since every key is within C of the cursor) */
+	private int firstBucket() {
+		int bucket = cursor % bucketCount;
+		while (bucketHead[bucket] == -1) {
+			cursor++;
+			bucket = bucket + 1 == bucketCount ? 0 : bucket + 1;
+		}
+		return bucket;
+	}
+
+	private void unlink(int vertex) {
+		int before = previous[vertex];
+		int after = next[vertex];
+		if (before != -1) {
+			next[before] = after;
+		} else {
+			bucketHead[keys[vertex] % bucketCount] = after;
+		}
+		if (after != -1) {
+			previous[after] = before;
+		}
+	}
+}
@@ -0,0 +1,720 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <P>A contraction hierarchy: a graph preprocessed so that lowest cost
+ * path queries only have to look at a tiny part of it.</P>
+ *
+ * <P>Preprocessing "contracts" the vertices one at a time, least
+ * important first.  Contracting a vertex v removes it from the graph,
+ * and for every pair of neighbors u -> v -> w whose cheapest path runs
+ * through v adds a "shortcut" edge u -> w with the cost of that path.
+ * (A short Dijkstra search from u that avoids v, the witness search,
+ * decides whether some other path is as cheap.)  The order comes from
+ * a priority queue keyed mostly by the edge difference (shortcuts added
+ * minus edges removed), with lazy updates: a vertex's priority is
+ * recomputed when it reaches the front of the queue, and it goes back
+ * in if it is no longer the smallest.</P>
+ *
+ * <P>Each vertex's rank is its position in that order.  A lowest cost
+ * path can always be found with only "upward" edges (original or
+ * shortcut) toward higher ranks from the start, and upward edges
+ * followed backward from the end.  A query therefore runs a
+ * bidirectional Dijkstra search on these two small upward graphs,
+ * then expands the shortcuts on the path it finds back into the
+ * original edges (each shortcut keeps the two edges it stands for, so
+ * that takes constant time per original edge).  On a maze that settles
+ * a few hundred vertices instead of most of the maze.</P>
+ *
+ * <P>A hierarchy is immutable once built, can be saved to a file and
+ * loaded again, and can be searched by many threads at once, each
+ * with its own SearchContext.  It only holds vertex ids: it must be
+ * used with the graph it was built from, as it was then.</P>
+ */
+public final class ContractionHierarchy {
+
+	/* First bytes of a hierarchy file, and the version of the format */
+	private static final int FILE_MAGIC = 0x52474843; // "CHGR", little-endian
+	private static final int FILE_VERSION = 1;
+
+	private final int[] rank;
+
+	/* Upward edges in CSR form.  Forward: the edges u -> w with rank[u]
+	 * < rank[w], stored at u.  Backward: the edges u -> w with rank[u]
+	 * > rank[w], stored at w, so they can be followed from w to u.  The
+	 * edges are numbered forward slots first, then backward slots (edge
+	 * forwardTargets.length + e is backward slot e). */
+	private final int[] forwardOffsets, forwardTargets, forwardWeights;
+	private final int[] backwardOffsets, backwardTargets, backwardWeights;
+
+	/* By edge number: the middle of a shortcut (the vertex it was added
+	 * for) and the two edges it stands for, u -> middle and middle -> w;
+	 * all -1 for an original edge */
+	private final int[] middles, firstHalves, secondHalves;
+
+	private ContractionHierarchy(int[] rank, int[] forwardOffsets, int[] forwardTargets, int[] forwardWeights,
+			int[] backwardOffsets, int[] backwardTargets, int[] backwardWeights, int[] middles, int[] firstHalves,
+			int[] secondHalves) {
+		this.rank = rank;
+		this.forwardOffsets = forwardOffsets;
+		this.forwardTargets = forwardTargets;
+		this.forwardWeights = forwardWeights;
+		this.backwardOffsets = backwardOffsets;
+		this.backwardTargets = backwardTargets;
+		this.backwardWeights = backwardWeights;
+		this.middles = middles;
+		this.firstHalves = firstHalves;
+		this.secondHalves = secondHalves;
+	}
+
+	/**
+	 * <P>Preprocesses a graph.  This takes a while (seconds for a maze
+	 * of a hundred thousand junctures), so large hierarchies are worth
+	 * saving.</P>
+	 *
+	 * @param graph the graph, for example WeightedGraph.getIndexedGraph()
+	 * @return the hierarchy
+	 */
+	public static ContractionHierarchy build(IndexedGraph graph) {
+		return new Contraction(graph).run();
+	}
+
+	/** @return the number of vertices of the graph */
+	public int getVertexCount() {
+		return rank.length;
+	}
+
+	/** @return the number of shortcut edges added by preprocessing */
+	public int getShortcutCount() {
+		int count = 0;
+		for (int middle : middles) {
+			count += middle >= 0 ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * <P>Finds a lowest cost path from start to end.  The path (in
+	 * original edges), its cost and the number of vertices the search
+	 * settled are left in the context, as by WeightedGraph.search.</P>
+	 *
+	 * @param start id of the vertex where the path begins
+	 * @param end id of the vertex where the path ends
+	 * @param context working storage for the search, which also
+	 * receives the result
+	 * @return true if end can be reached from start
+	 */
+	public boolean search(int start, int end, SearchContext context) {
+		int n = rank.length;
+		if (start < 0 || start >= n || end < 0 || end >= n) {
+			throw new IllegalArgumentException();
+		}
+		context.begin(n, true);
+		int epoch = context.epoch;
+		VertexQueue forwardQueue = context.forwardQueue(DijkstraQueue.INDEXED_HEAP, -1);
+		VertexQueue backwardQueue = context.backwardQueue(DijkstraQueue.INDEXED_HEAP, -1);
+		int[] forwardParentEdges = context.parentEdges(n);
+		int[] backwardParentEdges = context.backParentEdges(n);
+		context.cost[start] = 0;
+		context.parent[start] = start;
+		context.reached[start] = epoch;
+		context.backCost[end] = 0;
+		context.backParent[end] = end;
+		context.backReached[end] = epoch;
+		forwardQueue.reset(n);
+		backwardQueue.reset(n);
+		forwardQueue.offer(start, 0);
+		backwardQueue.offer(end, 0);
+
+		long mu = Long.MAX_VALUE; // cost of the best path seen so far
+		int meet = -1;
+		while (true) {
+			boolean forwardOpen = !forwardQueue.isEmpty() && forwardQueue.peekKey() < mu;
+			boolean backwardOpen = !backwardQueue.isEmpty() && backwardQueue.peekKey() < mu;
+			if (!forwardOpen && !backwardOpen) {
+				break;
+			}
+			boolean forward = forwardOpen && (!backwardOpen || forwardQueue.peekKey() <= backwardQueue.peekKey());
+			VertexQueue queue = forward ? forwardQueue : backwardQueue;
+			int[] offsets = forward ? forwardOffsets : backwardOffsets;
+			int[] targets = forward ? forwardTargets : backwardTargets;
+			int[] weights = forward ? forwardWeights : backwardWeights;
+			int[] cost = forward ? context.cost : context.backCost;
+			int[] parent = forward ? context.parent : context.backParent;
+			int[] reached = forward ? context.reached : context.backReached;
+			int[] otherCost = forward ? context.backCost : context.cost;
+			int[] otherReached = forward ? context.backReached : context.reached;
+			int[] parentEdge = forward ? forwardParentEdges : backwardParentEdges;
+			int firstEdge = forward ? 0 : forwardTargets.length; // number of the edge in slot 0
+
+			int curr = queue.poll();
+			context.visitedCount++;
+			if (otherReached[curr] == epoch && (long) cost[curr] + otherCost[curr] < mu) {
+				mu = (long) cost[curr] + otherCost[curr];
+				meet = curr;
+			}
+			if (stalled(curr, forward, cost, reached, epoch)) {
+				continue;
+			}
+			for (int e = offsets[curr], last = offsets[curr + 1]; e < last; e++) {
+				int next = targets[e];
+				int newCost = cost[curr] + weights[e];
+				if (reached[next] != epoch || newCost < cost[next]) {
+					reached[next] = epoch;
+					cost[next] = newCost;
+					parent[next] = curr;
+					parentEdge[next] = firstEdge + e;
+					queue.offer(next, newCost);
+				}
+			}
+		}
+		if (meet == -1) {
+			return false;
+		}
+		recordPath(start, meet, end, context);
+		context.pathCost = (int) mu;
+		return true;
+	}
+
+	/* "Stall on demand": v is not worth expanding if it is reached more
+	 * cheaply through a higher ranked vertex by an edge this search cannot
+	 * follow (an edge of the other upward graph, seen from v); its cost
+	 * is then not its lowest, and the edges out of it lead nowhere useful */
+	private boolean stalled(int v, boolean forward, int[] cost, int[] reached, int epoch) {
+		int[] offsets = forward ? backwardOffsets : forwardOffsets;
+		int[] targets = forward ? backwardTargets : forwardTargets;
+		int[] weights = forward ? backwardWeights : forwardWeights;
+		for (int e = offsets[v], last = offsets[v + 1]; e < last; e++) {
+			int u = targets[e];
+			if (reached[u] == epoch && cost[u] + weights[e] < cost[v]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/* Expands the upward path start .. meet .. end into original edges
+	 * and records it in the context */
+	private void recordPath(int start, int meet, int end, SearchContext context) {
+		int n = rank.length;
+		int[] forwardParentEdges = context.parentEdges(n);
+		int[] backwardParentEdges = context.backParentEdges(n);
+		int length = 0;
+		int[] path = context.pathBuffer(16);
+		path[length++] = start;
+
+		// The forward half is found from meet back to start: collect it, then expand it in order
+		int[] upward = context.buffer;
+		int count = 0;
+		for (int v = meet; v != start; v = context.parent[v]) {
+			upward[count++] = v;
+		}
+		for (int i = count - 1; i >= 0; i--) {
+			length = expand(forwardParentEdges[upward[i]], upward[i], context, length);
+		}
+		for (int v = meet; v != end; v = context.backParent[v]) {
+			length = expand(backwardParentEdges[v], context.backParent[v], context, length);
+		}
+		context.pathLength = length;
+	}
+
+	/* Appends the original edges of an edge (or shortcut) that leads to
+	 * "to", except the vertex it leads from, to the context's path;
+	 * returns the new length */
+	private int expand(int edge, int to, SearchContext context, int length) {
+		int[] stack = context.backBuffer; // pairs: an edge and the vertex it leads to
+		int top = 0;
+		while (stack.length < 2) {
+			stack = context.growBackBuffer();
+		}
+		stack[top++] = edge;
+		stack[top++] = to;
+		while (top > 0) {
+			int head = stack[--top];
+			int e = stack[--top];
+			if (middles[e] < 0) {
+				int[] path = context.pathBuffer(length + 1);
+				path[length++] = head;
+			} else { // the first half goes on top, to be expanded before the second
+				if (top + 4 > stack.length) {
+					stack = context.growBackBuffer();
+				}
+				stack[top++] = secondHalves[e];
+				stack[top++] = head;
+				stack[top++] = firstHalves[e];
+				stack[top++] = middles[e];
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * <P>Saves the hierarchy to a file, in a binary format that load can
+	 * read back: a header (the text "CHGR", a format version, the
+	 * number of vertices and of forward and backward edges), the ranks,
+	 * the two upward graphs, and the middle and halves of each edge.</P>
+	 *
+	 * @param file where to save the hierarchy (replaced if it exists)
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(rank.length)
+					.putInt(forwardTargets.length).putInt(backwardTargets.length);
+			for (int[] array : new int[][] {rank, forwardOffsets, forwardTargets, forwardWeights, backwardOffsets,
+					backwardTargets, backwardWeights, middles, firstHalves, secondHalves}) {
+				for (int value : array) {
+					if (!buffer.hasRemaining()) {
+						flush(channel, buffer);
+					}
+					buffer.putInt(value);
+				}
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	/**
+	 * <P>Loads a hierarchy saved by save.</P>
+	 *
+	 * @param file a file written by save
+	 * @return the hierarchy
+	 * @throws IOException if the file cannot be read, or is not a
+	 * hierarchy file
+	 */
+	public static ContractionHierarchy load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < 20 || channel.size() % 4 != 0) {
+				throw new IOException("Not a contraction hierarchy file: " + file);
+			}
+			IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+					.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			if (ints.get() != FILE_MAGIC) {
+				throw new IOException("Not a contraction hierarchy file: " + file);
+			}
+			int version = ints.get();
+			if (version != FILE_VERSION) {
+				throw new IOException("Unsupported contraction hierarchy file version " + version + ": " + file);
+			}
+			int n = ints.get(), forwardCount = ints.get(), backwardCount = ints.get();
+			if (n < 0 || forwardCount < 0 || backwardCount < 0
+					|| ints.remaining() != 3L * n + 2 + 5L * forwardCount + 5L * backwardCount) {
+				throw new IOException("Corrupt contraction hierarchy file: " + file);
+			}
+			int edgeCount = forwardCount + backwardCount;
+			return new ContractionHierarchy(read(ints, n), read(ints, n + 1), read(ints, forwardCount),
+					read(ints, forwardCount), read(ints, n + 1), read(ints, backwardCount), read(ints, backwardCount),
+					read(ints, edgeCount), read(ints, edgeCount), read(ints, edgeCount));
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static int[] read(IntBuffer ints, int count) {
+		int[] array = new int[count];
+		ints.get(array);
+		return array;
+	}
+
+	/* The preprocessing: a working copy of the graph as a pool of edges,
+	 * with a linked list of the edges out of and into each vertex, that
+	 * the vertices are contracted from one at a time */
+	private static final class Contraction {
+
+		/* A witness search gives up (and the shortcut is added) after
+		 * settling SETTLED_LIMIT vertices, and follows paths of at most
+		 * HOP_LIMIT edges.  Priorities only need an estimate of the
+		 * shortcuts, so their searches give up much sooner.  Bounding
+		 * every search keeps the preprocessing close to linear; a few
+		 * needless shortcuts are the price. */
+		private static final int SETTLED_LIMIT = 256;
+		private static final int HOP_LIMIT = 5;
+		private static final int SIMULATION_SETTLED_LIMIT = 8;
+		private static final int SIMULATION_HOP_LIMIT = 2;
+
+		/* Keeps the priorities (which can be negative) positive in the heap */
+		private static final int PRIORITY_OFFSET = 1 << 20;
+
+		private final int n;
+		/* The edge pool; first and second are the pool edges a shortcut
+		 * stands for (-1 for an original edge) */
+		private int[] tail, head, weight, middle, first, second, nextOut, nextIn;
+		private int edgeCount;
+		private final int[] firstOut, firstIn;
+		private final boolean[] contracted;
+		private final int[] rank;
+		private final int[] contractedNeighbors;
+		private final int[] level;
+		/* False once a neighbor has been contracted since the vertex's
+		 * priority was computed */
+		private final boolean[] fresh;
+
+		/* Witness search state */
+		private final int[] cost, hops, reached, target;
+		private int epoch;
+		private final int[] edgeTo, edgeMark;
+		private int mark;
+		private final IndexedMinHeap witnessQueue = new IndexedMinHeap();
+
+		/* The live neighbors of the vertex being contracted, with the
+		 * weights and pool numbers of the edges to them */
+		private int[] ins = new int[16], inWeights = new int[16], inEdges = new int[16];
+		private int[] outs = new int[16], outWeights = new int[16], outEdges = new int[16];
+		private int inCount, outCount;
+
+		Contraction(IndexedGraph graph) {
+			n = graph.getVertexCount();
+			int capacity = 16;
+			for (int v = 0; v < n; v++) {
+				capacity += graph.edgeEnd(v) - graph.edgeBegin(v);
+			}
+			tail = new int[capacity];
+			head = new int[capacity];
+			weight = new int[capacity];
+			middle = new int[capacity];
+			first = new int[capacity];
+			second = new int[capacity];
+			nextOut = new int[capacity];
+			nextIn = new int[capacity];
+			firstOut = new int[n];
+			firstIn = new int[n];
+			Arrays.fill(firstOut, -1);
+			Arrays.fill(firstIn, -1);
+			contracted = new boolean[n];
+			rank = new int[n];
+			contractedNeighbors = new int[n];
+			level = new int[n];
+			fresh = new boolean[n];
+			cost = new int[n];
+			hops = new int[n];
+			reached = new int[n];
+			target = new int[n];
+			edgeTo = new int[n];
+			edgeMark = new int[n];
+			for (int u = 0; u < n; u++) {
+				for (int e = graph.edgeBegin(u), last = graph.edgeEnd(u); e < last; e++) {
+					int w = graph.edgeTarget(e);
+					if (w >= 0 && w != u) {
+						addEdge(u, w, graph.edgeWeight(e));
+					}
+				}
+			}
+		}
+
+		/* Contracts the vertices in order of priority.  The priorities are
+		 * updated lazily: a vertex at the front of the queue whose neighbors
+		 * have changed gets its priority recomputed, and goes back in if it
+		 * is no longer the smallest.  So each vertex is re-evaluated at most
+		 * once per neighbor contracted, and never just because it was put
+		 * back. */
+		ContractionHierarchy run() {
+			IndexedMinHeap order = new IndexedMinHeap();
+			order.reset(n);
+			for (int v = 0; v < n; v++) {
+				order.offer(v, priority(v));
+				fresh[v] = true;
+			}
+			int next = 0;
+			while (!order.isEmpty()) {
+				int v = order.poll();
+				if (!fresh[v]) {
+					int priority = priority(v);
+					fresh[v] = true;
+					if (!order.isEmpty() && priority > order.peekKey()) { // stale: try again later
+						order.offer(v, priority);
+						continue;
+					}
+				}
+				contract(v);
+				rank[v] = next++;
+			}
+			return build();
+		}
+
+		/* Lower is contracted first: shortcuts added minus edges removed,
+		 * plus terms that spread the contraction evenly over the graph */
+		private int priority(int v) {
+			collectNeighbors(v);
+			int shortcuts = shortcuts(v, false);
+			return PRIORITY_OFFSET + 4 * (shortcuts - inCount - outCount) + contractedNeighbors[v] + level[v];
+		}
+
+		private void contract(int v) {
+			collectNeighbors(v);
+			shortcuts(v, true);
+			contracted[v] = true;
+			for (int i = 0; i < inCount; i++) {
+				neighborContracted(ins[i], v);
+			}
+			for (int i = 0; i < outCount; i++) {
+				neighborContracted(outs[i], v);
+			}
+		}
+
+		private void neighborContracted(int u, int v) {
+			contractedNeighbors[u]++;
+			level[u] = Math.max(level[u], level[v] + 1);
+			fresh[u] = false;
+		}
+
+		/* Lists the neighbors of v that are not contracted yet, unlinking
+		 * the edges to contracted ones from v's lists on the way (they
+		 * stay in the pool for the hierarchy) */
+		private void collectNeighbors(int v) {
+			inCount = 0;
+			for (int e = firstIn[v], previous = -1; e >= 0; e = nextIn[e]) {
+				if (contracted[tail[e]]) {
+					if (previous < 0) {
+						firstIn[v] = nextIn[e];
+					} else {
+						nextIn[previous] = nextIn[e];
+					}
+					continue;
+				}
+				if (inCount == ins.length) {
+					ins = Arrays.copyOf(ins, inCount * 2);
+					inWeights = Arrays.copyOf(inWeights, inCount * 2);
+					inEdges = Arrays.copyOf(inEdges, inCount * 2);
+				}
+				ins[inCount] = tail[e];
+				inWeights[inCount] = weight[e];
+				inEdges[inCount++] = e;
+				previous = e;
+			}
+			outCount = 0;
+			for (int e = firstOut[v], previous = -1; e >= 0; e = nextOut[e]) {
+				if (contracted[head[e]]) {
+					if (previous < 0) {
+						firstOut[v] = nextOut[e];
+					} else {
+						nextOut[previous] = nextOut[e];
+					}
+					continue;
+				}
+				if (outCount == outs.length) {
+					outs = Arrays.copyOf(outs, outCount * 2);
+					outWeights = Arrays.copyOf(outWeights, outCount * 2);
+					outEdges = Arrays.copyOf(outEdges, outCount * 2);
+				}
+				outs[outCount] = head[e];
+				outWeights[outCount] = weight[e];
+				outEdges[outCount++] = e;
+				previous = e;
+			}
+		}
+
+		/* Counts (and if add is set, adds) the shortcuts that contracting
+		 * v needs, for the neighbors listed by collectNeighbors.  A pair
+		 * u -> v -> w that u already has an edge to w for, as cheap as the
+		 * path through v, needs no shortcut and no witness search: near
+		 * the top of the hierarchy, where the neighbors of a vertex are
+		 * mostly joined to each other, that skips most of the searches. */
+		private int shortcuts(int v, boolean add) {
+			int count = 0;
+			for (int i = 0; i < inCount; i++) {
+				int u = ins[i];
+				markEdges(u);
+				epoch++;
+				int remaining = 0, maxCost = 0;
+				for (int j = 0; j < outCount; j++) {
+					int w = outs[j];
+					int viaV = inWeights[i] + outWeights[j];
+					if (w != u && (edgeMark[w] != mark || weight[edgeTo[w]] > viaV)) {
+						target[w] = epoch;
+						remaining++;
+						maxCost = Math.max(maxCost, viaV);
+					}
+				}
+				if (remaining == 0) {
+					continue;
+				}
+				if (add) {
+					witnessSearch(u, v, remaining, maxCost, SETTLED_LIMIT, HOP_LIMIT);
+				} else {
+					witnessSearch(u, v, remaining, maxCost, SIMULATION_SETTLED_LIMIT, SIMULATION_HOP_LIMIT);
+				}
+				for (int j = 0; j < outCount; j++) {
+					int w = outs[j];
+					int viaV = inWeights[i] + outWeights[j];
+					if (target[w] == epoch && (reached[w] != epoch || cost[w] > viaV)) {
+						count++;
+						if (!add) {
+							continue;
+						}
+						if (edgeMark[w] == mark) { // a cheaper path than the edge there is
+							int e = edgeTo[w];
+							weight[e] = viaV;
+							middle[e] = v;
+							first[e] = inEdges[i];
+							second[e] = outEdges[j];
+						} else {
+							edgeMark[w] = mark;
+							edgeTo[w] = newEdge(u, w, viaV, v, inEdges[i], outEdges[j]);
+						}
+					}
+				}
+			}
+			return count;
+		}
+
+		/* Notes the edge from u to each vertex (in edgeTo, where edgeMark
+		 * is mark) */
+		private void markEdges(int u) {
+			mark++;
+			for (int e = firstOut[u]; e >= 0; e = nextOut[e]) {
+				edgeMark[head[e]] = mark;
+				edgeTo[head[e]] = e;
+			}
+		}
+
+		/* Dijkstra's algorithm from u that avoids v and the contracted
+		 * vertices, until the remaining targets (marked with the epoch)
+		 * are settled, or up to cost maxCost, settledLimit settled
+		 * vertices or paths of hopLimit edges */
+		private void witnessSearch(int u, int v, int remaining, int maxCost, int settledLimit, int hopLimit) {
+			cost[u] = 0;
+			hops[u] = 0;
+			reached[u] = epoch;
+			witnessQueue.reset(n);
+			witnessQueue.offer(u, 0);
+			int settled = 0;
+			while (remaining > 0 && !witnessQueue.isEmpty() && witnessQueue.peekKey() <= maxCost
+					&& settled++ < settledLimit) {
+				int curr = witnessQueue.poll();
+				if (target[curr] == epoch) {
+					remaining--;
+				}
+				if (hops[curr] == hopLimit) {
+					continue;
+				}
+				boolean lastHop = hops[curr] + 1 == hopLimit; // only worth going on to a target
+				for (int e = firstOut[curr], previous = -1; e >= 0; e = nextOut[e]) {
+					int next = head[e];
+					if (contracted[next]) { // unlink it, as collectNeighbors does
+						if (previous < 0) {
+							firstOut[curr] = nextOut[e];
+						} else {
+							nextOut[previous] = nextOut[e];
+						}
+						continue;
+					}
+					previous = e;
+					if (next == v || lastHop && target[next] != epoch) {
+						continue;
+					}
+					int newCost = cost[curr] + weight[e];
+					if (newCost <= maxCost && (reached[next] != epoch || newCost < cost[next])) {
+						reached[next] = epoch;
+						cost[next] = newCost;
+						hops[next] = hops[curr] + 1;
+						witnessQueue.offer(next, newCost);
+					}
+				}
+			}
+		}
+
+		/* Adds the original edge u -> w, or lowers the weight of the one
+		 * there is */
+		private void addEdge(int u, int w, int edgeWeight) {
+			for (int e = firstOut[u]; e >= 0; e = nextOut[e]) {
+				if (head[e] == w) {
+					weight[e] = Math.min(weight[e], edgeWeight);
+					return;
+				}
+			}
+			newEdge(u, w, edgeWeight, -1, -1, -1);
+		}
+
+		/* Adds an edge u -> w that is not there yet; a shortcut also gives
+		 * the vertex it skips and the two edges it stands for.  Returns
+		 * the edge's number in the pool. */
+		private int newEdge(int u, int w, int edgeWeight, int edgeMiddle, int firstHalf, int secondHalf) {
+			if (edgeCount == tail.length) {
+				int capacity = edgeCount * 2;
+				tail = Arrays.copyOf(tail, capacity);
+				head = Arrays.copyOf(head, capacity);
+				weight = Arrays.copyOf(weight, capacity);
+				middle = Arrays.copyOf(middle, capacity);
+				first = Arrays.copyOf(first, capacity);
+				second = Arrays.copyOf(second, capacity);
+				nextOut = Arrays.copyOf(nextOut, capacity);
+				nextIn = Arrays.copyOf(nextIn, capacity);
+			}
+			int e = edgeCount++;
+			tail[e] = u;
+			head[e] = w;
+			weight[e] = edgeWeight;
+			middle[e] = edgeMiddle;
+			first[e] = firstHalf;
+			second[e] = secondHalf;
+			nextOut[e] = firstOut[u];
+			firstOut[u] = e;
+			nextIn[e] = firstIn[w];
+			firstIn[w] = e;
+			return e;
+		}
+
+		/* Splits the edge pool into the two upward graphs, and numbers
+		 * the halves of each shortcut as the hierarchy numbers its edges.
+		 * (The halves of a shortcut touch a contracted vertex, so they
+		 * never change after it is added.) */
+		private ContractionHierarchy build() {
+			int[] forwardOffsets = new int[n + 1];
+			int[] backwardOffsets = new int[n + 1];
+			for (int e = 0; e < edgeCount; e++) {
+				if (rank[tail[e]] < rank[head[e]]) {
+					forwardOffsets[tail[e] + 1]++;
+				} else {
+					backwardOffsets[head[e] + 1]++;
+				}
+			}
+			for (int v = 0; v < n; v++) {
+				forwardOffsets[v + 1] += forwardOffsets[v];
+				backwardOffsets[v + 1] += backwardOffsets[v];
+			}
+			int forwardCount = forwardOffsets[n];
+			int[] forwardTargets = new int[forwardCount], forwardWeights = new int[forwardCount];
+			int[] backwardTargets = new int[backwardOffsets[n]], backwardWeights = new int[backwardOffsets[n]];
+			int[] forwardNext = Arrays.copyOf(forwardOffsets, n);
+			int[] backwardNext = Arrays.copyOf(backwardOffsets, n);
+			int[] number = new int[edgeCount]; // the hierarchy's number for each pool edge
+			for (int e = 0; e < edgeCount; e++) {
+				if (rank[tail[e]] < rank[head[e]]) {
+					int slot = forwardNext[tail[e]]++;
+					forwardTargets[slot] = head[e];
+					forwardWeights[slot] = weight[e];
+					number[e] = slot;
+				} else {
+					int slot = backwardNext[head[e]]++;
+					backwardTargets[slot] = tail[e];
+					backwardWeights[slot] = weight[e];
+					number[e] = forwardCount + slot;
+				}
+			}
+			int[] middles = new int[edgeCount], firstHalves = new int[edgeCount], secondHalves = new int[edgeCount];
+			for (int e = 0; e < edgeCount; e++) {
+				middles[number[e]] = middle[e];
+				firstHalves[number[e]] = middle[e] < 0 ? -1 : number[first[e]];
+				secondHalves[number[e]] = middle[e] < 0 ? -1 : number[second[e]];
+			}
+			return new ContractionHierarchy(rank, forwardOffsets, forwardTargets, forwardWeights, backwardOffsets,
+					backwardTargets, backwardWeights, middles, firstHalves, secondHalves);
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package graph;
+
+import java.util.Arrays;
+
+import maze.Maze;
+
+/**
+ * <P>An immutable graph stored in compressed sparse row (CSR) form.
+ * The edges leaving vertex v are the slots offsets[v] up to
+ * offsets[v + 1] of the targets and weights arrays.  There is no
+ * boxing and no per-vertex object, so a graph takes about 4 bytes per
+ * vertex plus 5 bytes per edge (8 if a weight does not fit in a byte).</P>
+ * 
+ * <P>A CsrGraph can be built directly from a Maze (vertex ids are
+ * y * width + x), or edge by edge with a Builder.</P>
+ */
+public final class CsrGraph implements IndexedGraph {
+
+	private final int[] offsets;
+	private final int[] targets;
+	private final byte[] smallWeights; // used when every weight fits in a byte
+	private final int[] weights;       // used otherwise
+	private final int maxWeight;
+
+	CsrGraph(int[] offsets, int[] targets, byte[] smallWeights, int[] weights, int maxWeight) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.smallWeights = smallWeights;
+		this.weights = weights;
+		this.maxWeight = maxWeight;
+	}
+
+	/** 
+	 * <P>Builds the graph of a maze without going through a 
+	 * WeightedGraph.  The juncture at (x, y) becomes vertex
+	 * y * width + x, and adjacent junctures that are not separated
+	 * by a wall are joined by an edge in each direction.</P>
+	 * 
+	 * @param maze the source of the vertices and weighted edges
+	 * @return the graph of the maze
+	 * @throws IllegalArgumentException if the maze has too many
+	 * junctures (more than 2^29) for its edges to be numbered by an int
+	 */
+	public static CsrGraph fromMaze(Maze maze) {
+		int width = maze.getMazeWidth();
+		int height = maze.getMazeHeight();
+		if ((long) width * height * 4 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Maze too large for a CsrGraph: " + width + "x" + height);
+		}
+		int[] offsets = new int[width * height + 1];
+
+		// First pass counts the edges leaving each juncture
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int degree = 0;
+				if (x != width - 1 && !maze.isWallToRight(x, y)) {
+					degree++;
+				}
+				if (x != 0 && !maze.isWallToLeft(x, y)) {
+					degree++;
+				}
+				if (y != 0 && !maze.isWallAbove(x, y)) {
+					degree++;
+				}
+				if (y != height - 1 && !maze.isWallBelow(x, y)) {
+					degree++;
+				}
+				int id = y * width + x;
+				offsets[id + 1] = offsets[id] + degree;
+			}
+		}
+
+		// Second pass fills in the targets and weights (Maze weights are 1 to 9)
+		int[] targets = new int[offsets[width * height]];
+		byte[] smallWeights = new byte[targets.length];
+		int e = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int id = y * width + x;
+				if (x != width - 1 && !maze.isWallToRight(x, y)) {
+					targets[e] = id + 1;
+					smallWeights[e++] = (byte) maze.getWeightToRight(x, y);
+				}
+				if (x != 0 && !maze.isWallToLeft(x, y)) {
+					targets[e] = id - 1;
+					smallWeights[e++] = (byte) maze.getWeightToLeft(x, y);
+				}
+				if (y != 0 && !maze.isWallAbove(x, y)) {
+					targets[e] = id - width;
+					smallWeights[e++] = (byte) maze.getWeightAbove(x, y);
+				}
+				if (y != height - 1 && !maze.isWallBelow(x, y)) {
+					targets[e] = id + width;
+					smallWeights[e++] = (byte) maze.getWeightBelow(x, y);
+				}
+			}
+		}
+		int maxWeight = 0;
+		for (byte weight : smallWeights) {
+			maxWeight = Math.max(maxWeight, weight);
+		}
+		return new CsrGraph(offsets, targets, smallWeights, null, maxWeight);
+	}
+
+	@Override
+	public int getVertexCount() {
+		return offsets.length - 1;
+	}
+
+	/** @return the number of edges in the graph */
+	public int getEdgeCount() {
+		return targets.length;
+	}
+
+	@Override
+	public int edgeBegin(int vertex) {
+		return offsets[vertex];
+	}
+
+	@Override
+	public int edgeEnd(int vertex) {
+		return offsets[vertex + 1];
+	}
+
+	@Override
+	public int edgeTarget(int edge) {
+		return targets[edge];
+	}
+
+	@Override
+	public int edgeWeight(int edge) {
+		return smallWeights != null ? smallWeights[edge] : weights[edge];
+	}
+
+	@Override
+	public int getMaxWeight() {
+		return maxWeight;
+	}
+
+	/** Returns the weight of the edge from one vertex to another.
+	 * 
+	 * @param from id of the vertex the edge leads from
+	 * @param to id of the vertex the edge leads to
+	 * @return weight of the edge, or -1 if there is no such edge
+	 */
+	public int getWeight(int from, int to) {
+		for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+			if (targets[e] == to) {
+				return edgeWeight(e);
+			}
+		}
+		return -1;
+	}
+
+	/** Builds the reverse of this graph: the same vertices, with every
+	 * edge turned around.  The edges into each vertex keep the order of
+	 * the vertices they come from.
+	 *
+	 * @return the reversed graph
+	 */
+	CsrGraph reverse() {
+		int n = getVertexCount();
+		int[] reverseOffsets = new int[n + 1];
+		for (int target : targets) {
+			reverseOffsets[target + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			reverseOffsets[v + 1] += reverseOffsets[v];
+		}
+		int[] next = Arrays.copyOf(reverseOffsets, n);
+		int[] reverseTargets = new int[targets.length];
+		byte[] reverseSmallWeights = smallWeights != null ? new byte[targets.length] : null;
+		int[] reverseWeights = smallWeights != null ? null : new int[targets.length];
+		for (int v = 0; v < n; v++) {
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				int r = next[targets[e]]++;
+				reverseTargets[r] = v;
+				if (smallWeights != null) {
+					reverseSmallWeights[r] = smallWeights[e];
+				} else {
+					reverseWeights[r] = weights[e];
+				}
+			}
+		}
+		return new CsrGraph(reverseOffsets, reverseTargets, reverseSmallWeights, reverseWeights, maxWeight);
+	}
+
+	/**
+	 * <P>Collects edges in any order and then lays them out in CSR
+	 * form.  Adding an edge that is already present adds a parallel
+	 * edge, so callers should add each edge once.</P>
+	 */
+	public static final class Builder {
+
+		private final int vertexCount;
+		private int[] from = new int[16];
+		private int[] to = new int[16];
+		private int[] weight = new int[16];
+		private int edgeCount;
+		private int maxWeight;
+
+		/** @param vertexCount number of vertices (ids 0 .. vertexCount - 1) */
+		public Builder(int vertexCount) {
+			this.vertexCount = vertexCount;
+		}
+
+		/** Adds an edge.
+		 * 
+		 * @param from id of the vertex the edge leads from
+		 * @param to id of the vertex the edge leads to
+		 * @param weight the (non-negative) weight of the edge
+		 * @return this builder
+		 * @throws IllegalArgumentException if either id is out of range 
+		 * or the weight is negative
+		 */
+		public Builder addEdge(int from, int to, int weight) {
+			if (from < 0 || from >= vertexCount || to < 0 || to >= vertexCount || weight < 0) {
+				throw new IllegalArgumentException();
+			}
+			if (edgeCount == this.from.length) {
+				int capacity = edgeCount * 2;
+				this.from = Arrays.copyOf(this.from, capacity);
+				this.to = Arrays.copyOf(this.to, capacity);
+				this.weight = Arrays.copyOf(this.weight, capacity);
+			}
+			this.from[edgeCount] = from;
+			this.to[edgeCount] = to;
+			this.weight[edgeCount] = weight;
+			edgeCount++;
+			maxWeight = Math.max(maxWeight, weight);
+			return this;
+		}
+
+		/** Lays the edges out in CSR form (a counting sort on the
+		 * "from" vertex, so edges leaving a vertex keep the order they
+		 * were added in).
+		 * 
+		 * @return the graph
+		 */
+		public CsrGraph build() {
+			int[] offsets = new int[vertexCount + 1];
+			for (int i = 0; i < edgeCount; i++) {
+				offsets[from[i] + 1]++;
+			}
+			for (int v = 0; v < vertexCount; v++) {
+				offsets[v + 1] += offsets[v];
+			}
+			int[] next = Arrays.copyOf(offsets, vertexCount);
+			int[] targets = new int[edgeCount];
+			boolean small = maxWeight <= Byte.MAX_VALUE;
+			byte[] smallWeights = small ? new byte[edgeCount] : null;
+			int[] weights = small ? null : new int[edgeCount];
+			for (int i = 0; i < edgeCount; i++) {
+				int e = next[from[i]]++;
+				targets[e] = to[i];
+				if (small) {
+					smallWeights[e] = (byte) weight[i];
+				} else {
+					weights[e] = weight[i];
+				}
+			}
+			return new CsrGraph(offsets, targets, smallWeights, weights, maxWeight);
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <P>Single-source shortest paths by Meyer and Sanders' delta-stepping,
+ * using all the threads of a ForkJoinPool.</P>
+ *
+ * <P>Dijkstra's algorithm finishes one vertex at a time.  Delta-stepping
+ * instead keeps the reached vertices in buckets of width delta (bucket i
+ * holds the tentative costs i * delta up to (i + 1) * delta - 1) and
+ * settles a whole bucket at once: the edges of weight at most delta
+ * ("light" edges) out of the vertices in the bucket are relaxed in
+ * parallel, again and again while that puts vertices back into the
+ * bucket, and then the heavier edges out of everything the bucket
+ * settled are relaxed once, in parallel.  A larger delta means more
+ * vertices per step (more parallelism) but more vertices relaxed
+ * before their cost is final (more wasted work).</P>
+ *
+ * <P>The tentative cost and parent of each vertex are packed into one
+ * long (cost in the high half), so that a single compare-and-set
+ * lowers both together.  Since every tentative cost is within the
+ * largest edge weight (plus delta) of the bucket being settled, the
+ * buckets are reused cyclically.</P>
+ */
+final class DeltaStepping {
+
+	/* Vertices relaxed by one task (a maze vertex has at most 4 edges) */
+	private static final int GRAIN = 512;
+
+	/* Vertices a task collects before copying them to the shared list */
+	private static final int BLOCK = 256;
+
+	private static final long UNREACHED = Long.MAX_VALUE;
+
+	private static final VarHandle TENTATIVE = MethodHandles.arrayElementVarHandle(long[].class);
+	private static final VarHandle STAMP = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private DeltaStepping() {
+	}
+
+	/** Picks delta for a graph whose largest edge weight is maxWeight.
+	 * On mazes (weights 1 to 9, at most 4 edges per vertex) about half
+	 * the largest weight relaxes the fewest vertices more than once
+	 * (3 to 7% extra, against 4 to 13% for a delta of 1), while taking a
+	 * third as many steps as a delta of 1: 5 for the maze weights.
+	 *
+	 * @param maxWeight the largest edge weight
+	 * @return the bucket width
+	 */
+	static int defaultDelta(int maxWeight) {
+		return Math.max(1, (maxWeight + 1) / 2);
+	}
+
+	/** Computes the lowest cost path from start to every vertex,
+	 * running in parallel on the pool if the graph has at least
+	 * threshold vertices, and with Dijkstra's algorithm otherwise.
+	 *
+	 * @param delta the bucket width (at least 1)
+	 * @return the costs and parents of every vertex
+	 */
+	static ShortestPathTree shortestPaths(IndexedGraph graph, int start, int delta, ForkJoinPool pool,
+			int threshold) {
+		int n = graph.getVertexCount();
+		if (n < threshold || pool.getParallelism() == 1) {
+			return sequential(graph, start);
+		}
+		return new Search(graph, delta, pool).run(start);
+	}
+
+	/* Dijkstra's algorithm over the whole graph, copying the costs and
+	 * parents out of a context */
+	private static ShortestPathTree sequential(IndexedGraph graph, int start) {
+		int n = graph.getVertexCount();
+		SearchContext context = new SearchContext(n);
+		IndexedSearch.dijkstra(graph, start, -1, false,
+				DijkstraQueue.AUTO.newQueue(graph.getMaxWeight()), context, null);
+		int[] distances = new int[n];
+		int[] parents = new int[n];
+		for (int v = 0; v < n; v++) {
+			boolean reached = context.reached[v] == context.epoch;
+			distances[v] = reached ? context.cost[v] : -1;
+			parents[v] = reached ? context.parent[v] : -1;
+		}
+		return new ShortestPathTree(start, distances, parents);
+	}
+
+	/* The state of one parallel search */
+	private static final class Search {
+		private final IndexedGraph graph;
+		private final int delta;
+		private final ForkJoinPool pool;
+		private final long[] tentative;   // cost << 32 | parent, UNREACHED until reached
+
+		/* Vertices whose tentative cost went down during the current
+		 * step, each listed once (stamp[v] == step once listed) */
+		private final int[] improved;
+		private final AtomicInteger improvedSize = new AtomicInteger();
+		private final int[] stamp;
+		private int step;
+
+		/* Cyclic buckets of vertex ids; a vertex may be listed in a
+		 * bucket it has since moved out of, and is skipped there */
+		private final int[][] buckets;
+		private final int[] bucketSizes;
+
+		/* The vertices being relaxed, and those the current bucket has
+		 * settled so far */
+		private int[] frontier;
+		private int[] settled;
+		private int settledSize;
+
+		Search(IndexedGraph graph, int delta, ForkJoinPool pool) {
+			int n = graph.getVertexCount();
+			this.graph = graph;
+			this.delta = delta;
+			this.pool = pool;
+			this.tentative = new long[n];
+			Arrays.fill(tentative, UNREACHED);
+			this.improved = new int[n];
+			this.stamp = new int[n];
+			this.frontier = new int[16];
+			this.settled = new int[16];
+			int cycle = graph.getMaxWeight() / delta + 2;
+			this.buckets = new int[cycle][16];
+			this.bucketSizes = new int[cycle];
+		}
+
+		ShortestPathTree run(int start) {
+			tentative[start] = (long) 0 << 32 | start;
+			addToBucket(start);
+			int queued = 1;
+			for (int bucket = 0; queued > 0; bucket++) {
+				int slot = bucket % buckets.length;
+				if (bucketSizes[slot] == 0) {
+					continue;
+				}
+				settledSize = 0;
+				while (bucketSizes[slot] > 0) {
+					// take the vertices really in this bucket, each once
+					int frontierSize = 0;
+					step++;
+					int[] list = buckets[slot];
+					for (int i = 0, size = bucketSizes[slot]; i < size; i++) {
+						int v = list[i];
+						if (cost(v) / delta == bucket && stamp[v] != step) {
+							stamp[v] = step;
+							if (frontierSize == frontier.length) {
+								frontier = Arrays.copyOf(frontier, frontierSize * 2);
+							}
+							frontier[frontierSize++] = v;
+						}
+					}
+					queued -= bucketSizes[slot];
+					bucketSizes[slot] = 0;
+					if (settledSize + frontierSize > settled.length) {
+						settled = Arrays.copyOf(settled, Math.max(settled.length * 2, settledSize + frontierSize));
+					}
+					System.arraycopy(frontier, 0, settled, settledSize, frontierSize);
+					settledSize += frontierSize;
+					queued += relax(frontier, frontierSize, true);
+				}
+				queued += relax(settled, settledSize, false);
+			}
+			int n = tentative.length;
+			int[] distances = new int[n];
+			int[] parents = new int[n];
+			for (int v = 0; v < n; v++) {
+				long packed = tentative[v];
+				distances[v] = packed == UNREACHED ? -1 : (int) (packed >>> 32);
+				parents[v] = packed == UNREACHED ? -1 : (int) packed;
+			}
+			return new ShortestPathTree(start, distances, parents);
+		}
+
+		/* Relaxes the light (or heavy) edges out of vertices[0 .. size) in
+		 * parallel, then puts every vertex that improved into the bucket
+		 * of its new cost, and returns how many were bucketed */
+		private int relax(int[] vertices, int size, boolean light) {
+			step++;
+			improvedSize.set(0);
+			if (size > GRAIN) {
+				pool.invoke(new Relax(vertices, 0, size, light));
+			} else { // too small to split: relax them here rather than hand them to the pool
+				new Relax(vertices, 0, size, light).compute();
+			}
+			int count = improvedSize.get();
+			for (int i = 0; i < count; i++) {
+				addToBucket(improved[i]);
+			}
+			return count;
+		}
+
+		/* Only called between the parallel steps */
+		private int cost(int vertex) {
+			return (int) (tentative[vertex] >>> 32);
+		}
+
+		private void addToBucket(int vertex) {
+			int slot = cost(vertex) / delta % buckets.length;
+			int size = bucketSizes[slot];
+			if (size == buckets[slot].length) {
+				buckets[slot] = Arrays.copyOf(buckets[slot], size * 2);
+			}
+			buckets[slot][size] = vertex;
+			bucketSizes[slot] = size + 1;
+		}
+
+		/* Relaxes the light or heavy edges out of vertices[from .. to) */
+		private final class Relax extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final int[] vertices;
+			private final int from, to;
+			private final boolean light;
+
+			Relax(int[] vertices, int from, int to, boolean light) {
+				this.vertices = vertices;
+				this.from = from;
+				this.to = to;
+				this.light = light;
+			}
+
+			@Override
+			protected void compute() {
+				if (to - from > GRAIN) {
+					int middle = (from + to) >>> 1;
+					invokeAll(new Relax(vertices, from, middle, light), new Relax(vertices, middle, to, light));
+					return;
+				}
+				int[] block = new int[BLOCK];
+				int blockSize = 0;
+				int currStep = step;
+				for (int i = from; i < to; i++) {
+					int curr = vertices[i];
+					int minCost = (int) ((long) TENTATIVE.getOpaque(tentative, curr) >>> 32);
+					for (int e = graph.edgeBegin(curr), last = graph.edgeEnd(curr); e < last; e++) {
+						int successor = graph.edgeTarget(e);
+						int weight;
+						if (successor < 0 || ((weight = graph.edgeWeight(e)) <= delta) != light) {
+							continue;
+						}
+						if (lower(successor, minCost + weight, curr)) {
+							int old = stamp[successor];
+							if (old != currStep && STAMP.compareAndSet(stamp, successor, old, currStep)) {
+								block[blockSize++] = successor;
+								if (blockSize == BLOCK) {
+									flush(block, blockSize);
+									blockSize = 0;
+								}
+							}
+						}
+					}
+				}
+				flush(block, blockSize);
+			}
+
+			/* Lowers the tentative cost of vertex to cost (through parent),
+			 * unless it is already that low; returns true if it was lowered */
+			private boolean lower(int vertex, int cost, int parent) {
+				long packed = (long) cost << 32 | parent;
+				long old = (long) TENTATIVE.getOpaque(tentative, vertex); // opaque: a long read must not tear
+				while (cost < (int) (old >>> 32)) {
+					long witness = (long) TENTATIVE.compareAndExchange(tentative, vertex, old, packed);
+					if (witness == old) {
+						return true;
+					}
+					old = witness;
+				}
+				return false;
+			}
+
+			private void flush(int[] block, int size) {
+				int at = improvedSize.getAndAdd(size);
+				System.arraycopy(block, 0, improved, at, size);
+			}
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package graph;
+
+/**
+ * <P>The priority queue "engine" used by WeightedGraph when it runs
+ * Dijkstra's algorithm.  All engines produce the same costs and the
+ * same kind of observer notifications; they only differ in speed
+ * and memory use.</P>
+ * 
+ * <P>The bucket queue only works when every key in the queue is within
+ * the largest edge weight of the smallest one, which is true for 
+ * Dijkstra's algorithm but not for A*.  A* therefore always uses a heap
+ * (the indexed heap, unless LAZY_HEAP is selected).</P>
+ */
+public enum DijkstraQueue {
+
+	/** BUCKET when the largest edge weight is at most 
+	 * BUCKET_WEIGHT_LIMIT, otherwise INDEXED_HEAP. */
+	AUTO,
+
+	/** Binary heap with one entry per vertex and decrease-key. */
+	INDEXED_HEAP,
+
+	/** Binary heap of (cost, vertex) entries with lazy deletion of
+	 * stale entries.  Uses more memory on dense graphs, but has a
+	 * smaller constant factor. */
+	LAZY_HEAP,
+
+	/** Dial's algorithm: a circular array of C + 1 buckets, where C is
+	 * the largest edge weight.  O(V + E + D) time for a largest path
+	 * cost D, with no comparisons.  Falls back to INDEXED_HEAP if the
+	 * largest weight is not known. */
+	BUCKET;
+
+	/** The largest edge weight for which AUTO chooses BUCKET. */
+	public static final int BUCKET_WEIGHT_LIMIT = 255;
+
+	/* Creates the queue for a Dijkstra search on a graph whose largest
+	 * edge weight is maxWeight (-1 if unknown) */
+	VertexQueue newQueue(int maxWeight) {
+		switch (this) {
+		case LAZY_HEAP:
+			return new LazyMinHeap();
+		case BUCKET:
+			return maxWeight >= 0 ? new BucketQueue(maxWeight) : new IndexedMinHeap();
+		case AUTO:
+			return maxWeight >= 0 && maxWeight <= BUCKET_WEIGHT_LIMIT ? new BucketQueue(maxWeight) : new IndexedMinHeap();
+		default:
+			return new IndexedMinHeap();
+		}
+	}
+
+	/* Creates the queue for an A* search, whose keys are not bounded
+	 * by the largest edge weight */
+	VertexQueue newHeap() {
+		return this == LAZY_HEAP ? new LazyMinHeap() : new IndexedMinHeap();
+	}
+}
@@ -0,0 +1,291 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <P>The lowest cost paths from one source vertex to every vertex of a
+ * WeightedGraph, kept up to date as edges are added or reweighted.</P>
+ *
+ * <P>The tree of lowest cost paths is computed once, and then repaired
+ * after every change to an edge (it listens to the graph, see
+ * EdgeChangeListener), in the manner of Ramalingam and Reps' dynamic
+ * shortest paths:</P>
+ *
+ * <P>A new edge, or a lower weight, can only make paths cheaper.  If
+ * it does lower the cost of the vertex it leads to, the lower costs are
+ * spread from that vertex by Dijkstra's algorithm, which stops wherever
+ * they are no longer an improvement.</P>
+ *
+ * <P>A higher weight only matters if the edge is on the tree.  Then the
+ * vertices below it in the tree (the only ones whose cost can go up)
+ * are cut off, each is given its best cost through an edge from a
+ * vertex outside the cut-off part, and those costs are settled by
+ * Dijkstra's algorithm run over the cut-off part alone.</P>
+ *
+ * <P>Either way the work done is proportional to the number of vertices
+ * whose cost or parent changes (and their edges), not to the size of
+ * the graph.  (A change that reroutes a large part of the tree, such
+ * as a shortcut near the source, is cheaper to handle by computing
+ * the tree again, which is what happens once a repair has reached an
+ * eighth of the vertices.)  The repairs walk the graph's adjacency
+ * maps, so the graph must be one that can be changed: a MazeGraph 
+ * with Storage.HASH_MAP, not one of the compact storages.</P>
+ *
+ * <P>A DynamicShortestPaths is not thread safe, and must only be used
+ * by the thread that changes the graph.</P>
+ */
+public final class DynamicShortestPaths<V> {
+
+	private static final int UNREACHED = Integer.MAX_VALUE;
+
+	/* A repair that reaches more than 1 / RECOMPUTE_FRACTION of the
+	 * vertices is abandoned for a fresh computation over the indexed
+	 * graph, which is several times faster per vertex than walking the
+	 * adjacency maps */
+	private static final int RECOMPUTE_FRACTION = 8;
+	private static final int MIN_REPAIR_LIMIT = 64;
+
+	private final WeightedGraph<V> graph;
+	private final int source;
+	private final EdgeChangeListener<V> listener = this::edgeChanged;
+
+	/* Cost and parent of every vertex, by id (UNREACHED and -1 for the
+	 * vertices that cannot be reached); longer than the number of
+	 * vertices, to leave room for vertices added to the graph */
+	private int[] distance;
+	private int[] parent;
+
+	/* Marks of the vertices cut off by a weight increase (== stamp) */
+	private int[] cutOff;
+	private int stamp;
+
+	private final IndexedMinHeap queue = new IndexedMinHeap();
+	private int lastRepairSize;
+
+	/** Computes the lowest cost paths from source, and starts keeping
+	 * them up to date as the graph changes.
+	 *
+	 * @param graph the graph
+	 * @param source vertex where the paths begin
+	 * @throws IllegalArgumentException if source is not in the graph
+	 */
+	public DynamicShortestPaths(WeightedGraph<V> graph, V source) {
+		this.graph = graph;
+		this.source = graph.getVertexId(source);
+		if (this.source == -1) {
+			throw new IllegalArgumentException();
+		}
+		int n = graph.getVertexCount();
+		distance = new int[Math.max(16, n + (n >>> 1))];
+		parent = new int[distance.length];
+		cutOff = new int[distance.length];
+		recompute();
+		graph.addEdgeChangeListener(listener);
+	}
+
+	/** Stops keeping the paths up to date: the graph forgets this
+	 * object, and the paths stay as they are now.
+	 */
+	public void detach() {
+		graph.removeEdgeChangeListener(listener);
+	}
+
+	/** @return the vertex the paths begin at */
+	public V getSource() {
+		return graph.getVertex(source);
+	}
+
+	/** @param vertex a vertex of the graph
+	 * @return the cost of the lowest cost path from the source to the
+	 * vertex, or -1 if it cannot be reached
+	 */
+	public int getDistance(V vertex) {
+		int id = requireVertexId(vertex);
+		return id < distance.length && distance[id] != UNREACHED ? distance[id] : -1;
+	}
+
+	/** @param vertex a vertex of the graph
+	 * @return the vertices on the lowest cost path from the source to
+	 * the vertex, in order (empty if it cannot be reached)
+	 */
+	public List<V> getPath(V vertex) {
+		int id = requireVertexId(vertex);
+		LinkedList<V> path = new LinkedList<>();
+		if (id >= distance.length || distance[id] == UNREACHED) {
+			return path;
+		}
+		for (int v = id; ; v = parent[v]) {
+			path.addFirst(graph.getVertex(v));
+			if (v == source) {
+				return path;
+			}
+		}
+	}
+
+	/** @return the number of vertices whose paths the last change to
+	 * the graph made this object look at again (0 if the change did
+	 * not affect any path)
+	 */
+	public int getLastRepairSize() {
+		return lastRepairSize;
+	}
+
+	private void edgeChanged(V from, V to, Integer oldWeight, int newWeight) {
+		ensureCapacity(graph.getVertexCount());
+		int u = graph.getVertexId(from);
+		int v = graph.getVertexId(to);
+		lastRepairSize = 0;
+		if (oldWeight == null || newWeight < oldWeight) {
+			if (distance[u] != UNREACHED && distance[u] + newWeight < distance[v]) {
+				distance[v] = distance[u] + newWeight;
+				parent[v] = u;
+				queue.reset(distance.length);
+				queue.offer(v, distance[v]);
+				spreadDecrease();
+			}
+		} else if (newWeight > oldWeight && parent[v] == u && v != source) {
+			repairIncrease(v);
+		}
+	}
+
+	/* Dijkstra's algorithm from the queued vertices, lowering the costs
+	 * of the vertices beyond them as long as that is an improvement */
+	private void spreadDecrease() {
+		int limit = repairLimit();
+		while (!queue.isEmpty()) {
+			int curr = queue.poll();
+			if (++lastRepairSize > limit) {
+				recompute();
+				return;
+			}
+			Map<V,Integer> edges = graph.outgoingEdges(graph.getVertex(curr));
+			if (edges == null) {
+				continue;
+			}
+			for (Map.Entry<V,Integer> edge : edges.entrySet()) {
+				int successor = graph.getVertexId(edge.getKey());
+				int cost = distance[curr] + edge.getValue();
+				if (cost < distance[successor]) {
+					distance[successor] = cost;
+					parent[successor] = curr;
+					queue.offer(successor, cost);
+				}
+			}
+		}
+	}
+
+	/* The edge into top, on the tree, got heavier: cuts off the subtree
+	 * of top and gives its vertices their new lowest costs */
+	private void repairIncrease(int top) {
+		stamp++;
+		int[] subtree = new int[16];
+		int size = 0;
+		subtree[size++] = top;
+		cutOff[top] = stamp;
+		for (int i = 0; i < size; i++) { // the children of a vertex are the ends of its edges that name it as parent
+			int curr = subtree[i];
+			Map<V,Integer> edges = graph.outgoingEdges(graph.getVertex(curr));
+			if (edges == null) {
+				continue;
+			}
+			for (V vertex : edges.keySet()) {
+				int child = graph.getVertexId(vertex);
+				if (parent[child] == curr && cutOff[child] != stamp) {
+					cutOff[child] = stamp;
+					if (size == subtree.length) {
+						subtree = Arrays.copyOf(subtree, size * 2);
+					}
+					subtree[size++] = child;
+				}
+			}
+		}
+		lastRepairSize = size;
+		if (size > repairLimit()) {
+			recompute();
+			return;
+		}
+		for (int i = 0; i < size; i++) {
+			distance[subtree[i]] = UNREACHED;
+			parent[subtree[i]] = -1;
+		}
+
+		// Best way into each cut-off vertex from the rest of the tree
+		queue.reset(distance.length);
+		for (int i = 0; i < size; i++) {
+			int curr = subtree[i];
+			Map<V,Integer> edges = graph.incomingEdges(graph.getVertex(curr));
+			if (edges == null) {
+				continue;
+			}
+			for (Map.Entry<V,Integer> edge : edges.entrySet()) {
+				int predecessor = graph.getVertexId(edge.getKey());
+				if (cutOff[predecessor] != stamp && distance[predecessor] != UNREACHED
+						&& distance[predecessor] + edge.getValue() < distance[curr]) {
+					distance[curr] = distance[predecessor] + edge.getValue();
+					parent[curr] = predecessor;
+				}
+			}
+			if (distance[curr] != UNREACHED) {
+				queue.offer(curr, distance[curr]);
+			}
+		}
+
+		// Settle them, only relaxing edges inside the cut-off part
+		while (!queue.isEmpty()) {
+			int curr = queue.poll();
+			Map<V,Integer> edges = graph.outgoingEdges(graph.getVertex(curr));
+			if (edges == null) {
+				continue;
+			}
+			for (Map.Entry<V,Integer> edge : edges.entrySet()) {
+				int successor = graph.getVertexId(edge.getKey());
+				int cost = distance[curr] + edge.getValue();
+				if (cutOff[successor] == stamp && cost < distance[successor]) {
+					distance[successor] = cost;
+					parent[successor] = curr;
+					queue.offer(successor, cost);
+				}
+			}
+		}
+	}
+
+	private int repairLimit() {
+		return Math.max(MIN_REPAIR_LIMIT, graph.getVertexCount() / RECOMPUTE_FRACTION);
+	}
+
+	/* Computes every path again from scratch */
+	private void recompute() {
+		ShortestPathTree tree = graph.getShortestPathTree(graph.getVertex(source));
+		int n = tree.getVertexCount();
+		ensureCapacity(n);
+		for (int v = 0; v < distance.length; v++) {
+			boolean reached = v < n && tree.isReached(v);
+			distance[v] = reached ? tree.getDistance(v) : UNREACHED;
+			parent[v] = reached ? tree.getParent(v) : -1;
+		}
+	}
+
+	/* Makes room for vertices added to the graph since the last change */
+	private void ensureCapacity(int n) {
+		if (distance.length < n) {
+			int length = Math.max(n, distance.length * 2);
+			int old = distance.length;
+			distance = Arrays.copyOf(distance, length);
+			parent = Arrays.copyOf(parent, length);
+			cutOff = Arrays.copyOf(cutOff, length);
+			Arrays.fill(distance, old, length, UNREACHED);
+			Arrays.fill(parent, old, length, -1);
+		}
+	}
+
+	private int requireVertexId(V vertex) {
+		int id = graph.getVertexId(vertex);
+		if (id == -1) {
+			throw new IllegalArgumentException();
+		}
+		return id;
+	}
+}
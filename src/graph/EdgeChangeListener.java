@@ -0,0 +1,23 @@
+package graph;
+
+/**
+ * <P>An EdgeChangeListener registers with a WeightedGraph (see
+ * WeightedGraph.addEdgeChangeListener) to be told about every edge
+ * that is added to the graph or given a new weight, right after the
+ * change is made.  It lets results computed from the graph be repaired
+ * instead of recomputed.</P>
+ *
+ * @param <V> the type of the vertices of the graph
+ */
+public interface EdgeChangeListener<V> {
+
+	/** Called after addEdge has added or replaced an edge.
+	 *
+	 * @param from the vertex the edge leads from
+	 * @param to the vertex the edge leads to
+	 * @param oldWeight the weight the edge had before, or null if it
+	 * is a new edge
+	 * @param newWeight the weight the edge has now
+	 */
+	void edgeChanged(V from, V to, Integer oldWeight, int newWeight);
+}
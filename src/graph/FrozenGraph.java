@@ -0,0 +1,278 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * <P>An immutable snapshot of a WeightedGraph (see WeightedGraph.freeze)
+ * that any number of threads can search at once.</P>
+ *
+ * <P>The snapshot holds the indexed form of the graph and of its reverse,
+ * its vertex ids, heuristic and Dijkstra queue as they were when it was
+ * taken; later changes to the WeightedGraph do not show up in it.  It
+ * has no observers.  Each thread searches with its own SearchContext,
+ * kept in a ThreadLocal, so after warm-up a query allocates only its
+ * result.</P>
+ *
+ * <P>solveAll answers a batch of queries on a ForkJoinPool.  DIJKSTRA
+ * queries that share a start vertex are answered by a single search
+ * from that vertex, which stops once all of their ends are finished.</P>
+ */
+public final class FrozenGraph<V> {
+
+	private final IndexedGraph graph;
+	private final IndexedGraph reverse;
+	private final ToIntFunction<V> vertexIds;
+	private final IntFunction<V> vertices;
+	private final IntFunction<IntUnaryOperator> estimates; // goal id -> estimated cost to it of each vertex id
+	private final DijkstraQueue dijkstraQueue;
+	private final ThreadLocal<SearchContext> contexts = ThreadLocal.withInitial(SearchContext::new);
+
+	FrozenGraph(IndexedGraph graph, IndexedGraph reverse, ToIntFunction<V> vertexIds, IntFunction<V> vertices,
+			IntFunction<IntUnaryOperator> estimates, DijkstraQueue dijkstraQueue) {
+		this.graph = graph;
+		this.reverse = reverse;
+		this.vertexIds = vertexIds;
+		this.vertices = vertices;
+		this.estimates = estimates;
+		this.dijkstraQueue = dijkstraQueue;
+	}
+
+	/**
+	 * <P>Loads a graph saved by WeightedGraph.save as a FrozenGraph,
+	 * without building a WeightedGraph: the edges are decoded straight
+	 * into a CsrGraph, with nothing allocated per edge, which makes this
+	 * the quickest way to get a saved graph ready for searching.  A*
+	 * searches get no heuristic (see the other load).</P>
+	 *
+	 * @param file a file written by WeightedGraph.save
+	 * @param codec how to read a vertex
+	 * @return the graph, with the same vertex ids as the one saved
+	 * @throws IOException if the file cannot be read, or is not a graph
+	 * file, or is damaged
+	 */
+	public static <V> FrozenGraph<V> load(Path file, VertexCodec<V> codec) throws IOException {
+		return load(file, codec, (vertex, goal) -> 0);
+	}
+
+	/**
+	 * <P>Loads a graph saved by WeightedGraph.save as a FrozenGraph,
+	 * whose A* searches use the given heuristic.</P>
+	 *
+	 * @param file a file written by WeightedGraph.save
+	 * @param codec how to read a vertex
+	 * @param heuristic estimates the cost of the cheapest path from a
+	 * vertex to the goal of an A* search
+	 * @return the graph, with the same vertex ids as the one saved
+	 * @throws IOException if the file cannot be read, or is not a graph
+	 * file, or is damaged
+	 */
+	public static <V> FrozenGraph<V> load(Path file, VertexCodec<V> codec, Heuristic<V> heuristic)
+			throws IOException {
+		GraphFile<V> contents = GraphFile.read(file, codec);
+		Map<V,Integer> ids = contents.vertexIds();
+		List<V> vertices = contents.vertices;
+		return new FrozenGraph<>(contents.graph, contents.graph.reverse(), vertex -> ids.getOrDefault(vertex, -1),
+				vertices::get, goalId -> {
+					V goal = vertices.get(goalId);
+					return id -> heuristic.estimate(vertices.get(id), goal);
+				}, DijkstraQueue.AUTO);
+	}
+
+	/** @return the number of vertices in the graph */
+	public int getVertexCount() {
+		return graph.getVertexCount();
+	}
+
+	/** @param vertex the vertex we are looking for
+	 * @return id of the vertex (the same as in the WeightedGraph), or -1
+	 * if it is not in the graph
+	 */
+	public int getVertexId(V vertex) {
+		return vertexIds.applyAsInt(vertex);
+	}
+
+	/** @param id id of a vertex, from 0 to getVertexCount() - 1
+	 * @return the vertex with that id
+	 */
+	public V getVertex(int id) {
+		return vertices.apply(id);
+	}
+
+	/** @return the graph in indexed form */
+	public IndexedGraph getIndexedGraph() {
+		return graph;
+	}
+
+	/**
+	 * <P>Finds a path from "start" to "end" with the given algorithm,
+	 * as WeightedGraph.findPath does.  May be called by several threads
+	 * at once.</P>
+	 *
+	 * @param algorithm the search to run
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 * @return the path found (empty if "end" cannot be reached), its
+	 * cost and the number of vertices visited
+	 * @throws IllegalArgumentException if either vertex is not
+	 * in the graph
+	 */
+	public PathResult<V> findPath(SearchAlgorithm algorithm, V start, V end) {
+		SearchContext context = contexts.get();
+		search(algorithm, requireVertexId(start), requireVertexId(end), context);
+		return result(context);
+	}
+
+	/**
+	 * <P>Answers every query on the common ForkJoinPool.</P>
+	 *
+	 * @param queries the queries to answer
+	 * @return the result of each query, in the same order
+	 * @throws IllegalArgumentException if a start or end vertex of a
+	 * query is not in the graph (no query is run)
+	 */
+	public List<PathResult<V>> solveAll(List<Query<V>> queries) {
+		return solveAll(queries, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * <P>Answers every query on the given pool.  The queries are split
+	 * into jobs: all the DIJKSTRA queries from one start vertex make up
+	 * one job, which is answered by a single Dijkstra search that stops
+	 * once all of their ends are finished (the visited count of each of
+	 * these results is that of the shared search).  Every other query is
+	 * a job of its own.  The jobs are then divided among the threads of
+	 * the pool.</P>
+	 *
+	 * @param queries the queries to answer
+	 * @param pool the threads to search with
+	 * @return the result of each query, in the same order
+	 * @throws IllegalArgumentException if a start or end vertex of a
+	 * query is not in the graph (no query is run)
+	 */
+	public List<PathResult<V>> solveAll(List<Query<V>> queries, ForkJoinPool pool) {
+		int count = queries.size();
+		if (count == 0) {
+			return Collections.emptyList();
+		}
+		SearchAlgorithm[] algorithms = new SearchAlgorithm[count];
+		int[] starts = new int[count];
+		int[] ends = new int[count];
+		Map<Integer, Integer> groups = new HashMap<>(); // start id -> job of its DIJKSTRA queries
+		List<int[]> jobs = new ArrayList<>();           // each job: query count, then the query indexes
+		for (int i = 0; i < count; i++) {
+			Query<V> query = queries.get(i);
+			algorithms[i] = query.getAlgorithm();
+			starts[i] = requireVertexId(query.getStart());
+			ends[i] = requireVertexId(query.getEnd());
+			Integer job = algorithms[i] == SearchAlgorithm.DIJKSTRA ? groups.get(starts[i]) : null;
+			if (job == null) {
+				if (algorithms[i] == SearchAlgorithm.DIJKSTRA) {
+					groups.put(starts[i], jobs.size());
+				}
+				jobs.add(new int[] {1, i});
+				continue;
+			}
+			int[] group = jobs.get(job);
+			if (group[0] + 1 == group.length) {
+				group = Arrays.copyOf(group, group.length * 2);
+				jobs.set(job, group);
+			}
+			group[++group[0]] = i;
+		}
+
+		@SuppressWarnings("unchecked")
+		PathResult<V>[] results = (PathResult<V>[]) new PathResult<?>[count];
+		int[][] jobArray = jobs.toArray(new int[0][]);
+		pool.invoke(new Solve(jobArray, 0, jobArray.length, algorithms, starts, ends, results));
+		return Collections.unmodifiableList(Arrays.asList(results));
+	}
+
+	/* Answers the jobs jobs[from .. to), splitting them among the pool */
+	private final class Solve extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[][] jobs;
+		private final int from, to;
+		private final SearchAlgorithm[] algorithms;
+		private final int[] starts, ends;
+		private final PathResult<V>[] results;
+
+		Solve(int[][] jobs, int from, int to, SearchAlgorithm[] algorithms, int[] starts, int[] ends,
+				PathResult<V>[] results) {
+			this.jobs = jobs;
+			this.from = from;
+			this.to = to;
+			this.algorithms = algorithms;
+			this.starts = starts;
+			this.ends = ends;
+			this.results = results;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Solve(jobs, from, middle, algorithms, starts, ends, results),
+						new Solve(jobs, middle, to, algorithms, starts, ends, results));
+				return;
+			}
+			SearchContext context = contexts.get();
+			int[] job = jobs[from];
+			int first = job[1];
+			if (job[0] == 1) {
+				search(algorithms[first], starts[first], ends[first], context);
+				results[first] = result(context);
+				return;
+			}
+			int[] groupEnds = new int[job[0]];
+			for (int k = 0; k < job[0]; k++) {
+				groupEnds[k] = ends[job[k + 1]];
+			}
+			IndexedSearch.dijkstraToAll(graph, starts[first], groupEnds, groupEnds.length,
+					context.forwardQueue(dijkstraQueue, graph.getMaxWeight()), context);
+			for (int k = 0; k < job[0]; k++) {
+				int query = job[k + 1];
+				if (context.done[ends[query]] == context.epoch) {
+					context.tracePath(graph, starts[query], ends[query]);
+				} else {
+					context.pathLength = 0;
+					context.pathCost = -1;
+				}
+				results[query] = result(context);
+			}
+		}
+	}
+
+	private void search(SearchAlgorithm algorithm, int startId, int endId, SearchContext context) {
+		IndexedSearch.run(algorithm, graph, reverse, startId, endId,
+				algorithm == SearchAlgorithm.A_STAR ? estimates.apply(endId) : null, dijkstraQueue, context, null);
+	}
+
+	private PathResult<V> result(SearchContext context) {
+		List<V> path = new LinkedList<>();
+		for (int i = 0; i < context.getPathLength(); i++) {
+			path.add(vertices.apply(context.getPathVertex(i)));
+		}
+		return new PathResult<>(path, context.getPathCost(), context.getVisitedCount());
+	}
+
+	private int requireVertexId(V vertex) {
+		int id = vertexIds.applyAsInt(vertex);
+		if (id == -1) {
+			throw new IllegalArgumentException();
+		}
+		return id;
+	}
+}
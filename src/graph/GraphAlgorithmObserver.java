@@ -31,7 +31,26 @@ public interface GraphAlgorithmObserver<V> {
 	 * @param vertexBeingVisited
 	 */
 	public void notifyVisit(V vertexBeingVisited);
-	
+
+	/** Called by the graph to notify this Observer that
+	 * a vertex is being "visited" during either DFS or BFS,
+	 * together with where the search came from.  This is the
+	 * call the graph makes; by default it just calls
+	 * notifyVisit(vertexBeingVisited).  Observers that follow the
+	 * shape of the search (a DFS backing up, the levels of a BFS)
+	 * override it, and need not search for the parent themselves.
+	 *
+	 * @param vertexBeingVisited
+	 * @param parent the vertex the search reached it from (its
+	 * parent in the search tree), or null for the vertex the
+	 * search began at
+	 * @param depth number of edges from the starting vertex to
+	 * this one along the search tree
+	 */
+	public default void notifyVisit(V vertexBeingVisited, V parent, int depth) {
+		notifyVisit(vertexBeingVisited);
+	}
+
 	/** Called by the graph to notify this observer that
 	 * the search (either DFS or BFS) is over.
 	 */
@@ -64,4 +83,32 @@ public interface GraphAlgorithmObserver<V> {
 	 * path from start to finish.
 	 */
 	public void notifyDijkstraIsOver(List<V> path);
+
+	/** Called by the graph to notify this observer that
+	 * an A* search has begun.  (Observers that do not follow
+	 * A* searches need not implement the A* methods.)
+	 */
+	public default void notifyAStarHasBegun() {
+	}
+
+	/** Called by the graph to notify this observer that
+	 * a vertex has been reached by an A* search.  When the
+	 * second parameter is false the vertex has just been added
+	 * to the frontier (or its cost has improved); when it is 
+	 * true the vertex has been taken off the frontier and visited.
+	 * 
+	 * @param vertex
+	 * @param visited
+	 */
+	public default void notifyAStarVisit(V vertex, boolean visited) {
+	}
+
+	/** Called by the graph to notify this observer that
+	 * an A* search is over.
+	 * 
+	 * @param path the lowest cost path from the starting vertex
+	 * to the goal, or an empty list if the goal cannot be reached
+	 */
+	public default void notifyAStarIsOver(List<V> path) {
+	}
 }
@@ -0,0 +1,339 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+
+/**
+ * <P>The binary file format that WeightedGraph.save writes, and
+ * WeightedGraph.load and FrozenGraph.load read.  All numbers are
+ * little-endian.  A file holds, in order:</P>
+ *
+ * <P>1. A header of five ints: the text "WGRF", the format version,
+ * the number of vertices, the number of edges, and how the weights
+ * are stored (NIBBLES or VARINTS).</P>
+ * <P>2. The vertex table: each vertex, in id order, as its VertexCodec
+ * writes it.</P>
+ * <P>3. The number of edges leaving each vertex, in id order, as
+ * varints (the CSR offsets are their running sum).</P>
+ * <P>4. The target of each edge, in CSR order, as the zigzag varint of
+ * target id - source id.  In a maze most of these fit in one byte.</P>
+ * <P>5. The weight of each edge, in CSR order: two to a byte (low
+ * nibble first) if every weight is below 16, varints otherwise.</P>
+ * <P>6. The CRC32 of everything before it, as an int.</P>
+ *
+ * <P>Empty edge slots (see IndexedGraph) are left out.  The writer
+ * streams the graph through a small buffer, without copying it.  The
+ * reader maps the file and decodes it straight into the arrays of a
+ * CsrGraph, allocating nothing per edge (only the vertices themselves
+ * are objects).</P>
+ */
+final class GraphFile<V> {
+
+	private static final int MAGIC = 0x46524757; // "WGRF", little-endian
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 20;
+	private static final int NIBBLES = 0;
+	private static final int VARINTS = 1;
+
+	/** The vertices, indexed by id */
+	final List<V> vertices;
+	/** The edges between vertex ids */
+	final CsrGraph graph;
+
+	private GraphFile(List<V> vertices, CsrGraph graph) {
+		this.vertices = vertices;
+		this.graph = graph;
+	}
+
+	/** @return a map from each vertex to its id
+	 * @throws IOException if two vertices are equal */
+	Map<V,Integer> vertexIds() throws IOException {
+		Map<V,Integer> ids = new HashMap<>(Math.max(16, (int) (vertices.size() / 0.75f) + 1));
+		for (int id = 0; id < vertices.size(); id++) {
+			if (ids.put(vertices.get(id), id) != null) {
+				throw new IOException("Duplicate vertex in graph file: " + vertices.get(id));
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * <P>Writes a graph to a file (replaced if it exists).</P>
+	 *
+	 * @param file where to write the graph
+	 * @param graph the edges of the graph
+	 * @param vertices the vertex with each id of the graph
+	 * @param codec how to write a vertex
+	 * @throws IOException if the file cannot be written
+	 */
+	static <V> void write(Path file, IndexedGraph graph, IntFunction<V> vertices, VertexCodec<V> codec)
+			throws IOException {
+		int n = graph.getVertexCount();
+		long edgeCount = 0;
+		boolean nibbles = true;
+		for (int v = 0; v < n; v++) {
+			edgeCount += degree(graph, v);
+		}
+		if (edgeCount > Integer.MAX_VALUE) {
+			throw new IOException("Too many edges to save: " + edgeCount);
+		}
+		if (graph.getMaxWeight() > 15) { // only a bound: check the weights themselves
+			for (int v = 0; v < n && nibbles; v++) {
+				for (int e = graph.edgeBegin(v); e < graph.edgeEnd(v); e++) {
+					if (graph.edgeTarget(e) >= 0 && graph.edgeWeight(e) > 15) {
+						nibbles = false;
+						break;
+					}
+				}
+			}
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			Writer out = new Writer(channel);
+			out.buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt((int) edgeCount)
+					.putInt(nibbles ? NIBBLES : VARINTS);
+			for (int v = 0; v < n; v++) {
+				out.write(vertices.apply(v), codec);
+			}
+			for (int v = 0; v < n; v++) {
+				out.varint(degree(graph, v));
+			}
+			for (int v = 0; v < n; v++) {
+				for (int e = graph.edgeBegin(v); e < graph.edgeEnd(v); e++) {
+					if (graph.edgeTarget(e) >= 0) {
+						int delta = graph.edgeTarget(e) - v;
+						out.varint(delta << 1 ^ delta >> 31);
+					}
+				}
+			}
+			int pending = -1; // a low nibble waiting for its high one
+			for (int v = 0; v < n; v++) {
+				for (int e = graph.edgeBegin(v); e < graph.edgeEnd(v); e++) {
+					if (graph.edgeTarget(e) < 0) {
+						continue; // an empty slot
+					} else if (!nibbles) {
+						out.varint(graph.edgeWeight(e));
+					} else if (pending < 0) {
+						pending = graph.edgeWeight(e);
+					} else {
+						out.room(1).put((byte) (pending | graph.edgeWeight(e) << 4));
+						pending = -1;
+					}
+				}
+			}
+			if (pending >= 0) {
+				out.room(1).put((byte) pending);
+			}
+			out.finish();
+		}
+	}
+
+	/**
+	 * <P>Reads a graph written by write.</P>
+	 *
+	 * @param file the file to read
+	 * @param codec how to read a vertex
+	 * @return the vertices and edges of the graph
+	 * @throws IOException if the file cannot be read, or is not a graph
+	 * file, or is damaged
+	 */
+	static <V> GraphFile<V> read(Path file, VertexCodec<V> codec) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE + 4) {
+				throw new IOException("Not a graph file: " + file);
+			}
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Graph file too large to map: " + file);
+			}
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			ByteBuffer in = mapped.order(ByteOrder.LITTLE_ENDIAN);
+			if (in.getInt() != MAGIC) {
+				throw new IOException("Not a graph file: " + file);
+			}
+			int version = in.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported graph file version " + version + ": " + file);
+			}
+			int n = in.getInt(), edgeCount = in.getInt(), encoding = in.getInt();
+			CRC32 crc = new CRC32();
+			crc.update(in.duplicate().position(0).limit((int) size - 4));
+			if ((int) crc.getValue() != in.getInt((int) size - 4)) {
+				throw new IOException("Corrupt graph file (bad checksum): " + file);
+			}
+			if (n < 0 || edgeCount < 0 || (encoding != NIBBLES && encoding != VARINTS)) {
+				throw new IOException("Corrupt graph file: " + file);
+			}
+			in.limit((int) size - 4);
+			try {
+				List<V> vertices = new ArrayList<>(n);
+				for (int v = 0; v < n; v++) {
+					vertices.add(codec.read(in));
+				}
+				int[] offsets = new int[n + 1];
+				for (int v = 0; v < n; v++) {
+					offsets[v + 1] = offsets[v] + varint(in);
+					if (offsets[v + 1] < offsets[v] || offsets[v + 1] > edgeCount) {
+						throw new IOException("Corrupt graph file: " + file);
+					}
+				}
+				if (offsets[n] != edgeCount) {
+					throw new IOException("Corrupt graph file: " + file);
+				}
+				int[] targets = new int[edgeCount];
+				for (int v = 0; v < n; v++) {
+					for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+						int zigzag = varint(in);
+						int target = v + (zigzag >>> 1 ^ -(zigzag & 1));
+						if (target < 0 || target >= n) {
+							throw new IOException("Corrupt graph file: " + file);
+						}
+						targets[e] = target;
+					}
+				}
+				byte[] smallWeights = null;
+				int[] weights = null;
+				int maxWeight = 0;
+				if (encoding == NIBBLES) {
+					smallWeights = new byte[edgeCount];
+					for (int e = 0; e < edgeCount; e += 2) {
+						int both = in.get();
+						smallWeights[e] = (byte) (both & 15);
+						if (e + 1 < edgeCount) {
+							smallWeights[e + 1] = (byte) (both >> 4 & 15);
+						}
+						maxWeight = Math.max(maxWeight, Math.max(both & 15, both >> 4 & 15));
+					}
+				} else {
+					weights = new int[edgeCount];
+					for (int e = 0; e < edgeCount; e++) {
+						weights[e] = varint(in);
+						if (weights[e] < 0) {
+							throw new IOException("Corrupt graph file: " + file);
+						}
+						maxWeight = Math.max(maxWeight, weights[e]);
+					}
+				}
+				if (in.hasRemaining()) {
+					throw new IOException("Corrupt graph file: " + file);
+				}
+				return new GraphFile<>(vertices, new CsrGraph(offsets, targets, smallWeights, weights, maxWeight));
+			} catch (BufferUnderflowException e) {
+				throw new IOException("Truncated graph file: " + file, e);
+			}
+		}
+	}
+
+	/* The number of edges leaving a vertex, not counting empty slots */
+	private static int degree(IndexedGraph graph, int vertex) {
+		int degree = 0;
+		for (int e = graph.edgeBegin(vertex); e < graph.edgeEnd(vertex); e++) {
+			if (graph.edgeTarget(e) >= 0) {
+				degree++;
+			}
+		}
+		return degree;
+	}
+
+	/* Reads an unsigned varint: 7 bits to a byte, low bits first, the
+	 * top bit set on every byte but the last */
+	private static int varint(ByteBuffer in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.get();
+			value |= (b & 0x7f) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Corrupt varint in graph file");
+	}
+
+	/* Streams bytes to a channel through a buffer, keeping the CRC32
+	 * of everything written */
+	private static final class Writer {
+
+		private final FileChannel channel;
+		private final CRC32 crc = new CRC32();
+		private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+		Writer(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		/* Returns the buffer, with at least "bytes" bytes of room */
+		ByteBuffer room(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				flush();
+			}
+			return buffer;
+		}
+
+		void varint(int value) throws IOException {
+			room(5);
+			while ((value & ~0x7f) != 0) {
+				buffer.put((byte) (value & 0x7f | 0x80));
+				value >>>= 7;
+			}
+			buffer.put((byte) value);
+		}
+
+		/* Writes a vertex, making room (and if need be a larger buffer)
+		 * until it fits */
+		<V> void write(V vertex, VertexCodec<V> codec) throws IOException {
+			while (true) {
+				int start = buffer.position();
+				try {
+					codec.write(vertex, buffer);
+					return;
+				} catch (BufferOverflowException e) {
+					buffer.position(start);
+					if (start == 0) {
+						buffer = ByteBuffer.allocate(buffer.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+					} else {
+						flush();
+					}
+				}
+			}
+		}
+
+		/* Writes the checksum after everything else */
+		void finish() throws IOException {
+			room(4);
+			int checksum = (int) crcOfBuffered();
+			buffer.putInt(checksum);
+			write();
+		}
+
+		private void flush() throws IOException {
+			crcOfBuffered();
+			write();
+		}
+
+		private long crcOfBuffered() {
+			crc.update(buffer.array(), 0, buffer.position());
+			return crc.getValue();
+		}
+
+		private void write() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package graph;
+
+import maze.Maze;
+
+/**
+ * <P>An implicit graph of a Maze.  Nothing is copied out of the maze:
+ * each edge is worked out from the maze's walls and weights when a
+ * search asks for it, so building a GridGraph costs nothing and it
+ * uses no memory beyond the Maze itself.</P>
+ * 
+ * <P>The juncture at (x, y) is vertex y * width + x.  Every vertex has
+ * four edge slots (right, left, up and down, in that order); a slot is
+ * empty when it is blocked by a wall or leads off the grid.</P>
+ */
+public final class GridGraph implements IndexedGraph {
+
+	private static final int RIGHT = 0, LEFT = 1, UP = 2; // anything else is down
+
+	private final Maze maze;
+	private final int width, height;
+
+	/** @param maze the maze whose junctures and passages form the graph
+	 * @throws IllegalArgumentException if the maze has too many
+	 * junctures for their four edge slots each to be numbered by an int
+	 * (more than 2^29)
+	 */
+	public GridGraph(Maze maze) {
+		this.maze = maze;
+		this.width = maze.getMazeWidth();
+		this.height = maze.getMazeHeight();
+		if ((long) width * height * 4 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Maze too large for a GridGraph: " + width + "x" + height);
+		}
+	}
+
+	@Override
+	public int getVertexCount() {
+		return width * height;
+	}
+
+	@Override
+	public int edgeBegin(int vertex) {
+		return vertex << 2;
+	}
+
+	@Override
+	public int edgeEnd(int vertex) {
+		return (vertex << 2) + 4;
+	}
+
+	@Override
+	public int edgeTarget(int edge) {
+		int vertex = edge >>> 2;
+		int x = vertex % width;
+		int y = vertex / width;
+		switch (edge & 3) {
+		case RIGHT:
+			return x != width - 1 && !maze.isWallToRight(x, y) ? vertex + 1 : -1;
+		case LEFT:
+			return x != 0 && !maze.isWallToLeft(x, y) ? vertex - 1 : -1;
+		case UP:
+			return y != 0 && !maze.isWallAbove(x, y) ? vertex - width : -1;
+		default: // down
+			return y != height - 1 && !maze.isWallBelow(x, y) ? vertex + width : -1;
+		}
+	}
+
+	@Override
+	public int getMaxWeight() {
+		return maze.getMaxWeight();
+	}
+
+	@Override
+	public int edgeWeight(int edge) {
+		int vertex = edge >>> 2;
+		int x = vertex % width;
+		int y = vertex / width;
+		switch (edge & 3) {
+		case RIGHT:
+			return maze.getWeightToRight(x, y);
+		case LEFT:
+			return maze.getWeightToLeft(x, y);
+		case UP:
+			return maze.getWeightAbove(x, y);
+		default: // down
+			return maze.getWeightBelow(x, y);
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package graph;
+
+/**
+ * <P>A Heuristic estimates the cost of the cheapest path from a vertex
+ * to the goal of an A* search (see WeightedGraph.DoAStar).</P>
+ * 
+ * <P>For A* to find a lowest cost path the estimate must be 
+ * "consistent": it never exceeds the weight of an edge plus the 
+ * estimate from the far end of that edge, and it is 0 at the goal.
+ * (A consistent heuristic never overestimates the real cost.)</P>
+ *
+ * @param <V> the type of the vertices of the graph
+ */
+public interface Heuristic<V> {
+
+	/** Estimates the cost of the cheapest path from vertex to goal.
+	 * 
+	 * @param vertex the vertex the path would start from
+	 * @param goal the vertex the search is looking for
+	 * @return a non-negative lower bound on the cost of the path
+	 */
+	int estimate(V vertex, V goal);
+}
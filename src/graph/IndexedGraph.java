@@ -0,0 +1,44 @@
+package graph;
+
+/**
+ * <P>A read-only view of a directed weighted graph whose vertices are
+ * numbered 0 .. getVertexCount() - 1.  The graph algorithms run on this
+ * view, so they can keep all of their bookkeeping in primitive arrays
+ * no matter how the graph is actually stored.</P>
+ * 
+ * <P>The edges leaving a vertex occupy the edge slots edgeBegin(vertex)
+ * up to (but not including) edgeEnd(vertex).  An implementation may
+ * leave some slots empty (for example, a grid where a wall blocks a
+ * direction); edgeTarget returns -1 for an empty slot.</P>
+ */
+public interface IndexedGraph {
+
+	/** @return the number of vertices in the graph */
+	int getVertexCount();
+
+	/** @param vertex id of a vertex
+	 * @return the first edge slot of the vertex
+	 */
+	int edgeBegin(int vertex);
+
+	/** @param vertex id of a vertex
+	 * @return one past the last edge slot of the vertex
+	 */
+	int edgeEnd(int vertex);
+
+	/** @param edge an edge slot
+	 * @return id of the vertex the edge leads to, or -1 if the
+	 * slot is empty
+	 */
+	int edgeTarget(int edge);
+
+	/** @param edge an edge slot that is not empty
+	 * @return the (non-negative) weight of the edge
+	 */
+	int edgeWeight(int edge);
+
+	/** @return the largest edge weight in the graph (0 if there are
+	 * no edges)
+	 */
+	int getMaxWeight();
+}
@@ -0,0 +1,109 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * <P>An indexed binary heap.  Every vertex id has a fixed slot in
+ * the "position" array, so a vertex that is already in the heap can
+ * have its key lowered in place (decrease-key) in O(log n) time.
+ * The heap never holds more than one entry per vertex.</P>
+ */
+final class IndexedMinHeap implements VertexQueue {
+
+	private int[] heap = new int[0];     // vertex ids, heap ordered by key
+	private int[] position = new int[0]; // index of each vertex in heap, or -1
+	private int[] keys = new int[0];     // current key of each vertex
+	private int size;
+
+	@Override
+	public void reset(int capacity) {
+		if (position.length < capacity) {
+			heap = new int[capacity];
+			position = new int[capacity];
+			keys = new int[capacity];
+			Arrays.fill(position, -1);
+		} else { // only vertices still in the heap have a position to clear
+			for (int i = 0; i < size; i++) {
+				position[heap[i]] = -1;
+			}
+		}
+		size = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void offer(int vertex, int key) {
+		int i = position[vertex];
+		if (i < 0) { // not in the heap yet, add it to the bottom
+			i = size++;
+			heap[i] = vertex;
+			position[vertex] = i;
+		} else if (key >= keys[vertex]) {
+			return;
+		}
+		keys[vertex] = key;
+		siftUp(i);
+	}
+
+	@Override
+	public int poll() {
+		int min = heap[0];
+		position[min] = -1;
+		size--;
+		if (size > 0) { // move the last entry to the root and restore heap order
+			heap[0] = heap[size];
+			position[heap[0]] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+
+	@Override
+	public int peekKey() {
+		return keys[heap[0]];
+	}
+
+	private void siftUp(int i) {
+		int vertex = heap[i];
+		int key = keys[vertex];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			int p = heap[parent];
+			if (keys[p] <= key) {
+				break;
+			}
+			heap[i] = p;
+			position[p] = i;
+			i = parent;
+		}
+		heap[i] = vertex;
+		position[vertex] = i;
+	}
+
+	private void siftDown(int i) {
+		int vertex = heap[i];
+		int key = keys[vertex];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			int c = heap[child];
+			int right = child + 1;
+			if (right < size && keys[heap[right]] < keys[c]) {
+				child = right;
+				c = heap[child];
+			}
+			if (key <= keys[c]) {
+				break;
+			}
+			heap[i] = c;
+			position[c] = i;
+			i = child;
+		}
+		heap[i] = vertex;
+		position[vertex] = i;
+	}
+}
@@ -0,0 +1,486 @@
+package graph;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * <P>The search algorithms (BFS, DFS, Dijkstra's, A* and the 
+ * bidirectional searches) written against an IndexedGraph.  Vertices
+ * are plain ints, and the visited marks, queues, stacks, costs and 
+ * parents are the reusable primitive arrays of a SearchContext.</P>
+ * 
+ * <P>Each search leaves its result (path, cost and visited count) in
+ * the context.  The searches have the semantics documented on the 
+ * corresponding WeightedGraph methods; WeightedGraph translates between
+ * vertices and ids and forwards the listener calls to its observers.</P>
+ * 
+ * <P>The listener may be null when nobody is watching, in which case 
+ * the only cost of the notifications is a (perfectly predictable) null
+ * check.</P>
+ */
+final class IndexedSearch {
+
+	private IndexedSearch() {
+	}
+
+	/** Runs one of the searches from start to end.
+	 * 
+	 * @param reverse the reversed graph (may be null unless the 
+	 * algorithm is bidirectional)
+	 * @param estimate the estimated cost from each vertex to end (may be
+	 * null unless the algorithm is A_STAR)
+	 * @param queueType the priority queue for Dijkstra's algorithm
+	 * @return true if end was reached
+	 */
+	static boolean run(SearchAlgorithm algorithm, IndexedGraph graph, IndexedGraph reverse, int start, int end,
+			IntUnaryOperator estimate, DijkstraQueue queueType, SearchContext context, SearchListener listener) {
+		switch (algorithm) {
+		case BFS:
+			return bfs(graph, start, end, context, listener);
+		case DFS:
+			return dfs(graph, start, end, context, listener);
+		case DIJKSTRA:
+			return dijkstra(graph, start, end, true, context.forwardQueue(queueType, graph.getMaxWeight()), 
+					context, listener);
+		case A_STAR:
+			return aStar(graph, start, end, estimate, context.forwardQueue(queueType, -1), context, listener);
+		case BIDIRECTIONAL_BFS:
+			return bidirectionalBfs(graph, reverse, start, end, context, listener);
+		case BIDIRECTIONAL_DIJKSTRA:
+			return bidirectionalDijkstra(graph, reverse, start, end,
+					context.forwardQueue(queueType, graph.getMaxWeight()), 
+					context.backwardQueue(queueType, graph.getMaxWeight()), context, listener);
+		default:
+			throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+		}
+	}
+
+	/** Breadth-first search from start, stopping just after end is
+	 * visited.  A vertex is marked when it is queued, which visits
+	 * vertices in the same order as marking them when dequeued but
+	 * never queues a vertex twice.  The depth (number of edges from
+	 * start) of each vertex is kept in context.cost.
+	 * 
+	 * @return true if end was visited
+	 */
+	static boolean bfs(IndexedGraph graph, int start, int end, SearchContext context, SearchListener listener) {
+		context.begin(graph.getVertexCount(), false);
+		int epoch = context.epoch;
+		int[] reached = context.reached;
+		int[] parent = context.parent;
+		int[] depth = context.cost;
+		int[] queue = context.buffer;
+		int head = 0, tail = 0;
+		reached[start] = epoch;
+		parent[start] = start;
+		depth[start] = 0;
+		queue[tail++] = start;
+		while (head < tail) {
+			int curr = queue[head++];
+			context.visitedCount++;
+			if (listener != null) {
+				listener.visit(curr, curr == start ? -1 : parent[curr], depth[curr]);
+			}
+			if (curr == end) {
+				context.tracePath(graph, start, end);
+				return true;
+			}
+			for (int e = graph.edgeBegin(curr), last = graph.edgeEnd(curr); e < last; e++) {
+				int successor = graph.edgeTarget(e);
+				if (successor >= 0 && reached[successor] != epoch) {
+					reached[successor] = epoch;
+					parent[successor] = curr;
+					depth[successor] = depth[curr] + 1;
+					queue[tail++] = successor;
+				}
+			}
+		}
+		return false;
+	}
+
+	/** Depth-first search from start, stopping just after end is
+	 * visited.  Like the original stack based search, every unvisited
+	 * successor is pushed and a vertex is only marked when it is popped.
+	 * Each stack entry is a (vertex, parent) pair, so the parent of a 
+	 * vertex is the vertex that pushed the entry it was visited from.
+	 * The depth of each vertex in that tree is kept in context.cost.
+	 * 
+	 * @return true if end was visited
+	 */
+	static boolean dfs(IndexedGraph graph, int start, int end, SearchContext context, SearchListener listener) {
+		context.begin(graph.getVertexCount(), false);
+		int epoch = context.epoch;
+		int[] done = context.done;
+		int[] parent = context.parent;
+		int[] depth = context.cost;
+		int[] stack = context.buffer;
+		if (stack.length < 2) {
+			stack = context.growBuffer();
+		}
+		int size = 0;
+		stack[size++] = start;
+		stack[size++] = start;
+		while (size > 0) {
+			int from = stack[--size];
+			int curr = stack[--size];
+			if (done[curr] == epoch) {
+				continue;
+			}
+			done[curr] = epoch;
+			parent[curr] = from;
+			depth[curr] = curr == from ? 0 : depth[from] + 1;
+			context.visitedCount++;
+			if (listener != null) {
+				listener.visit(curr, curr == from ? -1 : from, depth[curr]);
+			}
+			if (curr == end) {
+				context.tracePath(graph, start, end);
+				return true;
+			}
+			for (int e = graph.edgeBegin(curr), last = graph.edgeEnd(curr); e < last; e++) {
+				int successor = graph.edgeTarget(e);
+				if (successor >= 0 && done[successor] != epoch) {
+					if (size + 2 > stack.length) {
+						stack = context.growBuffer();
+					}
+					stack[size++] = successor;
+					stack[size++] = curr;
+				}
+			}
+		}
+		return false;
+	}
+
+	/** Dijkstra's algorithm from start.  If stopAtEnd is true the
+	 * search stops as soon as end is finished; otherwise it goes on 
+	 * until every reachable vertex is finished.  Either way the path to
+	 * end (if it was reached) is recorded in the context.
+	 * 
+	 * @return true if end was reached
+	 */
+	static boolean dijkstra(IndexedGraph graph, int start, int end, boolean stopAtEnd, VertexQueue queue,
+			SearchContext context, SearchListener listener) {
+		int n = graph.getVertexCount();
+		context.begin(n, false);
+		int epoch = context.epoch;
+		int[] totalCost = context.cost;
+		int[] predecessor = context.parent;
+		int[] reached = context.reached;
+		int[] finished = context.done;
+
+		totalCost[start] = 0;
+		predecessor[start] = start;
+		reached[start] = epoch;
+		queue.reset(n);
+		queue.offer(start, 0);
+		while (!queue.isEmpty()) {
+			int curr = queue.poll();
+			int minCost = totalCost[curr];
+			finished[curr] = epoch;
+			context.visitedCount++;
+			if (listener != null) {
+				listener.finished(curr, minCost);
+			}
+			if (curr == end && stopAtEnd) {
+				break;
+			}
+			for (int e = graph.edgeBegin(curr), last = graph.edgeEnd(curr); e < last; e++) {
+				int successor = graph.edgeTarget(e);
+				if (successor >= 0 && finished[successor] != epoch) {
+					int cost = minCost + graph.edgeWeight(e);
+					if (reached[successor] != epoch || cost < totalCost[successor]) {
+						reached[successor] = epoch;
+						totalCost[successor] = cost;
+						predecessor[successor] = curr;
+						queue.offer(successor, cost);
+					}
+				}
+			}
+		}
+		if (end >= 0 && finished[end] == epoch) {
+			context.tracePath(graph, start, end);
+			return true;
+		}
+		return false;
+	}
+
+	/** Dijkstra's algorithm from start, stopping once every vertex of
+	 * ends[0 .. endCount) is finished (or every reachable vertex is).
+	 * The cost and parent of each end that was reached are left in the
+	 * context, for tracePath.
+	 */
+	static void dijkstraToAll(IndexedGraph graph, int start, int[] ends, int endCount, VertexQueue queue,
+			SearchContext context) {
+		int n = graph.getVertexCount();
+		context.begin(n, false);
+		int epoch = context.epoch;
+		int[] totalCost = context.cost;
+		int[] predecessor = context.parent;
+		int[] reached = context.reached;
+		int[] finished = context.done;
+		int[] target = context.targets(n);
+		int remaining = 0;
+		for (int i = 0; i < endCount; i++) {
+			if (target[ends[i]] != epoch) {
+				target[ends[i]] = epoch;
+				remaining++;
+			}
+		}
+
+		totalCost[start] = 0;
+		predecessor[start] = start;
+		reached[start] = epoch;
+		queue.reset(n);
+		queue.offer(start, 0);
+		while (!queue.isEmpty()) {
+			int curr = queue.poll();
+			int minCost = totalCost[curr];
+			finished[curr] = epoch;
+			context.visitedCount++;
+			if (target[curr] == epoch && --remaining == 0) {
+				break;
+			}
+			for (int e = graph.edgeBegin(curr), last = graph.edgeEnd(curr); e < last; e++) {
+				int successor = graph.edgeTarget(e);
+				if (successor >= 0 && finished[successor] != epoch) {
+					int cost = minCost + graph.edgeWeight(e);
+					if (reached[successor] != epoch || cost < totalCost[successor]) {
+						reached[successor] = epoch;
+						totalCost[successor] = cost;
+						predecessor[successor] = curr;
+						queue.offer(successor, cost);
+					}
+				}
+			}
+		}
+	}
+
+	/** A* search from start to end.  Vertices leave the frontier in
+	 * order of cost so far plus the heuristic estimate of the cost to
+	 * end, and the search stops as soon as end is expanded.  With a 
+	 * consistent heuristic an expanded vertex never needs to be reopened.
+	 * 
+	 * @param heuristic maps a vertex id to its estimated cost to end
+	 * @return true if end was reached
+	 */
+	static boolean aStar(IndexedGraph graph, int start, int end, IntUnaryOperator heuristic,
+			VertexQueue queue, SearchContext context, SearchListener listener) {
+		int n = graph.getVertexCount();
+		context.begin(n, false);
+		int epoch = context.epoch;
+		int[] costSoFar = context.cost;
+		int[] predecessor = context.parent;
+		int[] reached = context.reached;
+		int[] expanded = context.done;
+
+		costSoFar[start] = 0;
+		predecessor[start] = start;
+		reached[start] = epoch;
+		queue.reset(n);
+		queue.offer(start, heuristic.applyAsInt(start));
+		if (listener != null) {
+			listener.frontier(start);
+		}
+		while (!queue.isEmpty()) {
+			int curr = queue.poll();
+			expanded[curr] = epoch;
+			context.visitedCount++;
+			if (listener != null) {
+				listener.expanded(curr);
+			}
+			if (curr == end) {
+				context.tracePath(graph, start, end);
+				return true;
+			}
+			for (int e = graph.edgeBegin(curr), last = graph.edgeEnd(curr); e < last; e++) {
+				int successor = graph.edgeTarget(e);
+				if (successor >= 0 && expanded[successor] != epoch) {
+					int cost = costSoFar[curr] + graph.edgeWeight(e);
+					if (reached[successor] != epoch || cost < costSoFar[successor]) {
+						reached[successor] = epoch;
+						costSoFar[successor] = cost;
+						predecessor[successor] = curr;
+						queue.offer(successor, cost + heuristic.applyAsInt(successor));
+						if (listener != null) {
+							listener.frontier(successor);
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/** 
+	 * <P>Bidirectional breadth-first search.  One search runs forward
+	 * from start over graph and one runs backward from end over reverse
+	 * (the graph with every edge turned around).  Each round expands a
+	 * whole level of the side with the smaller frontier; once a level 
+	 * reaches a vertex already seen by the other side, the meeting 
+	 * vertex with the fewest total hops in that level gives a path with
+	 * the fewest possible edges.</P>
+	 * 
+	 * <P>The listener is told about start, end, and then every vertex
+	 * as it is first reached from either side (with the vertex it was
+	 * reached from, and its number of hops from that side's end).</P>
+	 * 
+	 * @return true if end was reached
+	 */
+	static boolean bidirectionalBfs(IndexedGraph graph, IndexedGraph reverse, int start, int end,
+			SearchContext context, SearchListener listener) {
+		context.begin(graph.getVertexCount(), true);
+		int epoch = context.epoch;
+		context.visitedCount++;
+		if (listener != null) {
+			listener.visit(start, -1, 0);
+		}
+		if (start == end) {
+			context.parent[start] = start;
+			context.tracePath(graph, start, end);
+			return true;
+		}
+		context.visitedCount++;
+		if (listener != null) {
+			listener.visit(end, -1, 0);
+		}
+		int[] forwardHops = context.cost, backwardHops = context.backCost;
+		int[] forwardReached = context.reached, backwardReached = context.backReached;
+		forwardHops[start] = 0;
+		forwardReached[start] = epoch;
+		context.parent[start] = start;
+		backwardHops[end] = 0;
+		backwardReached[end] = epoch;
+		context.backParent[end] = end;
+
+		// Each side keeps its queue in one array; [levelStart, levelEnd) is the current level
+		int[] forwardQueue = context.buffer, backwardQueue = context.backBuffer;
+		forwardQueue[0] = start;
+		backwardQueue[0] = end;
+		int forwardStart = 0, forwardEnd = 1, backwardStart = 0, backwardEnd = 1;
+
+		while (forwardStart < forwardEnd && backwardStart < backwardEnd) {
+			boolean forward = forwardEnd - forwardStart <= backwardEnd - backwardStart;
+			IndexedGraph g = forward ? graph : reverse;
+			int[] queue = forward ? forwardQueue : backwardQueue;
+			int[] parent = forward ? context.parent : context.backParent;
+			int[] hops = forward ? forwardHops : backwardHops;
+			int[] reached = forward ? forwardReached : backwardReached;
+			int[] otherHops = forward ? backwardHops : forwardHops;
+			int[] otherReached = forward ? backwardReached : forwardReached;
+			int levelStart = forward ? forwardStart : backwardStart;
+			int levelEnd = forward ? forwardEnd : backwardEnd;
+
+			int tail = levelEnd;
+			int meet = -1;
+			for (int i = levelStart; i < levelEnd; i++) {
+				int curr = queue[i];
+				for (int e = g.edgeBegin(curr), last = g.edgeEnd(curr); e < last; e++) {
+					int next = g.edgeTarget(e);
+					if (next >= 0 && reached[next] != epoch) {
+						reached[next] = epoch;
+						hops[next] = hops[curr] + 1;
+						parent[next] = curr;
+						queue[tail++] = next;
+						context.visitedCount++;
+						if (listener != null) {
+							listener.visit(next, curr, hops[next]);
+						}
+						if (otherReached[next] == epoch && (meet == -1 || otherHops[next] < otherHops[meet])) {
+							meet = next;
+						}
+					}
+				}
+			}
+			if (meet != -1) {
+				context.joinPath(graph, start, meet, end);
+				return true;
+			}
+			if (forward) {
+				forwardStart = levelEnd;
+				forwardEnd = tail;
+			} else {
+				backwardStart = levelEnd;
+				backwardEnd = tail;
+			}
+		}
+		return false;
+	}
+
+	/** 
+	 * <P>Bidirectional Dijkstra.  A forward search from start over
+	 * graph and a backward search from end over reverse take turns,
+	 * always advancing the side whose next vertex is cheaper.  Every
+	 * time an edge reaches a vertex labelled by the other side, the 
+	 * cost of the path through it is a candidate for the best cost, mu.
+	 * The search stops once the two smallest keys add up to at least mu:
+	 * no path that has not been seen yet can be cheaper.</P>
+	 * 
+	 * <P>The listener is told about each finished vertex along with
+	 * its cost from start (forward side) or to end (backward side).</P>
+	 * 
+	 * @return true if end was reached
+	 */
+	static boolean bidirectionalDijkstra(IndexedGraph graph, IndexedGraph reverse, int start, int end,
+			VertexQueue forwardQueue, VertexQueue backwardQueue, SearchContext context, SearchListener listener) {
+		int n = graph.getVertexCount();
+		context.begin(n, true);
+		int epoch = context.epoch;
+		int[] forwardCost = context.cost, backwardCost = context.backCost;
+		int[] forwardReached = context.reached, backwardReached = context.backReached;
+		forwardCost[start] = 0;
+		forwardReached[start] = epoch;
+		context.parent[start] = start;
+		backwardCost[end] = 0;
+		backwardReached[end] = epoch;
+		context.backParent[end] = end;
+		forwardQueue.reset(n);
+		backwardQueue.reset(n);
+		forwardQueue.offer(start, 0);
+		backwardQueue.offer(end, 0);
+
+		long mu = start == end ? 0 : Long.MAX_VALUE; // cost of the best path seen so far
+		int meet = start == end ? start : -1;
+		while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+			int forwardKey = forwardQueue.peekKey();
+			int backwardKey = backwardQueue.peekKey();
+			if ((long) forwardKey + backwardKey >= mu) {
+				break;
+			}
+			boolean forward = forwardKey <= backwardKey;
+			IndexedGraph g = forward ? graph : reverse;
+			VertexQueue queue = forward ? forwardQueue : backwardQueue;
+			int[] cost = forward ? forwardCost : backwardCost;
+			int[] parent = forward ? context.parent : context.backParent;
+			int[] reached = forward ? forwardReached : backwardReached;
+			int[] otherCost = forward ? backwardCost : forwardCost;
+			int[] otherReached = forward ? backwardReached : forwardReached;
+
+			int curr = queue.poll();
+			context.visitedCount++;
+			if (listener != null) {
+				listener.finished(curr, cost[curr]);
+			}
+			for (int e = g.edgeBegin(curr), last = g.edgeEnd(curr); e < last; e++) {
+				int next = g.edgeTarget(e);
+				if (next < 0) {
+					continue;
+				}
+				int newCost = cost[curr] + g.edgeWeight(e);
+				if (reached[next] != epoch || newCost < cost[next]) {
+					reached[next] = epoch;
+					cost[next] = newCost;
+					parent[next] = curr;
+					queue.offer(next, newCost);
+				}
+				if (otherReached[next] == epoch && (long) cost[next] + otherCost[next] < mu) {
+					mu = (long) cost[next] + otherCost[next];
+					meet = next;
+				}
+			}
+		}
+		if (meet == -1) {
+			return false;
+		}
+		context.joinPath(graph, start, meet, end);
+		return true;
+	}
+}
@@ -0,0 +1,123 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * <P>A binary heap with lazy deletion.  Instead of lowering the key
+ * of a vertex that is already queued, a second entry is pushed and 
+ * the old one becomes "stale".  Stale entries are discarded when they
+ * reach the top of the heap.</P>
+ * 
+ * <P>Each entry is packed into a single long (key in the high 32 bits,
+ * vertex id in the low 32 bits), so the heap is one primitive array
+ * and pushing never allocates once the array has grown.  There can be
+ * up to E entries in the heap, but on sparse graphs (like mazes) this
+ * is often faster than maintaining a position index.</P>
+ */
+final class LazyMinHeap implements VertexQueue {
+
+	private long[] heap = new long[16];
+	private int[] keys = new int[0];   // best key offered for each vertex, -1 once polled
+	private int[] stamps = new int[0]; // keys[v] is only valid if stamps[v] == generation
+	private int generation;
+	private int size;
+
+	@Override
+	public void reset(int capacity) {
+		if (keys.length < capacity) {
+			keys = new int[capacity];
+			stamps = new int[capacity];
+			generation = 0;
+		} else if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(stamps, 0);
+			generation = 0;
+		}
+		generation++;
+		size = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		discardStale();
+		return size == 0;
+	}
+
+	@Override
+	public void offer(int vertex, int key) {
+		if (stamps[vertex] != generation) {
+			stamps[vertex] = generation;
+		} else if (key >= keys[vertex]) {
+			return;
+		}
+		keys[vertex] = key;
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size * 2);
+		}
+		heap[size] = ((long) key << 32) | vertex;
+		siftUp(size++);
+	}
+
+	@Override
+	public int poll() {
+		discardStale();
+		int vertex = (int) heap[0];
+		keys[vertex] = -1;
+		removeTop();
+		return vertex;
+	}
+
+	@Override
+	public int peekKey() {
+		discardStale();
+		return (int) (heap[0] >>> 32);
+	}
+
+	/* Pops entries whose key no longer matches the best key of their vertex */
+	private void discardStale() {
+		while (size > 0) {
+			long top = heap[0];
+			if (keys[(int) top] == (int) (top >>> 32)) {
+				return;
+			}
+			removeTop();
+		}
+	}
+
+	private void removeTop() {
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			siftDown(0);
+		}
+	}
+
+	private void siftUp(int i) {
+		long entry = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heap[parent] <= entry) {
+				break;
+			}
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = entry;
+	}
+
+	private void siftDown(int i) {
+		long entry = heap[i];
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (entry <= heap[child]) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = entry;
+	}
+}
@@ -0,0 +1,42 @@
+package graph;
+
+import maze.Juncture;
+
+/**
+ * <P>The Manhattan distance heuristic for grids of Junctures.  A path
+ * between two junctures needs at least |dx| + |dy| steps, and each step
+ * costs at least the smallest edge weight, so this estimate is
+ * consistent for any graph whose edges only join adjacent junctures.</P>
+ * 
+ * <P>Every Maze weight is at least 1, which is the default minimum.</P>
+ */
+public class ManhattanHeuristic implements Heuristic<Juncture> {
+
+	private final int minimumWeight;
+
+	/** Heuristic for graphs whose edge weights are all at least 1. */
+	public ManhattanHeuristic() {
+		this(1);
+	}
+
+	/** @param minimumWeight a lower bound on every edge weight 
+	 * @throws IllegalArgumentException if minimumWeight is negative
+	 */
+	public ManhattanHeuristic(int minimumWeight) {
+		if (minimumWeight < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.minimumWeight = minimumWeight;
+	}
+
+	@Override
+	public int estimate(Juncture vertex, Juncture goal) {
+		return estimate(vertex.getX(), vertex.getY(), goal.getX(), goal.getY());
+	}
+
+	/* The same estimate from plain coordinates, so MazeGraph can run A*
+	 * on vertex ids without creating Junctures */
+	int estimate(int x, int y, int goalX, int goalY) {
+		return minimumWeight * (Math.abs(x - goalX) + Math.abs(y - goalY));
+	}
+}
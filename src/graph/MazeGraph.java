@@ -1,6 +1,14 @@
 package graph;
 // This class represents a graph to which we convert a maze.
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
 import graph.WeightedGraph;
 import maze.Juncture;
 import maze.Maze;
@@ -8,9 +16,53 @@ import maze.Maze;
 /** 
  * <P>The MazeGraph is an extension of WeightedGraph.  
  * The constructor converts a Maze into a graph.</P>
+ * 
+ * <P>The graph can be stored in the usual WeightedGraph adjacency
+ * maps, or (for large mazes) only as a compact CsrGraph, or not at
+ * all, with the searches reading the Maze directly through a
+ * GridGraph.  Either way the juncture at (x, y) has the vertex id 
+ * y * width + x.</P>
+ * 
+ * <P>DoAStar uses the Manhattan distance between junctures as its
+ * heuristic (see ManhattanHeuristic).</P>
  */
 public class MazeGraph extends WeightedGraph<Juncture> {
 
+	/** How a MazeGraph stores its vertices and edges. */
+	public enum Storage {
+
+		/** The WeightedGraph adjacency maps.  The graph can be 
+		 * changed with addVertex and addEdge after construction. */
+		HASH_MAP,
+
+		/** Only a CsrGraph of primitive arrays, with no Juncture 
+		 * objects and no maps.  The graph cannot be changed after 
+		 * construction. */
+		CSR,
+
+		/** Nothing at all: the searches read the walls and weights
+		 * of the Maze (which cannot change) on demand through a 
+		 * GridGraph.  The graph cannot be changed after construction. */
+		IMPLICIT
+	}
+
+	/** Writes and reads Junctures (as their X and Y coordinates), for
+	 * saving a MazeGraph with save and loading it back. */
+	public static final VertexCodec<Juncture> VERTEX_CODEC = new VertexCodec<Juncture>() {
+		@Override
+		public void write(Juncture vertex, ByteBuffer out) {
+			out.putInt(vertex.getX()).putInt(vertex.getY());
+		}
+
+		@Override
+		public Juncture read(ByteBuffer in) {
+			return new Juncture(in.getInt(), in.getInt());
+		}
+	};
+
+	private final int width, height;
+	private final IndexedGraph compact; // the CsrGraph or GridGraph, null for HASH_MAP storage
+
 	/* STUDENTS:  SEE THE PROJECT DESCRIPTION FOR A MUCH
 	 * MORE DETAILED EXPLANATION ABOUT HOW TO WRITE
 	 * THIS CONSTRUCTOR
@@ -45,59 +97,216 @@ public class MazeGraph extends WeightedGraph<Juncture> {
 	 * adding vertices and edges to this MazeGraph.
 	 */
 	public MazeGraph(Maze maze) {
-		for(int y = 0; y < maze.getMazeHeight(); y++) {
-			for(int x = 0; x < maze.getMazeWidth(); x++) {
+		this(maze, Storage.HASH_MAP);
+	}
+
+	/** 
+	 * <P>Construct the MazeGraph using the specified storage.  With
+	 * Storage.CSR or Storage.IMPLICIT the directedWeightedGraph map is
+	 * left empty, and addVertex and addEdge throw an 
+	 * UnsupportedOperationException.</P>
+	 * 
+	 * @param maze to be used as the source of information for
+	 * adding vertices and edges to this MazeGraph.
+	 * @param storage how the vertices and edges are stored
+	 * @throws IllegalArgumentException if the storage is CSR or
+	 * IMPLICIT and the maze has more than 2^29 junctures
+	 */
+	public MazeGraph(Maze maze, Storage storage) {
+		super(storage == Storage.HASH_MAP ? maze.getMazeWidth() * maze.getMazeHeight() : 0);
+		this.width = maze.getMazeWidth();
+		this.height = maze.getMazeHeight();
+		setHeuristic(new ManhattanHeuristic()); // every maze weight is at least 1
+		if(storage == Storage.CSR) {
+			this.compact = CsrGraph.fromMaze(maze); // built straight from the maze, no maps at all
+			return;
+		}
+		if(storage == Storage.IMPLICIT) {
+			this.compact = new GridGraph(maze); // nothing is built, edges come from the maze on demand
+			return;
+		}
+		this.compact = null;
+
+		// Add every juncture first, in row-major order, so that the
+		// juncture at (x, y) is given the vertex id y * width + x
+		Juncture[] junctures = new Juncture[width * height];
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
 				Juncture curr = new Juncture(x, y); // construct a new juncture as a vertex in the weighted graph
-				//since this class is an extension of weighted graph, call method of the super(WeightedGraph) of this class 
-				//to check that whether the weighted graph contains the current juncture
-				if(!super.containsVertex(curr)) { 
-					super.addVertex(curr); // If not, add this juncture to the weighted graph
-				}
-				if(x != maze.getMazeWidth() - 1) { // If the x component is not the right most column of the graph
-					if(!maze.isWallToRight(curr)) { // If the right of the current juncture is not a wall
-						int weight = maze.getWeightToRight(curr); // get the weight to the right of the current juncture
-						Juncture rightTocurr = new Juncture(x + 1, y); // construct a juncture that is right to the current juncture
-						if(!super.containsVertex(rightTocurr)) { // If the graph does not contain the juncture to the right
-							super.addVertex(rightTocurr); // add the right of curr juncture to the graph
-						}
-						super.addEdge(curr, rightTocurr, weight); // add an edge leading from the current juncture to the juncture to the right 
-					}
+				junctures[y * width + x] = curr;
+				super.addVertexUnchecked(curr); // every juncture is distinct, so skip the duplicate check
+			}
+		}
+
+		// Every neighbor is already in the graph and the Maze weights are
+		// positive, so the edges can be added without per-edge validation
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				Juncture curr = junctures[y * width + x];
+				if(x != width - 1 && !maze.isWallToRight(curr)) { // not the right most column, and no wall to the right
+					super.addEdgeUnchecked(curr, junctures[y * width + x + 1], maze.getWeightToRight(curr));
 				}
-				if(x != 0) { // If the x component is not the left most column of the graph
-					if(!maze.isWallToLeft(curr)) {// If the left of the current juncture is not a wall
-						int weight = maze.getWeightToLeft(curr);// get the weight to the left of the current juncture
-						Juncture leftTocurr = new Juncture(x - 1, y);// construct a juncture that is left to the current juncture
-
-						if(!super.containsVertex(leftTocurr)) {// If the graph does not contain the juncture to the left
-							super.addVertex(leftTocurr);// add the left of curr juncture to the graph
-						}
-						super.addEdge(curr, leftTocurr, weight);// add an edge leading from the current juncture to the juncture to the left
-					}
+				if(x != 0 && !maze.isWallToLeft(curr)) { // not the left most column, and no wall to the left
+					super.addEdgeUnchecked(curr, junctures[y * width + x - 1], maze.getWeightToLeft(curr));
 				}
-				if(y != 0) { // If the y component is not the up most row of the graph
-					if(!maze.isWallAbove(curr)) {// If the above of the current juncture is not a wall
-						int weight = maze.getWeightAbove(curr);// get the weight to the above of the current juncture
-						Juncture abovecurr = new Juncture(x, y - 1);// construct a juncture that is above of the current juncture
-
-						if(!super.containsVertex(abovecurr)) {// If the graph does not contain the juncture above the current one
-							super.addVertex(abovecurr);// add the above of curr juncture to the graph
-						}
-						super.addEdge(curr, abovecurr, weight);// add an edge leading from the current juncture to the above juncture 
-					}
+				if(y != 0 && !maze.isWallAbove(curr)) { // not the up most row, and no wall above
+					super.addEdgeUnchecked(curr, junctures[(y - 1) * width + x], maze.getWeightAbove(curr));
 				}
-				if(y != maze.getMazeHeight() - 1) {// If the y component is not the down most row of the graph
-					if(!maze.isWallBelow(curr)) {// If the below of the current juncture is not a wall
-						int weight = maze.getWeightBelow(curr);// get the weight to the below of the current juncture
-						Juncture belowcurr = new Juncture(x, y + 1);// construct a juncture that is below of the current juncture
-
-						if(!super.containsVertex(belowcurr)) {// If the graph does not contain the juncture below the current one
-							super.addVertex(belowcurr);// add the below of curr juncture to the graph
-						}
-						super.addEdge(curr, belowcurr, weight); // add an edge leading from the current juncture to the below juncture 
-					}
+				if(y != height - 1 && !maze.isWallBelow(curr)) { // not the down most row, and no wall below
+					super.addEdgeUnchecked(curr, junctures[(y + 1) * width + x], maze.getWeightBelow(curr));
 				}
 			}
 		}
 	}
-}
 
+	/* Checked first: containsVertex is true for every juncture of the
+	 * maze, so WeightedGraph.addVertex would throw an
+	 * IllegalArgumentException for those instead */
+	@Override
+	public void addVertex(Juncture vertex) {
+		if(compact != null) {
+			throw new UnsupportedOperationException();
+		}
+		super.addVertex(vertex);
+	}
+
+	@Override
+	public void addEdge(Juncture from, Juncture to, Integer weight) {
+		if(compact != null) {
+			throw new UnsupportedOperationException();
+		}
+		super.addEdge(from, to, weight);
+	}
+
+	@Override
+	protected int addVertexUnchecked(Juncture vertex) {
+		if(compact != null) {
+			throw new UnsupportedOperationException();
+		}
+		return super.addVertexUnchecked(vertex);
+	}
+
+	@Override
+	protected void addEdgeUnchecked(Juncture from, Juncture to, int weight) {
+		if(compact != null) {
+			throw new UnsupportedOperationException();
+		}
+		super.addEdgeUnchecked(from, to, weight);
+	}
+
+	@Override
+	public boolean containsVertex(Juncture vertex) {
+		if(compact == null) {
+			return super.containsVertex(vertex);
+		}
+		return vertex != null && vertex.getX() >= 0 && vertex.getX() < width 
+				&& vertex.getY() >= 0 && vertex.getY() < height;
+	}
+
+	@Override
+	public int getVertexId(Juncture vertex) {
+		if(compact == null) {
+			return super.getVertexId(vertex);
+		}
+		return containsVertex(vertex) ? vertex.getY() * width + vertex.getX() : -1;
+	}
+
+	@Override
+	public Juncture getVertex(int id) {
+		if(compact == null) {
+			return super.getVertex(id);
+		}
+		if(id < 0 || id >= width * height) {
+			throw new IndexOutOfBoundsException();
+		}
+		return new Juncture(id % width, id / width);
+	}
+
+	@Override
+	public int getVertexCount() {
+		return compact == null ? super.getVertexCount() : width * height;
+	}
+
+	@Override
+	public Integer getWeight(Juncture from, Juncture to) {
+		if(compact == null) {
+			return super.getWeight(from, to);
+		}
+		if(!containsVertex(from) || !containsVertex(to)) {
+			throw new IllegalArgumentException();
+		}
+		int fromId = getVertexId(from);
+		int toId = getVertexId(to);
+		for(int e = compact.edgeBegin(fromId); e < compact.edgeEnd(fromId); e++) { // at most four edges to check
+			if(compact.edgeTarget(e) == toId) {
+				return compact.edgeWeight(e);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public IndexedGraph getIndexedGraph() {
+		return compact == null ? super.getIndexedGraph() : compact;
+	}
+
+	/* With compact storage a vertex id is y * width + x, so the
+	 * Manhattan estimate can be computed without creating Junctures */
+	@Override
+	protected IntUnaryOperator estimateToGoal(Heuristic<Juncture> heuristic, int goalId) {
+		if(compact == null || !(heuristic instanceof ManhattanHeuristic)) {
+			return super.estimateToGoal(heuristic, goalId);
+		}
+		ManhattanHeuristic manhattan = (ManhattanHeuristic) heuristic;
+		int goalX = goalId % width, goalY = goalId / width;
+		return id -> manhattan.estimate(id % width, id / width, goalX, goalY);
+	}
+
+	/* With compact storage the ids are computed from the coordinates,
+	 * and the Maze does not change, so a snapshot can share them */
+	@Override
+	ToIntFunction<Juncture> vertexIdSnapshot() {
+		return compact == null ? super.vertexIdSnapshot() : this::getVertexId;
+	}
+
+	@Override
+	IntFunction<Juncture> vertexSnapshot() {
+		return compact == null ? super.vertexSnapshot() : this::getVertex;
+	}
+
+	@Override
+	IntFunction<IntUnaryOperator> estimateSnapshot(Heuristic<Juncture> heuristic, IntFunction<Juncture> vertices) {
+		if(compact == null) {
+			return super.estimateSnapshot(heuristic, vertices);
+		}
+		return goalId -> estimateToGoal(heuristic, goalId);
+	}
+
+	/* With compact storage there is no reverse-edge index: the
+	 * predecessors are read from the reverse indexed graph */
+	@Override
+	public Set<Juncture> getPredecessors(Juncture vertex) {
+		if(compact == null) {
+			return super.getPredecessors(vertex);
+		}
+		int id = getVertexId(vertex);
+		if(id == -1) {
+			throw new IllegalArgumentException();
+		}
+		IndexedGraph reverse = getReverseIndexedGraph();
+		Set<Juncture> predecessors = new HashSet<>(8);
+		for(int e = reverse.edgeBegin(id); e < reverse.edgeEnd(id); e++) {
+			if(reverse.edgeTarget(e) >= 0) {
+				predecessors.add(getVertex(reverse.edgeTarget(e)));
+			}
+		}
+		return Collections.unmodifiableSet(predecessors);
+	}
+
+	/* Every passage of a maze is an edge in both directions with the
+	 * same weight, so the compact graphs are their own reverse */
+	@Override
+	public IndexedGraph getReverseIndexedGraph() {
+		return compact == null ? super.getReverseIndexedGraph() : compact;
+	}
+}
@@ -0,0 +1,250 @@
+package graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <P>Breadth-first search that computes the number of hops from a start
+ * vertex to every vertex, using all the threads of a ForkJoinPool.</P>
+ *
+ * <P>The search is level-synchronous: all the vertices of one level (the
+ * frontier) are expanded in parallel before the next level starts.  Each
+ * level is expanded in one of two directions (Beamer's "direction
+ * optimizing" BFS):</P>
+ *
+ * <P>Top-down, every frontier vertex looks at its edges and claims the
+ * unvisited vertices they lead to.  A vertex may be found by several
+ * threads at once, so it is claimed with a compare-and-set on its
+ * distance, which is -1 while the vertex is unvisited.</P>
+ *
+ * <P>Bottom-up, every unvisited vertex looks at its incoming edges for
+ * a parent on the frontier, and stops at the first one.  Only the thread
+ * scanning a vertex writes it, so no compare-and-set is needed.  When
+ * the frontier is a large part of the graph this checks far fewer edges
+ * than top-down, which would look at every edge out of the frontier just
+ * to find them already visited.</P>
+ *
+ * <P>A level is expanded bottom-up when the edges out of the frontier
+ * outnumber the edges out of the unvisited vertices divided by ALPHA, and
+ * top-down again once the frontier shrinks below 1 / BETA of the
+ * vertices.</P>
+ */
+final class ParallelBfs {
+
+	/* Switching thresholds from Beamer, Asanovic and Patterson,
+	 * "Direction-Optimizing Breadth-First Search" (2012) */
+	private static final int ALPHA = 14;
+	private static final int BETA = 24;
+
+	/* Vertices expanded (or scanned, bottom-up) by one task */
+	private static final int GRAIN = 2048;
+
+	/* Vertices a task collects before copying them to the next frontier */
+	private static final int BLOCK = 256;
+
+	private static final VarHandle DISTANCE = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private ParallelBfs() {
+	}
+
+	/** Computes the hop distance from start to every vertex of the graph,
+	 * running in parallel on the pool if the graph has at least
+	 * threshold vertices, and with a plain sequential BFS otherwise.
+	 *
+	 * @param graph the graph
+	 * @param reverse the graph with its edges reversed (the graph itself,
+	 * if every edge has a matching edge the other way)
+	 * @return the distances, by vertex id; -1 for the vertices that
+	 * cannot be reached
+	 */
+	static int[] distances(IndexedGraph graph, IndexedGraph reverse, int start, ForkJoinPool pool, int threshold) {
+		int n = graph.getVertexCount();
+		int[] distance = new int[n];
+		Arrays.fill(distance, -1);
+		if (n < threshold || pool.getParallelism() == 1) {
+			sequential(graph, start, distance);
+		} else {
+			new Search(graph, reverse, distance, pool).run(start);
+		}
+		return distance;
+	}
+
+	private static void sequential(IndexedGraph graph, int start, int[] distance) {
+		int[] queue = new int[distance.length];
+		int head = 0, tail = 0;
+		distance[start] = 0;
+		queue[tail++] = start;
+		while (head < tail) {
+			int curr = queue[head++];
+			int next = distance[curr] + 1;
+			for (int e = graph.edgeBegin(curr), last = graph.edgeEnd(curr); e < last; e++) {
+				int successor = graph.edgeTarget(e);
+				if (successor >= 0 && distance[successor] < 0) {
+					distance[successor] = next;
+					queue[tail++] = successor;
+				}
+			}
+		}
+	}
+
+	/* The state of one parallel search.  The frontier of the current
+	 * level is frontier[0 .. frontierSize); the tasks expanding it append
+	 * the next level to next, reserving room with nextSize. */
+	private static final class Search {
+		private final IndexedGraph graph, reverse;
+		private final int[] distance;
+		private final ForkJoinPool pool;
+		private int[] frontier, next;
+		private int frontierSize;
+		private final AtomicInteger nextSize = new AtomicInteger();
+		private final AtomicLong nextEdges = new AtomicLong(); // edge slots out of the next level
+		private int level;
+
+		Search(IndexedGraph graph, IndexedGraph reverse, int[] distance, ForkJoinPool pool) {
+			this.graph = graph;
+			this.reverse = reverse;
+			this.distance = distance;
+			this.pool = pool;
+			this.frontier = new int[distance.length];
+			this.next = new int[distance.length];
+		}
+
+		void run(int start) {
+			int n = distance.length;
+			long unvisitedEdges = 0;
+			for (int v = 0; v < n; v++) {
+				unvisitedEdges += graph.edgeEnd(v) - graph.edgeBegin(v);
+			}
+			distance[start] = 0;
+			frontier[0] = start;
+			frontierSize = 1;
+			long frontierEdges = graph.edgeEnd(start) - graph.edgeBegin(start);
+			unvisitedEdges -= frontierEdges;
+			boolean bottomUp = false;
+			while (frontierSize > 0) {
+				if (!bottomUp && frontierEdges > unvisitedEdges / ALPHA) {
+					bottomUp = true;
+				} else if (bottomUp && frontierSize < n / BETA) {
+					bottomUp = false;
+				}
+				nextSize.set(0);
+				nextEdges.set(0);
+				if (bottomUp) {
+					pool.invoke(new BottomUp(0, n));
+				} else if (frontierSize > GRAIN) {
+					pool.invoke(new TopDown(0, frontierSize));
+				} else { // too small to split: expand it here rather than hand it to the pool
+					new TopDown(0, frontierSize).compute();
+				}
+				int[] swap = frontier;
+				frontier = next;
+				next = swap;
+				frontierSize = nextSize.get();
+				frontierEdges = nextEdges.get();
+				unvisitedEdges -= frontierEdges;
+				level++;
+			}
+		}
+
+		/* Collects newly visited vertices for the next frontier, in
+		 * blocks, so that the shared counter is touched once per block */
+		private final class Collector {
+			private final int[] block = new int[BLOCK];
+			private int size;
+			private long edges;
+
+			void add(int vertex) {
+				block[size++] = vertex;
+				edges += graph.edgeEnd(vertex) - graph.edgeBegin(vertex);
+				if (size == BLOCK) {
+					flush();
+				}
+			}
+
+			void flush() {
+				int at = nextSize.getAndAdd(size);
+				System.arraycopy(block, 0, next, at, size);
+				nextEdges.getAndAdd(edges);
+				size = 0;
+				edges = 0;
+			}
+		}
+
+		/* Expands frontier[from .. to) along the outgoing edges */
+		private final class TopDown extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final int from, to;
+
+			TopDown(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				if (to - from > GRAIN) {
+					int middle = (from + to) >>> 1;
+					invokeAll(new TopDown(from, middle), new TopDown(middle, to));
+					return;
+				}
+				Collector found = new Collector();
+				int nextLevel = level + 1;
+				for (int i = from; i < to; i++) {
+					int curr = frontier[i];
+					for (int e = graph.edgeBegin(curr), last = graph.edgeEnd(curr); e < last; e++) {
+						int successor = graph.edgeTarget(e);
+						// the plain read skips most visited vertices without the cost of a CAS
+						if (successor >= 0 && distance[successor] < 0
+								&& DISTANCE.compareAndSet(distance, successor, -1, nextLevel)) {
+							found.add(successor);
+						}
+					}
+				}
+				found.flush();
+			}
+		}
+
+		/* Looks for a parent on the frontier for every unvisited vertex
+		 * of from .. to - 1 */
+		private final class BottomUp extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final int from, to;
+
+			BottomUp(int from, int to) {
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected void compute() {
+				if (to - from > GRAIN) {
+					int middle = (from + to) >>> 1;
+					invokeAll(new BottomUp(from, middle), new BottomUp(middle, to));
+					return;
+				}
+				Collector found = new Collector();
+				int currLevel = level;
+				for (int v = from; v < to; v++) {
+					if (distance[v] >= 0) {
+						continue;
+					}
+					for (int e = reverse.edgeBegin(v), last = reverse.edgeEnd(v); e < last; e++) {
+						int predecessor = reverse.edgeTarget(e);
+						// vertices of this level are only ever written with currLevel + 1
+						if (predecessor >= 0 && distance[predecessor] == currLevel) {
+							distance[v] = currLevel + 1;
+							found.add(v);
+							break;
+						}
+					}
+				}
+				found.flush();
+			}
+		}
+	}
+}
@@ -0,0 +1,221 @@
+package graph;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <P>A cache in front of the lowest cost path searches of a
+ * WeightedGraph.  It remembers the paths it has found (point to point)
+ * and the shortest path trees it has computed (one start to every
+ * vertex), so that asking again costs no search: a cached path is
+ * returned as it is, and a path from a start whose tree is cached is
+ * read off the tree's parents in time proportional to its length.</P>
+ *
+ * <P>The cache is bounded by size: a path counts as the number of
+ * vertices on it and a tree as two per vertex of the graph (its
+ * distances and parents).  When a new entry would take the cache over
+ * its capacity, the least recently used entries are evicted first.</P>
+ *
+ * <P>Every entry is only valid for the graph as it was when it was
+ * computed.  The cache compares the graph's modification count (see
+ * WeightedGraph.getModificationCount) on every call, and drops
+ * everything as soon as the graph has changed.</P>
+ *
+ * <P>The searches do not notify the graph's observers.  A cached path
+ * is returned as it was first found; a path read off a cached tree
+ * reports 0 visited vertices.  A PathCache is not thread safe.</P>
+ */
+public final class PathCache<V> {
+
+	/* What an entry adds to its size, besides the vertices it holds */
+	private static final int ENTRY_OVERHEAD = 8;
+
+	private final WeightedGraph<V> graph;
+	private final long capacity;
+
+	/* Entries in least recently used order.  The key of the path from
+	 * start to end is start << 32 | end, and the key of the tree of start
+	 * is start << 32 | 0xFFFFFFFF (as if its end were -1). */
+	private final LinkedHashMap<Long, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long size;
+	private int graphVersion;
+
+	private long hits, misses, evictions, invalidations;
+
+	/** Creates an empty cache for the given graph.
+	 *
+	 * @param graph the graph whose paths are cached
+	 * @param capacity the most vertices (counted as described above) the
+	 * cache may hold
+	 */
+	public PathCache(WeightedGraph<V> graph, long capacity) {
+		if (graph == null || capacity < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.graph = graph;
+		this.capacity = capacity;
+		this.graphVersion = graph.getModificationCount();
+	}
+
+	/**
+	 * <P>Returns the lowest cost path from "start" to "end".  It is
+	 * taken from the cache if the path, or the shortest path tree of
+	 * "start", is there; otherwise it is found by Dijkstra's algorithm
+	 * (stopped at "end") and cached.</P>
+	 *
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 * @return the path (empty if "end" cannot be reached) and its cost
+	 * @throws IllegalArgumentException if either vertex is not
+	 * in the graph
+	 */
+	public PathResult<V> findPath(V start, V end) {
+		int startId = requireVertexId(start);
+		int endId = requireVertexId(end);
+		validate();
+		Long key = key(startId, endId);
+		@SuppressWarnings("unchecked")
+		PathResult<V> path = (PathResult<V>) entries.get(key);
+		if (path != null) {
+			hits++;
+			return path;
+		}
+		ShortestPathTree tree = (ShortestPathTree) entries.get(key(startId, -1));
+		if (tree != null) {
+			hits++;
+			return pathFromTree(tree, endId);
+		}
+		misses++;
+		path = graph.findPath(SearchAlgorithm.DIJKSTRA, start, end);
+		put(key, path, path.getPath().size());
+		return path;
+	}
+
+	/**
+	 * <P>Returns the lowest cost paths from "start" to every vertex,
+	 * from the cache if possible; otherwise they are computed by
+	 * WeightedGraph.getShortestPathTree and cached.  Once the tree is
+	 * cached, findPath answers every path from "start" from it.</P>
+	 *
+	 * @param start vertex where the paths begin
+	 * @return the costs and parents of every vertex
+	 * @throws IllegalArgumentException if "start" is not in the graph
+	 */
+	public ShortestPathTree getShortestPathTree(V start) {
+		int startId = requireVertexId(start);
+		validate();
+		Long key = key(startId, -1);
+		ShortestPathTree tree = (ShortestPathTree) entries.get(key);
+		if (tree != null) {
+			hits++;
+			return tree;
+		}
+		misses++;
+		tree = graph.getShortestPathTree(start);
+		put(key, tree, 2L * tree.getVertexCount());
+		return tree;
+	}
+
+	/** Drops every entry (the statistics are kept). */
+	public void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	/** @return number of calls answered from the cache */
+	public long getHitCount() {
+		return hits;
+	}
+
+	/** @return number of calls that had to search */
+	public long getMissCount() {
+		return misses;
+	}
+
+	/** @return number of entries dropped to make room for new ones */
+	public long getEvictionCount() {
+		return evictions;
+	}
+
+	/** @return number of times the cache was emptied because the
+	 * graph had changed
+	 */
+	public long getInvalidationCount() {
+		return invalidations;
+	}
+
+	/** @return number of paths and trees in the cache */
+	public int getEntryCount() {
+		return entries.size();
+	}
+
+	/** @return total size of the entries in the cache */
+	public long getSize() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "PathCache[" + entries.size() + " entries, size " + size + "/" + capacity + ", " + hits
+				+ " hits, " + misses + " misses, " + evictions + " evictions, " + invalidations + " invalidations]";
+	}
+
+	/* Empties the cache if the graph has changed since it was filled */
+	private void validate() {
+		int version = graph.getModificationCount();
+		if (version != graphVersion) {
+			if (!entries.isEmpty()) {
+				invalidations++;
+				clear();
+			}
+			graphVersion = version;
+		}
+	}
+
+	/* Adds an entry, evicting the least recently used ones to make room
+	 * (an entry larger than the whole cache is not kept) */
+	private void put(Long key, Object value, long vertexCount) {
+		long weight = vertexCount + ENTRY_OVERHEAD;
+		if (weight > capacity) {
+			return;
+		}
+		Iterator<Map.Entry<Long, Object>> oldest = entries.entrySet().iterator();
+		while (size + weight > capacity) {
+			size -= weight(oldest.next().getValue());
+			oldest.remove();
+			evictions++;
+		}
+		entries.put(key, value);
+		size += weight;
+	}
+
+	private static long weight(Object value) {
+		if (value instanceof ShortestPathTree) {
+			return 2L * ((ShortestPathTree) value).getVertexCount() + ENTRY_OVERHEAD;
+		}
+		return ((PathResult<?>) value).getPath().size() + ENTRY_OVERHEAD;
+	}
+
+	private PathResult<V> pathFromTree(ShortestPathTree tree, int endId) {
+		List<V> path = new LinkedList<>();
+		for (int id : tree.getPath(endId)) {
+			path.add(graph.getVertex(id));
+		}
+		return new PathResult<>(path, tree.getDistance(endId), 0);
+	}
+
+	private static Long key(int startId, int endId) {
+		return (long) startId << 32 | (endId & 0xFFFFFFFFL);
+	}
+
+	private int requireVertexId(V vertex) {
+		int id = graph.getVertexId(vertex);
+		if (id == -1) {
+			throw new IllegalArgumentException();
+		}
+		return id;
+	}
+}
@@ -0,0 +1,53 @@
+package graph;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <P>The outcome of a path search run with WeightedGraph.findPath: the
+ * path found (as a list of vertices from start to end), its total
+ * weight, and how many vertices the search visited to find it.</P>
+ * 
+ * <P>A PathResult is immutable.</P>
+ */
+public final class PathResult<V> {
+
+	private final List<V> path;
+	private final int cost;
+	private final int visitedCount;
+
+	PathResult(List<V> path, int cost, int visitedCount) {
+		this.path = Collections.unmodifiableList(path);
+		this.cost = cost;
+		this.visitedCount = visitedCount;
+	}
+
+	/** @return true if the end vertex was reached */
+	public boolean isFound() {
+		return !path.isEmpty();
+	}
+
+	/** @return the vertices of the path, from start to end (empty if
+	 * the end vertex was not reached)
+	 */
+	public List<V> getPath() {
+		return path;
+	}
+
+	/** @return the total weight of the path, or -1 if the end vertex
+	 * was not reached
+	 */
+	public int getCost() {
+		return cost;
+	}
+
+	/** @return the number of vertices the search visited */
+	public int getVisitedCount() {
+		return visitedCount;
+	}
+
+	@Override
+	public String toString() {
+		return isFound() ? path + " (cost " + cost + ")" : "no path";
+	}
+}
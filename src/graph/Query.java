@@ -0,0 +1,58 @@
+package graph;
+
+/**
+ * <P>One path query for FrozenGraph.solveAll: the algorithm to run, and
+ * the vertices where the path must begin and end.</P>
+ *
+ * <P>A Query is immutable.</P>
+ */
+public final class Query<V> {
+
+	private final SearchAlgorithm algorithm;
+	private final V start;
+	private final V end;
+
+	/** Creates a query for a lowest cost path (DIJKSTRA).
+	 *
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 */
+	public Query(V start, V end) {
+		this(SearchAlgorithm.DIJKSTRA, start, end);
+	}
+
+	/** Creates a query for a path found by the given algorithm.
+	 *
+	 * @param algorithm the search to run
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 */
+	public Query(SearchAlgorithm algorithm, V start, V end) {
+		if (algorithm == null) {
+			throw new IllegalArgumentException();
+		}
+		this.algorithm = algorithm;
+		this.start = start;
+		this.end = end;
+	}
+
+	/** @return the search to run */
+	public SearchAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	/** @return vertex where the path begins */
+	public V getStart() {
+		return start;
+	}
+
+	/** @return vertex where the path ends */
+	public V getEnd() {
+		return end;
+	}
+
+	@Override
+	public String toString() {
+		return algorithm + " " + start + " -> " + end;
+	}
+}
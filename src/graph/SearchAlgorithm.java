@@ -0,0 +1,31 @@
+package graph;
+
+/**
+ * <P>The path searches that WeightedGraph can run without observers,
+ * through search and findPath.  Every algorithm finds a path from the
+ * start vertex to the end vertex if there is one; only DIJKSTRA, 
+ * A_STAR and BIDIRECTIONAL_DIJKSTRA guarantee that it is a lowest 
+ * cost path, and only BFS and BIDIRECTIONAL_BFS that it has the 
+ * fewest edges.</P>
+ */
+public enum SearchAlgorithm {
+
+	/** Breadth-first search (see WeightedGraph.DoBFS). */
+	BFS,
+
+	/** Depth-first search (see WeightedGraph.DoDFS). */
+	DFS,
+
+	/** Dijkstra's algorithm, stopped as soon as the end vertex is
+	 * finished. */
+	DIJKSTRA,
+
+	/** A* search with the graph's heuristic (see WeightedGraph.setHeuristic). */
+	A_STAR,
+
+	/** Breadth-first search from both ends (see WeightedGraph.DoBidirectionalBFS). */
+	BIDIRECTIONAL_BFS,
+
+	/** Dijkstra's algorithm from both ends (see WeightedGraph.DoBidirectionalDijkstra). */
+	BIDIRECTIONAL_DIJKSTRA
+}
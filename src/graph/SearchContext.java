@@ -0,0 +1,307 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * <P>Reusable working storage for the graph searches, and the result of
+ * the last search run with it.</P>
+ * 
+ * <P>A search needs a cost, a parent and "visited" marks for every
+ * vertex, plus a queue or stack.  A SearchContext keeps these in
+ * primitive arrays that grow to the size of the largest graph searched
+ * and are then reused.  Instead of clearing the marks before each
+ * search, the context stamps them with a search number (an "epoch"),
+ * so a mark left over from an earlier search simply does not match.
+ * After warm-up, a search run with the same context allocates nothing.</P>
+ * 
+ * <P>The result of the last search (whether the end was found, the
+ * path as vertex ids, its cost and the number of vertices visited) can
+ * be read from the context until the next search is run with it.</P>
+ * 
+ * <P>A SearchContext is not thread safe: use one per thread.</P>
+ */
+public final class SearchContext {
+
+	/* Forward search: cost (or hop count) and parent are only valid
+	 * where reached[v] == epoch; done[v] == epoch once v is visited */
+	int[] cost = new int[0];
+	int[] parent = new int[0];
+	int[] reached = new int[0];
+	int[] done = new int[0];
+
+	/* The backward half of a bidirectional search, allocated on demand */
+	int[] backCost = new int[0];
+	int[] backParent = new int[0];
+	int[] backReached = new int[0];
+	int[] backDone = new int[0];
+
+	/* The ends a multi-target search is waiting for (== epoch), allocated on demand */
+	private int[] targets = new int[0];
+
+	/* The edge each vertex was reached by (valid where reached or
+	 * backReached == epoch), for searches whose edges stand for more
+	 * than one edge of the graph; allocated on demand */
+	private int[] parentEdge = new int[0];
+	private int[] backParentEdge = new int[0];
+
+	/* Queue or stack space for BFS and DFS (grows as needed) */
+	int[] buffer = new int[0];
+	int[] backBuffer = new int[0];
+
+	int epoch;
+
+	/* Result of the last search */
+	int[] path = new int[16];
+	int pathLength;
+	int pathCost;
+	int visitedCount;
+
+	/* Priority queues, kept for reuse by the next search of the same kind */
+	private VertexQueue forwardQueue, backwardQueue;
+	private DijkstraQueue forwardQueueType, backwardQueueType;
+	private int forwardQueueWeight, backwardQueueWeight;
+
+	/** Creates a context whose arrays grow on first use. */
+	public SearchContext() {
+	}
+
+	/** Creates a context with room for graphs of up to the given
+	 * number of vertices, so that even the first search does not 
+	 * need to allocate its arrays.
+	 * 
+	 * @param vertexCount number of vertices to make room for
+	 */
+	public SearchContext(int vertexCount) {
+		ensureCapacity(vertexCount, false);
+	}
+
+	/** @return true if the last search reached its end vertex */
+	public boolean isFound() {
+		return pathLength > 0;
+	}
+
+	/** @return number of vertices on the path found by the last
+	 * search (0 if the end was not reached)
+	 */
+	public int getPathLength() {
+		return pathLength;
+	}
+
+	/** @param index position on the path, from 0 (the start) to
+	 * getPathLength() - 1 (the end)
+	 * @return id of the vertex at that position
+	 */
+	public int getPathVertex(int index) {
+		if (index < 0 || index >= pathLength) {
+			throw new IndexOutOfBoundsException();
+		}
+		return path[index];
+	}
+
+	/** @return total weight of the path found by the last search, or
+	 * -1 if the end was not reached
+	 */
+	public int getPathCost() {
+		return pathCost;
+	}
+
+	/** @return number of vertices the last search visited (finished,
+	 * for Dijkstra's algorithm; expanded, for A*)
+	 */
+	public int getVisitedCount() {
+		return visitedCount;
+	}
+
+	/** Returns the cost of the best path found by the last Dijkstra
+	 * or A* search from its start vertex to the given vertex.  For a
+	 * vertex that was not finished, this is only an upper bound.
+	 * 
+	 * @param vertex id of the vertex
+	 * @return the cost, or -1 if the last search never reached the vertex
+	 */
+	public int getCost(int vertex) {
+		return vertex < reached.length && reached[vertex] == epoch ? cost[vertex] : -1;
+	}
+
+	/* Prepares for a search over n vertices: grows the arrays if
+	 * needed, starts a new epoch and clears the previous result */
+	void begin(int n, boolean bidirectional) {
+		ensureCapacity(n, bidirectional);
+		if (epoch == Integer.MAX_VALUE) { // the stamps would wrap around, so really clear them once
+			Arrays.fill(reached, 0);
+			Arrays.fill(done, 0);
+			Arrays.fill(backReached, 0);
+			Arrays.fill(backDone, 0);
+			Arrays.fill(targets, 0);
+			epoch = 0;
+		}
+		epoch++;
+		pathLength = 0;
+		pathCost = -1;
+		visitedCount = 0;
+	}
+
+	private void ensureCapacity(int n, boolean bidirectional) {
+		if (cost.length < n) {
+			cost = new int[n];
+			parent = new int[n];
+			reached = new int[n];
+			done = new int[n];
+			buffer = new int[n];
+			epoch = 0;
+			Arrays.fill(backReached, 0);
+			Arrays.fill(backDone, 0);
+			Arrays.fill(targets, 0);
+		}
+		if (bidirectional && backCost.length < n) {
+			backCost = new int[n];
+			backParent = new int[n];
+			backReached = new int[n];
+			backDone = new int[n];
+			backBuffer = new int[n];
+			Arrays.fill(reached, 0);
+			Arrays.fill(done, 0);
+			Arrays.fill(targets, 0);
+			epoch = 0;
+		}
+	}
+
+	/* The target marks, for a graph of n vertices, valid for the
+	 * current epoch (call after begin) */
+	int[] targets(int n) {
+		if (targets.length < n) {
+			targets = new int[n];
+		}
+		return targets;
+	}
+
+	/* Doubles the forward buffer, keeping its contents */
+	int[] growBuffer() {
+		buffer = Arrays.copyOf(buffer, Math.max(16, buffer.length * 2));
+		return buffer;
+	}
+
+	/* Doubles the backward buffer, keeping its contents */
+	int[] growBackBuffer() {
+		backBuffer = Arrays.copyOf(backBuffer, Math.max(16, backBuffer.length * 2));
+		return backBuffer;
+	}
+
+	/* The parent edges of the forward search, for a graph of n vertices */
+	int[] parentEdges(int n) {
+		if (parentEdge.length < n) {
+			parentEdge = new int[n];
+		}
+		return parentEdge;
+	}
+
+	/* The parent edges of the backward search */
+	int[] backParentEdges(int n) {
+		if (backParentEdge.length < n) {
+			backParentEdge = new int[n];
+		}
+		return backParentEdge;
+	}
+
+	/* Returns a reusable queue of the given type for a graph whose
+	 * largest edge weight is maxWeight (-1 for an A* queue) */
+	VertexQueue forwardQueue(DijkstraQueue type, int maxWeight) {
+		if (forwardQueue == null || forwardQueueType != type || forwardQueueWeight != maxWeight) {
+			forwardQueue = maxWeight < 0 ? type.newHeap() : type.newQueue(maxWeight);
+			forwardQueueType = type;
+			forwardQueueWeight = maxWeight;
+		}
+		return forwardQueue;
+	}
+
+	/* The queue for the backward half of a bidirectional search */
+	VertexQueue backwardQueue(DijkstraQueue type, int maxWeight) {
+		if (backwardQueue == null || backwardQueueType != type || backwardQueueWeight != maxWeight) {
+			backwardQueue = type.newQueue(maxWeight);
+			backwardQueueType = type;
+			backwardQueueWeight = maxWeight;
+		}
+		return backwardQueue;
+	}
+
+	/* Records the path from start to end by following the forward
+	 * parents back from end */
+	void tracePath(IndexedGraph graph, int start, int end) {
+		int length = 1;
+		for (int v = end; v != start; v = parent[v]) {
+			length++;
+		}
+		ensurePathCapacity(length);
+		int i = length;
+		for (int v = end; ; v = parent[v]) {
+			path[--i] = v;
+			if (v == start) {
+				break;
+			}
+		}
+		finishPath(graph, length);
+	}
+
+	/* Records the path start..meet..end of a bidirectional search: the
+	 * forward parents lead back from meet to start, the backward parents
+	 * lead on from meet to end */
+	void joinPath(IndexedGraph graph, int start, int meet, int end) {
+		int before = 0;
+		for (int v = meet; v != start; v = parent[v]) {
+			before++;
+		}
+		int after = 0;
+		for (int v = meet; v != end; v = backParent[v]) {
+			after++;
+		}
+		int length = before + 1 + after;
+		ensurePathCapacity(length);
+		int i = before;
+		for (int v = meet; ; v = parent[v]) {
+			path[i--] = v;
+			if (v == start) {
+				break;
+			}
+		}
+		i = before;
+		for (int v = meet; v != end; ) {
+			v = backParent[v];
+			path[++i] = v;
+		}
+		finishPath(graph, length);
+	}
+
+	/* The path array, grown (keeping its contents) to hold at least
+	 * length vertices, for searches that write the path themselves */
+	int[] pathBuffer(int length) {
+		if (path.length < length) {
+			path = Arrays.copyOf(path, Math.max(length, path.length * 2));
+		}
+		return path;
+	}
+
+	private void ensurePathCapacity(int length) {
+		if (path.length < length) {
+			path = new int[Math.max(length, path.length * 2)];
+		}
+	}
+
+	/* Sets the path length and adds up the weights along the path
+	 * (using the cheapest edge where there are parallel edges) */
+	private void finishPath(IndexedGraph graph, int length) {
+		pathLength = length;
+		int total = 0;
+		for (int i = 1; i < length; i++) {
+			int from = path[i - 1];
+			int to = path[i];
+			int best = Integer.MAX_VALUE;
+			for (int e = graph.edgeBegin(from), last = graph.edgeEnd(from); e < last; e++) {
+				if (graph.edgeTarget(e) == to) {
+					best = Math.min(best, graph.edgeWeight(e));
+				}
+			}
+			total += best;
+		}
+		pathCost = total;
+	}
+}
@@ -0,0 +1,39 @@
+package graph;
+
+/**
+ * Receives the progress of the id-based searches in IndexedSearch.
+ * WeightedGraph implements this to translate ids back to vertices
+ * for its GraphAlgorithmObservers.
+ */
+interface SearchListener {
+
+	/** A vertex has been visited by a BFS or DFS.
+	 * 
+	 * @param vertex id of the vertex
+	 * @param parent id of the vertex it was reached from, or -1 for
+	 * the vertex the search began at
+	 * @param depth number of edges from the start along the search tree
+	 */
+	void visit(int vertex, int parent, int depth);
+
+	/** A vertex has been added to Dijkstra's finished set.
+	 * 
+	 * @param vertex id of the vertex
+	 * @param cost cost of the best path from the start to the vertex
+	 */
+	void finished(int vertex, int cost);
+
+	/** A vertex has been added to the frontier (open set) of an A*
+	 * search, or its estimated cost through the frontier has improved.
+	 * 
+	 * @param vertex id of the vertex
+	 */
+	void frontier(int vertex);
+
+	/** A vertex has been removed from the frontier and expanded by
+	 * an A* search.
+	 * 
+	 * @param vertex id of the vertex
+	 */
+	void expanded(int vertex);
+}
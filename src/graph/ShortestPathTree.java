@@ -0,0 +1,91 @@
+package graph;
+
+/**
+ * <P>The lowest cost paths from one start vertex to every vertex of a
+ * graph, as two primitive arrays indexed by vertex id: the cost of the
+ * best path to each vertex, and the vertex before it on that path (its
+ * parent).  Following the parents back from any reached vertex leads to
+ * the start, whose parent is itself.</P>
+ *
+ * <P>The arrays are returned as they are, not copied, so that reading
+ * the costs of a graph with millions of vertices costs nothing; they
+ * must not be changed.</P>
+ */
+public final class ShortestPathTree {
+
+	private final int start;
+	private final int[] distances;
+	private final int[] parents;
+
+	ShortestPathTree(int start, int[] distances, int[] parents) {
+		this.start = start;
+		this.distances = distances;
+		this.parents = parents;
+	}
+
+	/** @return id of the vertex the paths start from */
+	public int getStart() {
+		return start;
+	}
+
+	/** @return number of vertices in the graph the tree was computed on */
+	public int getVertexCount() {
+		return distances.length;
+	}
+
+	/** @param vertex id of a vertex
+	 * @return true if there is a path from the start to the vertex
+	 */
+	public boolean isReached(int vertex) {
+		return distances[vertex] >= 0;
+	}
+
+	/** @param vertex id of a vertex
+	 * @return the cost of the lowest cost path from the start to the
+	 * vertex, or -1 if it cannot be reached
+	 */
+	public int getDistance(int vertex) {
+		return distances[vertex];
+	}
+
+	/** @param vertex id of a vertex
+	 * @return id of the vertex before it on the lowest cost path (the
+	 * start itself for the start), or -1 if it cannot be reached
+	 */
+	public int getParent(int vertex) {
+		return parents[vertex];
+	}
+
+	/** @return the cost of the lowest cost path to every vertex, by
+	 * vertex id (-1 for the vertices that cannot be reached)
+	 */
+	public int[] getDistances() {
+		return distances;
+	}
+
+	/** @return the parent of every vertex, by vertex id (-1 for the
+	 * vertices that cannot be reached)
+	 */
+	public int[] getParents() {
+		return parents;
+	}
+
+	/** @param vertex id of a vertex
+	 * @return the ids of the vertices on the lowest cost path from the
+	 * start to the vertex, in order (empty if it cannot be reached)
+	 */
+	public int[] getPath(int vertex) {
+		if (distances[vertex] < 0) {
+			return new int[0];
+		}
+		int length = 1;
+		for (int v = vertex; v != start; v = parents[v]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int v = vertex, i = length - 1; i >= 0; v = parents[v], i--) {
+			path[i] = v;
+		}
+		return path;
+	}
+}
@@ -0,0 +1,67 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <P>A VertexCodec turns the vertices of a graph into bytes and back,
+ * so that the graph can be saved to a file (see WeightedGraph.save)
+ * and loaded again.</P>
+ *
+ * <P>The buffers are little-endian.  write may run out of room: the
+ * caller then makes room and calls it again for the same vertex, so
+ * write should not change anything outside the buffer.</P>
+ *
+ * @param <V> the type of the vertices of the graph
+ */
+public interface VertexCodec<V> {
+
+	/** Integer vertices, as 4 bytes each. */
+	public static final VertexCodec<Integer> INTEGER = new VertexCodec<Integer>() {
+		@Override
+		public void write(Integer vertex, ByteBuffer out) {
+			out.putInt(vertex);
+		}
+
+		@Override
+		public Integer read(ByteBuffer in) {
+			return in.getInt();
+		}
+	};
+
+	/** String vertices, as their length in bytes followed by their
+	 * UTF-8 encoding. */
+	public static final VertexCodec<String> STRING = new VertexCodec<String>() {
+		@Override
+		public void write(String vertex, ByteBuffer out) {
+			byte[] bytes = vertex.getBytes(StandardCharsets.UTF_8);
+			out.putInt(bytes.length).put(bytes);
+		}
+
+		@Override
+		public String read(ByteBuffer in) {
+			byte[] bytes = new byte[in.getInt()];
+			in.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+
+	/** Writes a vertex at the position of the buffer.
+	 *
+	 * @param vertex the vertex to write
+	 * @param out where to write it
+	 * @throws java.nio.BufferOverflowException if the buffer does not
+	 * have room for the vertex
+	 */
+	void write(V vertex, ByteBuffer out);
+
+	/** Reads a vertex written by write, from the position of the
+	 * buffer.
+	 *
+	 * @param in where to read it from
+	 * @return the vertex
+	 * @throws java.nio.BufferUnderflowException if the buffer ends
+	 * before the vertex does
+	 */
+	V read(ByteBuffer in);
+}
@@ -0,0 +1,44 @@
+package graph;
+
+/**
+ * <P>A min-priority queue of vertex ids (0 .. capacity - 1) keyed
+ * by non-negative integer costs.  This is the "engine" used by the
+ * shortest path algorithms in WeightedGraph to choose the next
+ * vertex to be added to the finished set.</P>
+ * 
+ * <P>The only operations Dijkstra's algorithm needs are "offer"
+ * (insert a vertex, or lower the key of one already queued) and
+ * "poll" (remove a vertex of smallest key).</P>
+ */
+interface VertexQueue {
+
+	/** Empties the queue and makes room for vertex ids in
+	 * the range 0 .. capacity - 1.
+	 * 
+	 * @param capacity number of distinct vertex ids
+	 */
+	void reset(int capacity);
+
+	/** @return true if there are no vertices left in the queue */
+	boolean isEmpty();
+
+	/** Inserts the vertex with the given key, or lowers its key if
+	 * it is already in the queue.  Callers only ever offer a key 
+	 * that is smaller than any key previously offered for the vertex.
+	 * 
+	 * @param vertex id of the vertex
+	 * @param key the (non-negative) cost of the vertex
+	 */
+	void offer(int vertex, int key);
+
+	/** Removes a vertex of smallest key.  The queue must not be empty.
+	 * 
+	 * @return id of the vertex removed
+	 */
+	int poll();
+
+	/** @return the smallest key in the queue (the queue must not 
+	 * be empty)
+	 */
+	int peekKey();
+}
@@ -2,14 +2,19 @@ package graph;
 // This class represents a directed weighted graph
 
 
-import java.util.Collection;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
-import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
 
 /**
  * <P>This class represents a general "directed graph", which could 
@@ -22,7 +27,8 @@ import java.util.Queue;
  * <P>The weights will always be non-negative integers.</P>
  * 
  * <P>The WeightedGraph will be capable of performing three algorithms:
- * Depth-First-Search, Breadth-First-Search, and Djikatra's.</P>
+ * Depth-First-Search, Breadth-First-Search, and Djikatra's.  It 
+ * can also perform an A* search guided by a Heuristic.</P>
  * 
  * <P>The Weighted Graph will maintain a collection of 
  * "GraphAlgorithmObservers", which will be notified during the
@@ -40,15 +46,86 @@ public class WeightedGraph<V> {
 	 */
 
 
+	/** Number of vertices from which getHopDistances and 
+	 * getShortestPathTree run in parallel,
+	 * unless changed with setParallelThreshold.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+	/** The edges: the weight of each edge, by its source and then its
+	 * target.  Read it, but do not modify it: a vertex or edge put here
+	 * directly is not seen by containsVertex, getVertexId or the
+	 * searches (which run on a CSR copy of the graph).  Change the graph
+	 * with addVertex and addEdge, which keep both in step.  A MazeGraph
+	 * with compact storage (see MazeGraph.Storage) leaves it empty. */
 	public Map<V,Map<V,Integer>> directedWeightedGraph;
 
+	/* Reverse-edge index: maps each vertex to the vertices that have
+	 * an edge leading to it (and the weights of those edges).  It lets
+	 * the bidirectional searches walk edges backwards from the end.
+	 */
+	private Map<V,Map<V,Integer>> reverseGraph;
+
 	/* Collection of observers.  Be sure to initialize this list
 	 * in the constructor.  The method "addObserver" will be
 	 * called to populate this collection.  Your graph algorithms 
 	 * (DFS, BFS, and Dijkstra) will notify these observers to let 
 	 * them know how the algorithms are progressing. 
 	 */
-	private Collection<GraphAlgorithmObserver<V>> observerList;
+	private List<GraphAlgorithmObserver<V>> observerList;
+
+	/* Observers that follow the algorithms in batches of vertex ids,
+	 * and the listener that collects the batches for them (null while
+	 * there are none).  When there are no observers of either kind the
+	 * searches are run with no listener at all.
+	 */
+	private List<BatchAlgorithmObserver> batchObserverList;
+	private BatchingListener batchingListener;
+
+	/* Told about every edge added or reweighted, so that results kept
+	 * outside the graph (see DynamicShortestPaths) can be repaired.
+	 */
+	private List<EdgeChangeListener<V>> edgeListeners;
+
+	/* The priority queue used by Dijkstra's algorithm to pick the
+	 * next vertex for the finished set.
+	 */
+	private DijkstraQueue dijkstraQueue;
+
+	/* Estimates the remaining cost to the goal for DoAStar.  The
+	 * default estimate is always 0, which makes A* behave like 
+	 * Dijkstra's algorithm stopped at the goal.
+	 */
+	private Heuristic<V> heuristic;
+
+	/* Vertex index.  Every vertex is numbered in the order it was
+	 * added (0, 1, 2, ...).  vertexIds maps a vertex to its number and
+	 * vertexList maps a number back to the vertex, so membership tests
+	 * and id lookups take constant time, and the graph algorithms can
+	 * keep their bookkeeping in primitive arrays indexed by id.
+	 */
+	private Map<V,Integer> vertexIds;
+	private List<V> vertexList;
+
+	/* Counts the changes made to the graph.  The indexed (CSR) copy of
+	 * the graph used by the search algorithms is rebuilt whenever this
+	 * count no longer matches the one it was built at.
+	 */
+	private int modificationCount;
+	private IndexedGraph indexedGraph;
+	private int indexedGraphVersion;
+	private IndexedGraph reverseIndexedGraph;
+	private int reverseIndexedGraphVersion;
+
+	/* Working storage reused by the searches run through this graph
+	 * (see SearchContext), created on first use.
+	 */
+	private SearchContext searchContext;
+
+	/* Graphs with at least this many vertices are searched in parallel
+	 * by getHopDistances and getShortestPathTree.
+	 */
+	private int parallelThreshold;
 
 
 	/** Initialize the data structures to "empty", including
@@ -58,8 +135,26 @@ public class WeightedGraph<V> {
 
 	/* Constructor */
 	public WeightedGraph() {
-		this.directedWeightedGraph = new HashMap<>();
-		this.observerList = new LinkedList<>();
+		this(16);
+	}
+
+	/** Constructs an empty graph whose tables are sized to hold 
+	 * the expected number of vertices without rehashing.
+	 * 
+	 * @param expectedVertices number of vertices that will be added
+	 */
+	protected WeightedGraph(int expectedVertices) {
+		int capacity = Math.max(16, (int) (expectedVertices / 0.75f) + 1);
+		this.directedWeightedGraph = new HashMap<>(capacity);
+		this.reverseGraph = new HashMap<>(capacity);
+		this.vertexIds = new HashMap<>(capacity);
+		this.vertexList = new ArrayList<>(expectedVertices);
+		this.observerList = new ArrayList<>();
+		this.batchObserverList = new ArrayList<>();
+		this.edgeListeners = new ArrayList<>();
+		this.dijkstraQueue = DijkstraQueue.AUTO;
+		this.heuristic = (vertex, goal) -> 0;
+		this.parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
 	}
 
 	/** Add a GraphAlgorithmObserver to the collection maintained
@@ -73,6 +168,73 @@ public class WeightedGraph<V> {
 		this.observerList.add(observer);
 	}
 
+	/** Add a BatchAlgorithmObserver, which is told about the progress
+	 * of the Do... methods in batches of vertex ids rather than one
+	 * vertex at a time.
+	 * 
+	 * @param observer
+	 */
+	public void addBatchObserver(BatchAlgorithmObserver observer) {
+		this.batchObserverList.add(observer);
+		this.batchingListener = new BatchingListener(batchObserverList.toArray(new BatchAlgorithmObserver[0]));
+	}
+
+	/** Adds a listener that is told about every edge added to the
+	 * graph, or given a new weight, by addEdge.
+	 * 
+	 * @param listener the listener to add
+	 */
+	public void addEdgeChangeListener(EdgeChangeListener<V> listener) {
+		this.edgeListeners.add(listener);
+	}
+
+	/** Removes a listener added by addEdgeChangeListener.
+	 * 
+	 * @param listener the listener to remove
+	 */
+	public void removeEdgeChangeListener(EdgeChangeListener<V> listener) {
+		this.edgeListeners.remove(listener);
+	}
+
+	/** Selects the priority queue used by DoDijsktra.  The default
+	 * (AUTO) is a bucket queue when every edge weight is small, and 
+	 * an indexed binary heap with decrease-key otherwise.
+	 * 
+	 * @param queue the queue engine to use
+	 */
+	public void setDijkstraQueue(DijkstraQueue queue) {
+		if(queue == null) {
+			throw new IllegalArgumentException();
+		}
+		this.dijkstraQueue = queue;
+	}
+
+	/** Sets the heuristic used by DoAStar(start, end).
+	 * 
+	 * @param heuristic a consistent estimate of the cost to the goal
+	 */
+	public void setHeuristic(Heuristic<V> heuristic) {
+		if(heuristic == null) {
+			throw new IllegalArgumentException();
+		}
+		this.heuristic = heuristic;
+	}
+
+	/** Sets the size from which getHopDistances and 
+	 * getShortestPathTree run in parallel.
+	 * On smaller graphs, starting the threads and synchronizing them
+	 * at every level costs more than the parallel search saves.
+	 * 
+	 * @param vertexCount the smallest number of vertices to search
+	 * in parallel (0 to always search in parallel)
+	 */
+	public void setParallelThreshold(int vertexCount) {
+		if(vertexCount < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.parallelThreshold = vertexCount;
+	}
+
 	/** Add a vertex to the graph.  If the vertex is already in the
 	 * graph, throw an IllegalArgumentException.
 	 * 
@@ -86,7 +248,23 @@ public class WeightedGraph<V> {
 		if(containsVertex(vertex)) {// If the weighted graph already contains the vertex
 			throw new IllegalArgumentException(); //throw IllegalArgument Exception
 		}
+		addVertexUnchecked(vertex);
+	}
+
+	/** Adds a vertex without checking whether it is already in the
+	 * graph.  Used by subclasses that build a graph in bulk and
+	 * already know every vertex is distinct.
+	 * 
+	 * @param vertex vertex to be added to the graph
+	 * @return the id given to the new vertex
+	 */
+	protected int addVertexUnchecked(V vertex) {
+		int id = vertexList.size();
+		vertexIds.put(vertex, id);
+		vertexList.add(vertex);
 		directedWeightedGraph.put(vertex, null);
+		modificationCount++;
+		return id;
 	}
 
 	/** Searches for a given vertex.
@@ -97,12 +275,33 @@ public class WeightedGraph<V> {
 	// This is a method whose return type is boolean, 
 	// to check whether a given vertex is in the weighted graph
 	public boolean containsVertex(V vertex) {
-		for(V v :directedWeightedGraph.keySet()) {//Iterate through the keySet of the map
-			if(v.equals(vertex)) {//If the key equals vertex
-				return true;
-			}
-		}
-		return false;
+		return vertexIds.containsKey(vertex); // constant time lookup in the vertex index
+	}
+
+	/** Returns the id of a vertex.  Ids are assigned in the order
+	 * vertices are added, starting from 0.
+	 * 
+	 * @param vertex the vertex we are looking for
+	 * @return id of the vertex, or -1 if it is not in the graph
+	 */
+	public int getVertexId(V vertex) {
+		Integer id = vertexIds.get(vertex);
+		return id == null ? -1 : id;
+	}
+
+	/** Returns the vertex with the given id.
+	 * 
+	 * @param id a number from 0 to getVertexCount() - 1
+	 * @return the vertex with that id
+	 * @throws IndexOutOfBoundsException if there is no such vertex
+	 */
+	public V getVertex(int id) {
+		return vertexList.get(id);
+	}
+
+	/** @return the number of vertices in the graph */
+	public int getVertexCount() {
+		return vertexList.size();
 	}
 
 	/** 
@@ -128,19 +327,138 @@ public class WeightedGraph<V> {
 	public void addEdge(V from, V to, Integer weight) {
 		if(containsVertex(from) && containsVertex(to) && weight >= 0) {
 			//If the graph contains both vertex we want to build the edge between and the weight is nonnegative
-			Map<V, Integer> value = directedWeightedGraph.get(from); //Get the map the from vertex being mapped to
-			if(value == null) {
-				// If the from vertex has nothing to mapped to
-				value = new HashMap<>(); // Initialize a new HashMap for the value
-			}
-			value.put(to, weight);// put the to vertex and weight to the value map
-			directedWeightedGraph.put(from, value); // put the from vertex and the map to the weighted graph
+			addEdgeUnchecked(from, to, weight);
 		}else {
 			throw new IllegalArgumentException();
 		}
 
 	}
 
+	/** Adds (or replaces) an edge without validating the vertices or
+	 * the weight.  Used by subclasses that build a graph in bulk from
+	 * a source that is already known to be consistent.
+	 * 
+	 * @param from the vertex the edge leads from (must be in the graph)
+	 * @param to the vertex the edge leads to (must be in the graph)
+	 * @param weight the (non-negative) weight of this edge
+	 */
+	protected void addEdgeUnchecked(V from, V to, int weight) {
+		Map<V, Integer> value = directedWeightedGraph.get(from); //Get the map the from vertex being mapped to
+		if(value == null) {
+			// If the from vertex has nothing to mapped to
+			value = new HashMap<>(8); // Initialize a new HashMap for the value
+			directedWeightedGraph.put(from, value); // put the from vertex and the map to the weighted graph
+		}
+		Integer oldWeight = value.put(to, weight);// put the to vertex and weight to the value map
+		Map<V, Integer> incoming = reverseGraph.get(to); // record the edge in the reverse index too
+		if(incoming == null) {
+			incoming = new HashMap<>(8);
+			reverseGraph.put(to, incoming);
+		}
+		incoming.put(from, weight);
+		modificationCount++;
+		for(int i = 0; i < edgeListeners.size(); i++) { // by index: no iterator when there are none
+			edgeListeners.get(i).edgeChanged(from, to, oldWeight, weight);
+		}
+	}
+
+	/* The edges leaving (or entering) a vertex with their weights, or
+	 * null if there are none.  Read-only: for DynamicShortestPaths, which
+	 * must walk the edges without the indexed copy that every change
+	 * would rebuild. */
+	Map<V,Integer> outgoingEdges(V vertex) {
+		return directedWeightedGraph.get(vertex);
+	}
+
+	Map<V,Integer> incomingEdges(V vertex) {
+		return reverseGraph.get(vertex);
+	}
+
+	/** Returns the number of changes (added vertices and edges) that
+	 * have been made to this graph.  Anything computed from the graph
+	 * is still valid as long as this number has not changed.
+	 * 
+	 * @return the modification count
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	/** 
+	 * <P>Returns a read-only, id-based view of this graph that the
+	 * search algorithms run on.  Vertex ids are the ones returned by
+	 * getVertexId.</P>
+	 * 
+	 * <P>The view is built from the adjacency maps the first time it
+	 * is needed and reused until the graph is changed.</P>
+	 * 
+	 * @return the graph in indexed form
+	 */
+	public IndexedGraph getIndexedGraph() {
+		if(indexedGraph == null || indexedGraphVersion != modificationCount) {
+			indexedGraph = buildIndexedGraph(directedWeightedGraph);
+			indexedGraphVersion = modificationCount;
+		}
+		return indexedGraph;
+	}
+
+	/** 
+	 * <P>Returns the reverse of getIndexedGraph: the same vertex ids,
+	 * but with every edge turned around, so the edges leaving a vertex
+	 * are the edges that lead to it in this graph.</P>
+	 * 
+	 * <P>The view is built from the reverse-edge index the first time
+	 * it is needed and reused until the graph is changed.</P>
+	 * 
+	 * @return the reversed graph in indexed form
+	 */
+	public IndexedGraph getReverseIndexedGraph() {
+		if(reverseIndexedGraph == null || reverseIndexedGraphVersion != modificationCount) {
+			reverseIndexedGraph = buildIndexedGraph(reverseGraph);
+			reverseIndexedGraphVersion = modificationCount;
+		}
+		return reverseIndexedGraph;
+	}
+
+	/** Returns the vertices that have an edge leading to the given
+	 * vertex.
+	 * 
+	 * @param vertex a vertex of the graph
+	 * @return the predecessors of the vertex (possibly empty)
+	 * @throws IllegalArgumentException if the vertex is not in the graph
+	 */
+	public Set<V> getPredecessors(V vertex) {
+		if(!containsVertex(vertex)) {
+			throw new IllegalArgumentException();
+		}
+		Map<V,Integer> incoming = reverseGraph.get(vertex);
+		return incoming == null ? Collections.emptySet() : Collections.unmodifiableSet(incoming.keySet());
+	}
+
+	/* Copies the adjacency maps (forward or reverse) into a CsrGraph */
+	private IndexedGraph buildIndexedGraph(Map<V,Map<V,Integer>> adjacency) {
+		CsrGraph.Builder builder = new CsrGraph.Builder(vertexList.size());
+		for(int id = 0; id < vertexList.size(); id++) {
+			Map<V,Integer> successors = adjacency.get(vertexList.get(id));
+			if(successors != null) {
+				for(Map.Entry<V,Integer> edge : successors.entrySet()) {
+					builder.addEdge(id, vertexIds.get(edge.getKey()), edge.getValue());
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/* Returns the id of a vertex, throwing an IllegalArgumentException
+	 * if the vertex is not in the graph */
+	private int requireVertexId(V vertex) {
+		int id = getVertexId(vertex);
+		if(id == -1) {
+			throw new IllegalArgumentException();
+		}
+		return id;
+	}
+
 
 	/** 
 	 * <P>Returns weight of the edge connecting one vertex
@@ -161,14 +479,11 @@ public class WeightedGraph<V> {
 	// It will throw IllegalArgument Exception if either vertex is not in the graph
 	public Integer getWeight(V from, V to) {
 		if(containsVertex(from) && containsVertex(to)) {// If the graph contains both from and to vertices
-			if(directedWeightedGraph.get(from) == null){// If the from vertex's corresponding map is null
+			Map<V,Integer> successors = directedWeightedGraph.get(from);
+			if(successors == null){// If the from vertex's corresponding map is null
 				return null; 
 			}
-			if(directedWeightedGraph.get(from).keySet().contains(to)) {// If the to vertex is in the keySet of the from vertex's corresponding map
-				return directedWeightedGraph.get(from).get(to); // return the weight
-			}else { // If the to vertex is not in the keySet of the from vertex's corresponding map
-				return null;
-			}
+			return successors.get(to); // the weight, or null if the to vertex is not a successor
 		}
 		throw new IllegalArgumentException();
 	}
@@ -185,8 +500,9 @@ public class WeightedGraph<V> {
 	 * 
 	 * <P>Just after a particular vertex is visited, this method will
 	 * go through the collection of observers calling notifyVisit
-	 * on each one (passing in the vertex being visited as the
-	 * argument.)</P>
+	 * on each one (passing in the vertex being visited, the vertex
+	 * it was queued from and its depth, the number of edges on the
+	 * shortest path from "start" to it.)</P>
 	 * 
 	 * <P>After the "end" vertex has been visited, this method will
 	 * go through the collection of observers calling 
@@ -197,6 +513,8 @@ public class WeightedGraph<V> {
 	 * @param start vertex where search begins
 	 * @param end the algorithm terminates just after this vertex
 	 * is visited
+	 * @throws IllegalArgumentException if the start vertex is not
+	 * in the graph
 	 */
 	//This is a void method that does a Breadth-First Search on the graph from a 
 	// start vertex and stop once the end vertex being visited.
@@ -205,40 +523,15 @@ public class WeightedGraph<V> {
 			observer.notifyBFSHasBegun();//Before the traversal starts,
 			//notify each observer in the observerList that the breadth-first traversal has started
 		}
-
-		Set<V> visitedSet = new HashSet<>(); // Initialize a visitedSet using HashSet
-		Queue<V> discoveredQueue = new LinkedList<>(); // Initialize a discoveredQueue using LinkedList
-		discoveredQueue.add(start); // add the start vertex to the discoveredQueue
-		// While the discoveredQueue is not empty
-		while(!(discoveredQueue.isEmpty())) {
-			V currVertex = discoveredQueue.remove(); 
-			//remove a vertex that we will process from one end of the discoveredQueue
-
-			if(!(visitedSet.contains(currVertex))){ // If we have not visited the currVertex yet
-
-				visitedSet.add(currVertex); // Add the currVertex to the visitedSet
-
-
-				for(GraphAlgorithmObserver<V> observer : this.observerList) {
-					observer.notifyVisit(currVertex); // notify each observer in the observerList that we are visiting the currVertex
-				}
-				if(currVertex.equals(end)) { //If the currVertex is the end vertex
-					for(GraphAlgorithmObserver<V> observer : this.observerList) {
-						observer.notifySearchIsOver(); // notify each observer in the observerList that we have found the vertex
-					}
-					return; // terminate the search by returning from the method 
-				}
-				//If the currVertex is not the end vertex
-				if(this.directedWeightedGraph.get(currVertex) != null) { // If the currVertex has some neighbors
-					for(V successor: this.directedWeightedGraph.get(currVertex).keySet()) {
-						if(!(visitedSet.contains(successor))) { //If we have not visited these successors before
-							discoveredQueue.add(successor); // add the newly discovered successor to the discoveredQueue
-						}
-					}
-				}
+		int startId = requireVertexId(start); // before beginSearch, so a bad start never begins a batch
+		// The search itself runs on vertex ids; the bridge reports each visit to the observers
+		SearchListener listener = beginSearch(SearchAlgorithm.BFS);
+		if(IndexedSearch.bfs(getIndexedGraph(), startId, getVertexId(end), searchContext(), listener)) {
+			for(GraphAlgorithmObserver<V> observer : this.observerList) {
+				observer.notifySearchIsOver(); // notify each observer in the observerList that we have found the vertex
 			}
 		}
-
+		endSearch();
 	}
 
 	/** 
@@ -252,8 +545,11 @@ public class WeightedGraph<V> {
 	 * 
 	 * <P>Just after a particular vertex is visited, this method will
 	 * go through the collection of observers calling notifyVisit
-	 * on each one (passing in the vertex being visited as the
-	 * argument.)</P>
+	 * on each one (passing in the vertex being visited, the vertex
+	 * whose edge led to it and its depth in the search tree; the
+	 * parent is always on the path from "start" to the vertex 
+	 * visited just before, so an observer can back up along that
+	 * path to it.)</P>
 	 * 
 	 * <P>After the "end" vertex has been visited, this method will
 	 * go through the collection of observers calling 
@@ -264,6 +560,8 @@ public class WeightedGraph<V> {
 	 * @param start vertex where search begins
 	 * @param end the algorithm terminates just after this vertex
 	 * is visited
+	 * @throws IllegalArgumentException if the start vertex is not
+	 * in the graph
 	 */
 	//This is a void method that does a Depth-First Search on the graph from a 
 	// start vertex and stop once the end vertex being visited.
@@ -272,41 +570,15 @@ public class WeightedGraph<V> {
 			observer.notifyDFSHasBegun();//Before the traversal starts,
 			//notify each observer in the observerList that the depth-first traversal has started
 		}
-
-		Stack<V> discoveredStack = new Stack<V>(); // Initialize a discoveredStack using Stack
-		Set<V> visitedSet = new HashSet<V>();// Initialize a visitedSet using HashSet
-		discoveredStack.push(start); // push the start vertex to one end of the discoveredStack
-
-		// While the discoveredStack is not empty
-		while(!discoveredStack.empty()) {
-			V currVertex = discoveredStack.pop(); //pop a vertex from the same end of the discoveredStack
-			if(! visitedSet.contains(currVertex)) { // If the visitedSet does not contain the currVertex 
-				visitedSet.add(currVertex); // add it to the visitedSet
-
-
-				for(GraphAlgorithmObserver<V> observer : this.observerList) {
-					observer.notifyVisit(currVertex);// notify each observer in the observerList that we are visiting the currVertex
-				}
-				if(currVertex.equals(end)) {//If the currVertex is the end vertex
-					for(GraphAlgorithmObserver<V> observer : this.observerList) {
-						observer.notifySearchIsOver();// notify each observer in the observerList that we have found the vertex
-					}
-					return; // terminate the search by returning from the method 
-				}
-
-				//If the currVertex is not the end vertex
-				if(this.directedWeightedGraph.get(currVertex) != null) { // If the currVertex has some neighbors
-					for(V successor: this.directedWeightedGraph.get(currVertex).keySet()) {
-						if(!(visitedSet.contains(successor))) {//If we have not visited these successors before
-							discoveredStack.push(successor); // push the newly discovered successor to the discoveredStack
-						}
-					}
-				}
-
+		int startId = requireVertexId(start); // before beginSearch, so a bad start never begins a batch
+		// The search itself runs on vertex ids; the bridge reports each visit to the observers
+		SearchListener listener = beginSearch(SearchAlgorithm.DFS);
+		if(IndexedSearch.dfs(getIndexedGraph(), startId, getVertexId(end), searchContext(), listener)) {
+			for(GraphAlgorithmObserver<V> observer : this.observerList) {
+				observer.notifySearchIsOver();// notify each observer in the observerList that we have found the vertex
 			}
 		}
-
-
+		endSearch();
 	}
 
 
@@ -316,8 +588,12 @@ public class WeightedGraph<V> {
 	 * vertex.</P>
 	 * 
 	 * <P>The algorithm DOES NOT terminate when the "end" vertex
-	 * is reached.  It will continue until EVERY vertex in the
-	 * graph has been added to the finished set.</P>
+	 * is reached.  It will continue until EVERY vertex reachable
+	 * from "start" has been added to the finished set.</P>
+	 * 
+	 * <P>The next vertex to be finished is taken from a priority
+	 * queue (see setDijkstraQueue), so the algorithm runs in
+	 * O((V + E) log V) time.</P>
 	 * 
 	 * <P>Before the algorithm begins, this method goes through 
 	 * the collection of Observers, calling notifyDijkstraHasBegun 
@@ -338,11 +614,14 @@ public class WeightedGraph<V> {
 	 * passing in as the argument the "lowest cost" sequence of 
 	 * vertices that leads from start to end (I.e. the first vertex
 	 * in the list will be the "start" vertex, and the last vertex
-	 * in the list will be the "end" vertex.)</P>
+	 * in the list will be the "end" vertex.)  If the "end" vertex
+	 * cannot be reached from "start", the list is empty.</P>
 	 * 
 	 * @param start vertex where algorithm will start
 	 * @param end special vertex used as the end of the path 
 	 * reported to observers via the notifyDijkstraIsOver method.
+	 * @throws IllegalArgumentException if the start vertex is not
+	 * in the graph
 	 */
 	// This void method will perform a Dijsktra's algorithm on this graph 
 	// and will calculate the lowest cost path from the start vertex to the end vertex
@@ -351,85 +630,519 @@ public class WeightedGraph<V> {
 			observer.notifyDijkstraHasBegun();//Before the traversal starts,
 			//notify each observer in the observerList that the Dijsktra's algorithm traversal has started
 		}
-		int counter = 0; //this counter will keep track of how many vertices has been finished calculated the lowest path.
-		Map<V,Integer> totalCost = new HashMap<>(); // This hashMap will map from the current vertex to how many steps it take from the predecessor to current vertex
-		Set<V> finishedSet = new HashSet<>(); // This hashSet will collect the vertex that is visited
-		Map<V,V> predecessor = new HashMap<>(); // from end node map to predecessor
+		int startId = requireVertexId(start);
+		IndexedGraph graph = getIndexedGraph();
+		SearchContext context = searchContext();
+		SearchListener listener = beginSearch(SearchAlgorithm.DIJKSTRA);
+		// Run to completion (stopAtEnd is false); the context keeps the lowest cost path to end
+		IndexedSearch.dijkstra(graph, startId, getVertexId(end), false,
+				context.forwardQueue(dijkstraQueue, graph.getMaxWeight()), context, listener);
+		endSearch();
 
+		LinkedList<V> lowestPath = buildPath(context);
 
-		totalCost.put(start, 0); // add the start vertex to the totalCost map
-		predecessor.put(start,start); // add the start vertex and itself to the predecessor map
-		
-		// This for loop initializes all the lowest cost to infinity and predecessor to null
-		for(V vertex : directedWeightedGraph.keySet()) {// go through the graph's vertex in the keySet
-			if(!(vertex.equals(start))) {// if the current vertex is not the start vertex
-				totalCost.put(vertex, Integer.MAX_VALUE); 
-				predecessor.put(vertex, null);
-			}
+		for(GraphAlgorithmObserver<V> observer : this.observerList) {
+			observer.notifyDijkstraIsOver(lowestPath);
+			//notify each observer in the observerList that Dijkstra's algorithm is over and give them the lowest path we just found
 		}
+	}
 
-		// This minCost variable will keep track of the current minimum cost in the totalCost map
-	    // and will be updated to the smallest value that has not been finished
-		Integer minCost = Integer.MAX_VALUE; 
-		// This currSmallest will be the vertex who has not been finished processed  with the smallest cost
-		V currSmallest = start;
-
-		while(counter < directedWeightedGraph.size()) { // while we have not calculated every vertex's cost
-			minCost = Integer.MAX_VALUE; // first each time at the start of the loop reassign the minCost to the maximum value
-			// This for loop will find the smallest cost of the vertex that has not been added to the finished set
-			for(V vertex : totalCost.keySet()) {
-				if(!(finishedSet.contains(vertex)) && totalCost.get(vertex) < minCost) {
-					// If we have not added the current vertex to the finished set and the cost is less than minCost
-					//Do an update
-					currSmallest = vertex;
-					minCost = totalCost.get(vertex);
-				}
-			}
-			finishedSet.add(currSmallest); // add the currSmallest vertex to the finished set
-			counter++; // increment the counter that we have found a new vertex to process
+	/** 
+	 * <P>Perform an A* search from the "start" vertex to the "end"
+	 * vertex, using the heuristic given to setHeuristic.</P>
+	 * 
+	 * @param start vertex where the search begins
+	 * @param end the goal vertex
+	 * @throws IllegalArgumentException if either vertex is not 
+	 * in the graph
+	 * @see #DoAStar(Object, Object, Heuristic)
+	 */
+	public void DoAStar(V start, V end) {
+		DoAStar(start, end, heuristic);
+	}
+
+	/** 
+	 * <P>Perform an A* search from the "start" vertex to the "end"
+	 * vertex.  Like Dijkstra's algorithm, vertices are taken off the
+	 * frontier in order of cost, but the cost used is the cost of the
+	 * path so far PLUS the heuristic estimate of the cost remaining,
+	 * so vertices leading away from the goal are put off (often
+	 * forever).  The search stops as soon as "end" is taken off the
+	 * frontier.</P>
+	 * 
+	 * <P>Before the search begins, this method goes through the
+	 * collection of Observers, calling notifyAStarHasBegun on each
+	 * one.  Each time a vertex is added to the frontier (or its cost
+	 * improves) the observers are notified with notifyAStarVisit(vertex,
+	 * false), and each time a vertex is taken off the frontier and
+	 * visited, with notifyAStarVisit(vertex, true).  Finally each 
+	 * observer is passed the lowest cost path from "start" to "end"
+	 * through notifyAStarIsOver (an empty list if "end" cannot be 
+	 * reached).</P>
+	 * 
+	 * @param start vertex where the search begins
+	 * @param end the goal vertex
+	 * @param heuristic a consistent estimate of the cost to the goal
+	 * @throws IllegalArgumentException if either vertex is not 
+	 * in the graph
+	 */
+	public void DoAStar(V start, V end, Heuristic<V> heuristic) {
+		for(GraphAlgorithmObserver<V> observer : this.observerList) {
+			observer.notifyAStarHasBegun();
+		}
+		int startId = requireVertexId(start);
+		int endId = requireVertexId(end);
+		runSearch(SearchAlgorithm.A_STAR, startId, endId, heuristic, searchContext(), 
+				beginSearch(SearchAlgorithm.A_STAR));
+		endSearch();
+
+		LinkedList<V> lowestPath = buildPath(searchContext);
+		for(GraphAlgorithmObserver<V> observer : this.observerList) {
+			observer.notifyAStarIsOver(lowestPath);
+		}
+	}
 
+	/** 
+	 * <P>Perform a bidirectional Breadth-First-Search: one search 
+	 * moves forward from "start" while another moves backward (along
+	 * the reversed edges) from "end", a level at a time, until they
+	 * meet in the middle.  Each search only has to reach about half as
+	 * far as a plain BFS, so far fewer vertices are visited.</P>
+	 * 
+	 * <P>Observers are notified as in DoBFS: notifyBFSHasBegun first,
+	 * then notifyVisit as each vertex is reached from either side 
+	 * ("start" and "end" come first), then notifySearchIsOver once the
+	 * two searches meet (not at all if "end" cannot be reached).</P>
+	 * 
+	 * @param start vertex where the forward search begins
+	 * @param end vertex where the backward search begins
+	 * @throws IllegalArgumentException if either vertex is not
+	 * in the graph
+	 */
+	public void DoBidirectionalBFS(V start, V end) {
+		for(GraphAlgorithmObserver<V> observer : this.observerList) {
+			observer.notifyBFSHasBegun();
+		}
+		int startId = requireVertexId(start);
+		int endId = requireVertexId(end);
+		if(runSearch(SearchAlgorithm.BIDIRECTIONAL_BFS, startId, endId, heuristic, searchContext(), 
+				beginSearch(SearchAlgorithm.BIDIRECTIONAL_BFS))) {
 			for(GraphAlgorithmObserver<V> observer : this.observerList) {
-				observer.notifyDijkstraVertexFinished(currSmallest, minCost);
-				//notify each observer in the observerList that we have added a vertex to the finished and also it's corresponding optimal cost
-			}
-			// process currSmallest's predecessors
-			if(directedWeightedGraph.get(currSmallest) != null) {
-				for(V successor : directedWeightedGraph.get(currSmallest).keySet()) { // for all the predecessors of the currSmallest
-					if(!(finishedSet.contains(successor))) { // if the predecessor is not in the finished set
-						//if the minimum cost to the currSmallest plus the cost from the currSmallest to this current successor is less than the total cost in the totalCost map
-						if(minCost + directedWeightedGraph.get(currSmallest).get(successor) < totalCost.get(successor)) {
-							//put the new cost and this successor to the totalCost map
-							totalCost.put(successor, minCost + directedWeightedGraph.get(currSmallest).get(successor));
-							// put the current successor and currSmalles as the predecessor to the predecessor map
-							predecessor.put(successor, currSmallest);
-						}
-					}
-				}
+				observer.notifySearchIsOver();
 			}
 		}
-		// This linked list  will give the lowest path from start to the end
-		LinkedList<V> lowestPath = new LinkedList<>();
-		lowestPath.addFirst(end); // add the end vertex to the path
+		endSearch();
+	}
+
+	/** 
+	 * <P>Perform a bidirectional version of Dijkstra's algorithm to
+	 * find the lowest cost path from "start" to "end".  A forward
+	 * search from "start" and a backward search from "end" take turns
+	 * finishing vertices, and stop as soon as no unseen path could beat
+	 * the best path through a vertex reached by both.</P>
+	 * 
+	 * <P>Observers are notified as in DoDijsktra, except that the
+	 * algorithm stops early, and the cost passed to 
+	 * notifyDijkstraVertexFinished is the cost from "start" for vertices
+	 * finished by the forward search, and the cost to "end" for those
+	 * finished by the backward search.  The path passed to 
+	 * notifyDijkstraIsOver is empty if "end" cannot be reached.</P>
+	 * 
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 * @throws IllegalArgumentException if either vertex is not
+	 * in the graph
+	 */
+	public void DoBidirectionalDijkstra(V start, V end) {
+		for(GraphAlgorithmObserver<V> observer : this.observerList) {
+			observer.notifyDijkstraHasBegun();
+		}
+		int startId = requireVertexId(start);
+		int endId = requireVertexId(end);
+		runSearch(SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA, startId, endId, heuristic, searchContext(), 
+				beginSearch(SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA));
+		endSearch();
+		List<V> lowestPath = buildPath(searchContext);
+		for(GraphAlgorithmObserver<V> observer : this.observerList) {
+			observer.notifyDijkstraIsOver(lowestPath);
+		}
+	}
 
-		V preVertex = predecessor.get(end); // find the predecessor of the end vertex
+	/** 
+	 * <P>Takes an immutable snapshot of this graph, as it is now, that
+	 * many threads can search at once (see FrozenGraph).  The snapshot
+	 * keeps the current heuristic and Dijkstra queue, but no observers.</P>
+	 * 
+	 * @return the snapshot
+	 */
+	public FrozenGraph<V> freeze() {
+		IntFunction<V> vertices = vertexSnapshot();
+		return new FrozenGraph<>(getIndexedGraph(), getReverseIndexedGraph(), vertexIdSnapshot(), vertices,
+				estimateSnapshot(heuristic, vertices), dijkstraQueue);
+	}
 
+	/**
+	 * <P>Preprocesses this graph, as it is now, into a contraction
+	 * hierarchy (see ContractionHierarchy), which answers lowest cost
+	 * path queries much faster than Dijkstra's algorithm.  It is only
+	 * valid until the graph changes.</P>
+	 *
+	 * @return the hierarchy
+	 */
+	public ContractionHierarchy buildContractionHierarchy() {
+		return ContractionHierarchy.build(getIndexedGraph());
+	}
 
-		while(!(preVertex.equals(start)) ) { // while the predecessor is not the start vertex
+	/**
+	 * <P>Finds a lowest cost path from "start" to "end" with a
+	 * contraction hierarchy built from this graph (by
+	 * buildContractionHierarchy, or loaded from a file it was saved
+	 * to), without notifying the observers.</P>
+	 *
+	 * @param hierarchy the hierarchy of this graph
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 * @param context working storage for the search
+	 * @return the path found (empty if "end" cannot be reached), its
+	 * cost and the number of vertices visited
+	 * @throws IllegalArgumentException if either vertex is not in the
+	 * graph, or the hierarchy is for a graph of another size
+	 */
+	public PathResult<V> findPath(ContractionHierarchy hierarchy, V start, V end, SearchContext context) {
+		if (hierarchy.getVertexCount() != getVertexCount()) {
+			throw new IllegalArgumentException();
+		}
+		hierarchy.search(requireVertexId(start), requireVertexId(end), context);
+		return new PathResult<>(buildPath(context), context.getPathCost(), context.getVisitedCount());
+	}
 
-			lowestPath.addFirst(preVertex); // add the previous vertex to the path(head of the linked list)
-			preVertex = predecessor.get(preVertex); // update the preVertex to the predecessor of the vertex we just added to the linkedList
+	/**
+	 * <P>Saves this graph, as it is now, to a file: its vertices (written
+	 * by the codec), its edges and their weights, in a compact binary
+	 * format with a checksum.  The graph is streamed to the file without
+	 * being copied.  load (or FrozenGraph.load) reads it back, with the
+	 * same vertex ids; observers, listeners and the heuristic are not
+	 * saved.</P>
+	 *
+	 * @param file where to save the graph (replaced if it exists)
+	 * @param codec how to write a vertex
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path file, VertexCodec<V> codec) throws IOException {
+		GraphFile.write(file, getIndexedGraph(), this::getVertex, codec);
+	}
 
+	/**
+	 * <P>Loads a graph saved by save.  The edges are decoded straight
+	 * into the indexed form of the graph, so searches can start without
+	 * rebuilding it; the adjacency maps are filled in as well, so the
+	 * graph can still be changed.  (FrozenGraph.load skips the maps, for
+	 * a graph that will only be searched.)</P>
+	 *
+	 * @param file a file written by save
+	 * @param codec how to read a vertex
+	 * @return the graph, with the same vertex ids as the one saved
+	 * @throws IOException if the file cannot be read, or is not a graph
+	 * file, or is damaged
+	 */
+	public static <V> WeightedGraph<V> load(Path file, VertexCodec<V> codec) throws IOException {
+		GraphFile<V> contents = GraphFile.read(file, codec);
+		CsrGraph edges = contents.graph;
+		WeightedGraph<V> graph = new WeightedGraph<>(contents.vertices.size());
+		for(V vertex : contents.vertices) {
+			if(graph.containsVertex(vertex)) {
+				throw new IOException("Duplicate vertex in graph file: " + vertex);
+			}
+			graph.addVertexUnchecked(vertex);
 		}
+		for(int from = 0; from < edges.getVertexCount(); from++) {
+			for(int e = edges.edgeBegin(from); e < edges.edgeEnd(from); e++) {
+				graph.addEdgeUnchecked(contents.vertices.get(from), contents.vertices.get(edges.edgeTarget(e)),
+						edges.edgeWeight(e));
+			}
+		}
+		graph.indexedGraph = edges;
+		graph.indexedGraphVersion = graph.modificationCount;
+		return graph;
+	}
+
+	/* Vertex lookups for a snapshot: copies of the vertex index, which
+	 * later changes to the graph do not touch */
+	ToIntFunction<V> vertexIdSnapshot() {
+		Map<V,Integer> ids = new HashMap<>(vertexIds);
+		return vertex -> ids.getOrDefault(vertex, -1);
+	}
 
-		lowestPath.addFirst(start); // add the start vertex to the front of the path
-		
+	IntFunction<V> vertexSnapshot() {
+		List<V> copy = new ArrayList<>(vertexList);
+		return copy::get;
+	}
 
+	/* The heuristic for a snapshot, as a function from goal id to the
+	 * estimate of every vertex id (see estimateToGoal) */
+	IntFunction<IntUnaryOperator> estimateSnapshot(Heuristic<V> heuristic, IntFunction<V> vertices) {
+		return goalId -> {
+			V goal = vertices.apply(goalId);
+			return id -> heuristic.estimate(vertices.apply(id), goal);
+		};
+	}
 
-		for(GraphAlgorithmObserver<V> observer : this.observerList) {
-			observer.notifyDijkstraIsOver(lowestPath);
-			//notify each observer in the observerList that Dijkstra's algorithm is over and give them the lowest path we just found
+	/** 
+	 * <P>Computes the number of edges on the shortest path (ignoring 
+	 * weights) from "start" to every vertex of the graph, by a 
+	 * breadth-first search that runs on the common ForkJoinPool once the
+	 * graph has as many vertices as the parallel threshold (see 
+	 * setParallelThreshold).</P>
+	 * 
+	 * <P>The observers are not notified: the parallel search visits the
+	 * vertices of each level in no particular order.</P>
+	 * 
+	 * @param start vertex where the search begins
+	 * @return the hop count of each vertex, indexed by vertex id (see
+	 * getVertexId); -1 for the vertices that cannot be reached
+	 * @throws IllegalArgumentException if "start" is not in the graph
+	 */
+	public int[] getHopDistances(V start) {
+		return getHopDistances(start, ForkJoinPool.commonPool());
+	}
+
+	/** 
+	 * <P>Like getHopDistances(start), but runs the parallel search on
+	 * the given pool.</P>
+	 * 
+	 * @param start vertex where the search begins
+	 * @param pool the threads to search with
+	 * @return the hop count of each vertex, indexed by vertex id; -1 for
+	 * the vertices that cannot be reached
+	 * @throws IllegalArgumentException if "start" is not in the graph
+	 */
+	public int[] getHopDistances(V start, ForkJoinPool pool) {
+		int startId = requireVertexId(start);
+		return ParallelBfs.distances(getIndexedGraph(), getReverseIndexedGraph(), startId, pool, parallelThreshold);
+	}
+
+	/** 
+	 * <P>Computes the lowest cost path from "start" to every vertex of
+	 * the graph, as arrays of costs and parents indexed by vertex id.
+	 * Once the graph has as many vertices as the parallel threshold 
+	 * (see setParallelThreshold) the paths are found by delta-stepping 
+	 * on the common ForkJoinPool, and otherwise by Dijkstra's algorithm.</P>
+	 * 
+	 * <P>The observers are not notified.</P>
+	 * 
+	 * @param start vertex where the paths begin
+	 * @return the costs and parents of every vertex
+	 * @throws IllegalArgumentException if "start" is not in the graph
+	 */
+	public ShortestPathTree getShortestPathTree(V start) {
+		return getShortestPathTree(start, ForkJoinPool.commonPool());
+	}
+
+	/** 
+	 * <P>Like getShortestPathTree(start), but runs the parallel search
+	 * on the given pool.</P>
+	 * 
+	 * @param start vertex where the paths begin
+	 * @param pool the threads to search with
+	 * @return the costs and parents of every vertex
+	 * @throws IllegalArgumentException if "start" is not in the graph
+	 */
+	public ShortestPathTree getShortestPathTree(V start, ForkJoinPool pool) {
+		int startId = requireVertexId(start);
+		IndexedGraph graph = getIndexedGraph();
+		return DeltaStepping.shortestPaths(graph, startId, DeltaStepping.defaultDelta(graph.getMaxWeight()), 
+				pool, parallelThreshold);
+	}
+
+	/** 
+	 * <P>Finds a path from "start" to "end" with the given algorithm,
+	 * without notifying the observers, and returns it as a PathResult.
+	 * Dijkstra's algorithm stops as soon as "end" is finished.  A_STAR
+	 * uses the heuristic given to setHeuristic.</P>
+	 * 
+	 * <P>The search reuses working storage kept by the graph, so this 
+	 * method must not be called by several threads at once.</P>
+	 * 
+	 * @param algorithm the search to run
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 * @return the path found (empty if "end" cannot be reached), its
+	 * cost and the number of vertices visited
+	 * @throws IllegalArgumentException if either vertex is not
+	 * in the graph
+	 */
+	public PathResult<V> findPath(SearchAlgorithm algorithm, V start, V end) {
+		return findPath(algorithm, start, end, searchContext());
+	}
+
+	/** 
+	 * <P>Like findPath(algorithm, start, end), but the search runs in the
+	 * given context, so each thread can search with its own.</P>
+	 * 
+	 * @param algorithm the search to run
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 * @param context working storage for the search
+	 * @return the path found, its cost and the number of vertices visited
+	 * @throws IllegalArgumentException if either vertex is not
+	 * in the graph
+	 */
+	public PathResult<V> findPath(SearchAlgorithm algorithm, V start, V end, SearchContext context) {
+		search(algorithm, start, end, context);
+		return new PathResult<>(buildPath(context), context.getPathCost(), context.getVisitedCount());
+	}
+
+	/** 
+	 * <P>Finds a path from "start" to "end" with the given algorithm,
+	 * without notifying the observers.  The path is left in the 
+	 * context as vertex ids (see getVertex), together with its cost and
+	 * the number of vertices visited.</P>
+	 * 
+	 * <P>Once the context has grown to the size of the graph, this
+	 * method allocates nothing, which makes it the one to use when
+	 * running many queries.</P>
+	 * 
+	 * @param algorithm the search to run
+	 * @param start vertex where the path begins
+	 * @param end vertex where the path ends
+	 * @param context working storage for the search, which also 
+	 * receives the result
+	 * @return true if "end" was reached
+	 * @throws IllegalArgumentException if either vertex is not
+	 * in the graph
+	 */
+	public boolean search(SearchAlgorithm algorithm, V start, V end, SearchContext context) {
+		return runSearch(algorithm, requireVertexId(start), requireVertexId(end), heuristic, 
+				context, null);
+	}
+
+	/* Runs one of the searches on vertex ids, leaving the path in context */
+	private boolean runSearch(SearchAlgorithm algorithm, int startId, int endId, Heuristic<V> heuristic,
+			SearchContext context, SearchListener listener) {
+		boolean bidirectional = algorithm == SearchAlgorithm.BIDIRECTIONAL_BFS 
+				|| algorithm == SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA;
+		return IndexedSearch.run(algorithm, getIndexedGraph(), bidirectional ? getReverseIndexedGraph() : null, 
+				startId, endId, algorithm == SearchAlgorithm.A_STAR ? estimateToGoal(heuristic, endId) : null,
+				dijkstraQueue, context, listener);
+	}
+
+	/** Adapts a heuristic to vertex ids for the A* search: the
+	 * operator returned maps the id of a vertex to the heuristic's
+	 * estimate of the cost from that vertex to the goal.  Subclasses
+	 * that can compute the estimate straight from an id may override
+	 * this to save looking up (or creating) the vertex.
+	 * 
+	 * @param heuristic the heuristic to adapt
+	 * @param goalId id of the goal vertex
+	 * @return the estimate for each vertex id
+	 */
+	protected IntUnaryOperator estimateToGoal(Heuristic<V> heuristic, int goalId) {
+		V goal = getVertex(goalId);
+		return id -> heuristic.estimate(getVertex(id), goal);
+	}
+
+	/* The context used by the Do... methods and findPath, created on first use */
+	private SearchContext searchContext() {
+		if(searchContext == null) {
+			searchContext = new SearchContext();
+		}
+		return searchContext;
+	}
+
+	/* Tells the batch observers that a search has begun, and picks the
+	 * listener for it: none at all if nobody is watching, so the search
+	 * runs exactly as fast as a headless one */
+	private SearchListener beginSearch(SearchAlgorithm algorithm) {
+		for(BatchAlgorithmObserver observer : batchObserverList) {
+			observer.notifySearchHasBegun(algorithm);
 		}
+		if(batchingListener == null) {
+			return observerList.isEmpty() ? null : observerBridge;
+		}
+		return observerList.isEmpty() ? batchingListener : bothListeners;
+	}
 
+	/* Delivers the last batches and the path found to the batch observers */
+	private void endSearch() {
+		if(batchingListener != null) {
+			batchingListener.flush();
+			for(BatchAlgorithmObserver observer : batchObserverList) {
+				observer.notifySearchIsOver(searchContext.path, searchContext.pathLength);
+			}
+		}
+	}
 
+	/* Turns the path left in the context by the last search into a
+	 * list of vertices.  The list is empty if end was not reached. */
+	private LinkedList<V> buildPath(SearchContext context) {
+		LinkedList<V> lowestPath = new LinkedList<>();
+		for(int i = 0; i < context.getPathLength(); i++) {
+			lowestPath.add(getVertex(context.getPathVertex(i)));
+		}
+		return lowestPath;
 	}
+
+	/* Forwards the progress of the id-based searches to the observers */
+	private final SearchListener observerBridge = new SearchListener() {
+		@Override
+		public void visit(int vertex, int parent, int depth) {
+			V vertexBeingVisited = getVertex(vertex);
+			V parentVertex = parent == -1 ? null : getVertex(parent);
+			for(int i = 0; i < observerList.size(); i++) { // indexed, so no iterator is created per vertex
+				observerList.get(i).notifyVisit(vertexBeingVisited, parentVertex, depth); // notify each observer in the observerList that we are visiting the vertex
+			}
+		}
+
+		@Override
+		public void finished(int vertex, int cost) {
+			V vertexAddedToFinishedSet = getVertex(vertex);
+			Integer costOfPath = cost; // boxed once, however many observers there are
+			for(int i = 0; i < observerList.size(); i++) {
+				observerList.get(i).notifyDijkstraVertexFinished(vertexAddedToFinishedSet, costOfPath);
+				//notify each observer in the observerList that we have added a vertex to the finished and also it's corresponding optimal cost
+			}
+		}
+
+		@Override
+		public void frontier(int vertex) {
+			V vertexOnFrontier = getVertex(vertex);
+			for(int i = 0; i < observerList.size(); i++) {
+				observerList.get(i).notifyAStarVisit(vertexOnFrontier, false);
+			}
+		}
+
+		@Override
+		public void expanded(int vertex) {
+			V vertexBeingVisited = getVertex(vertex);
+			for(int i = 0; i < observerList.size(); i++) {
+				observerList.get(i).notifyAStarVisit(vertexBeingVisited, true);
+			}
+		}
+	};
+	/* Used when there are observers of both kinds */
+	private final SearchListener bothListeners = new SearchListener() {
+		@Override
+		public void visit(int vertex, int parent, int depth) {
+			observerBridge.visit(vertex, parent, depth);
+			batchingListener.visit(vertex, parent, depth);
+		}
+
+		@Override
+		public void finished(int vertex, int cost) {
+			observerBridge.finished(vertex, cost);
+			batchingListener.finished(vertex, cost);
+		}
+
+		@Override
+		public void frontier(int vertex) {
+			observerBridge.frontier(vertex);
+			batchingListener.frontier(vertex);
+		}
+
+		@Override
+		public void expanded(int vertex) {
+			observerBridge.expanded(vertex);
+			batchingListener.expanded(vertex);
+		}
+	};
 }
@@ -0,0 +1,31 @@
+package maze;
+
+/**
+ * Helpers for bitsets packed into long arrays, 64 flags per long.
+ * The maze generators keep their walls or passages this way while
+ * they carve: one bit per wall segment instead of one boolean (a
+ * whole byte) per segment.  (The Maze itself keeps them in a
+ * PackedGrid.)
+ */
+final class Bits {
+
+	private Bits() {
+	}
+
+	/** @return an array with room for n bits, all clear */
+	static long[] create(int n) {
+		return new long[(n + 63) >>> 6];
+	}
+
+	static boolean get(long[] bits, int i) {
+		return (bits[i >>> 6] & (1L << i)) != 0;
+	}
+
+	static void set(long[] bits, int i) {
+		bits[i >>> 6] |= 1L << i;
+	}
+
+	static void clear(long[] bits, int i) {
+		bits[i >>> 6] &= ~(1L << i);
+	}
+}
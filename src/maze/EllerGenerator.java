@@ -0,0 +1,112 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * <P>Eller's algorithm, which builds the maze one row at a time and
+ * only ever remembers the current row.  Each juncture of the row 
+ * belongs to a set: the junctures that are already connected through
+ * the rows above.  Adjacent junctures of different sets are joined at
+ * random (merging their sets), then each set sends at least one 
+ * passage down into the next row, so no set is ever cut off.  In the
+ * last row every pair of adjacent junctures in different sets is 
+ * joined, which connects the whole maze without creating a loop.</P>
+ * 
+ * <P>The sets of a row are a small union-find structure over labels 
+ * 0 .. width - 1, relabelled at the start of each row, so the memory
+ * used is proportional to the width of the maze and the time to its
+ * area.</P>
+ */
+final class EllerGenerator implements MazeGenerator {
+
+	@Override
+	public void generate(int mazeWidth, int mazeHeight, Random random, Consumer<MazeRow> rows) {
+		int width = mazeWidth;
+		int[] set = new int[width];      // set label of each juncture in the row, -1 for none yet
+		int[] parent = new int[width];   // union-find over the labels
+		int[] relabel = new int[width];  // new label of each old root
+		int[] seen = new int[width];     // per set: junctures counted so far, and
+		int[] chosen = new int[width];   // the juncture picked to go down if no other does
+		boolean[] hasDown = new boolean[width];
+		boolean[] down = new boolean[width];
+		MazeRow row = new MazeRow(mazeWidth, mazeHeight);
+		Arrays.fill(set, -1);
+
+		for (int y = 0; y < mazeHeight; y++) {
+			boolean lastRow = y == mazeHeight - 1;
+
+			/* Relabel the sets carried down from the row above as 0, 1, ..., and
+			 * give every juncture that no passage reached a set of its own */
+			Arrays.fill(relabel, -1);
+			int labels = 0;
+			for (int x = 0; x < width; x++) {
+				if (set[x] >= 0) {
+					int root = find(parent, set[x]);
+					if (relabel[root] < 0) {
+						relabel[root] = labels++;
+					}
+					set[x] = relabel[root];
+				}
+			}
+			for (int x = 0; x < width; x++) {
+				if (set[x] < 0) {
+					set[x] = labels++;
+				}
+			}
+			for (int i = 0; i < labels; i++) {
+				parent[i] = i;
+			}
+
+			/* Join adjacent junctures of different sets (all of them in the last row) */
+			row.reset(y);
+			for (int x = 0; x < width - 1; x++) {
+				int a = find(parent, set[x]);
+				int b = find(parent, set[x + 1]);
+				if (a != b && (lastRow || random.nextBoolean())) {
+					parent[a] = b;
+					row.removeWallToRight(x);
+				}
+			}
+
+			if (!lastRow) {
+				/* Each juncture goes down with probability 1/2; each set also picks
+				 * one of its junctures at random to go down in case none of them does */
+				for (int x = 0; x < width; x++) {
+					int root = find(parent, set[x]);
+					set[x] = root;
+					if (seen[root] == 0) {
+						hasDown[root] = false;
+					}
+					seen[root]++;
+					if (random.nextInt(seen[root]) == 0) {
+						chosen[root] = x;
+					}
+					down[x] = random.nextBoolean();
+					if (down[x]) {
+						hasDown[root] = true;
+					}
+				}
+				for (int x = 0; x < width; x++) {
+					int root = set[x];
+					seen[root] = 0;
+					if (down[x] || (!hasDown[root] && chosen[root] == x)) {
+						row.removeWallBelow(x);
+					} else {
+						set[x] = -1;
+					}
+				}
+			}
+			rows.accept(row);
+		}
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+}
@@ -0,0 +1,81 @@
+package maze;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * <P>Base class for the generators that carve passages between 
+ * junctures on the whole grid before producing any rows.  Juncture 
+ * (x, y) is numbered y * width + x, and the passages are kept in two
+ * bitsets (to the right of each juncture, and below it).</P>
+ */
+abstract class GridMazeGenerator implements MazeGenerator {
+
+	protected int width, height;
+	private long[] passageToRight;
+	private long[] passageBelow;
+
+	@Override
+	public final void generate(int mazeWidth, int mazeHeight, Random random, Consumer<MazeRow> rows) {
+		width = mazeWidth;
+		height = mazeHeight;
+		passageToRight = Bits.create(width * height);
+		passageBelow = Bits.create(width * height);
+		carve(random);
+		MazeRow row = new MazeRow(width, height);
+		for (int y = 0; y < height; y++) {
+			row.reset(y);
+			for (int x = 0; x < width; x++) {
+				if (Bits.get(passageToRight, y * width + x)) {
+					row.removeWallToRight(x);
+				}
+				if (Bits.get(passageBelow, y * width + x)) {
+					row.removeWallBelow(x);
+				}
+			}
+			rows.accept(row);
+		}
+		passageToRight = passageBelow = null;
+	}
+
+	/** Carves the passages of a perfect maze by calling connect.
+	 * @param random source of all random choices
+	 */
+	protected abstract void carve(Random random);
+
+	/** Opens the passage between two adjacent junctures.  (The
+	 * vertical cases come first: in a maze one juncture wide, the 
+	 * juncture below is also juncture + 1.) */
+	protected final void connect(int juncture, int neighbor) {
+		if (neighbor == juncture + width) {
+			Bits.set(passageBelow, juncture);
+		} else if (neighbor == juncture - width) {
+			Bits.set(passageBelow, neighbor);
+		} else if (neighbor == juncture + 1) {
+			Bits.set(passageToRight, juncture);
+		} else {
+			Bits.set(passageToRight, neighbor);
+		}
+	}
+
+	/** Stores the neighbors of a juncture in the array.
+	 * @return number of neighbors (2 to 4, fewer on a one-juncture wide maze)
+	 */
+	protected final int neighbors(int juncture, int[] result) {
+		int x = juncture % width;
+		int count = 0;
+		if (x < width - 1) {
+			result[count++] = juncture + 1;
+		}
+		if (x > 0) {
+			result[count++] = juncture - 1;
+		}
+		if (juncture >= width) {
+			result[count++] = juncture - width;
+		}
+		if (juncture + width < width * height) {
+			result[count++] = juncture + width;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,65 @@
+package maze;
+
+import java.util.Random;
+
+/**
+ * <P>Randomized Kruskal's algorithm.  Every possible passage (between
+ * a juncture and the one to its right or below) is considered once, in
+ * random order, and opened unless the two junctures are already
+ * connected.  Connectivity is tracked with a union-find structure 
+ * (union by size, path halving), so the whole maze takes nearly linear
+ * time.</P>
+ */
+final class KruskalGenerator extends GridMazeGenerator {
+
+	@Override
+	protected void carve(Random random) {
+		int n = width * height;
+		int[] parent = new int[n];
+		int[] size = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+			size[i] = 1;
+		}
+		/* Passage 2 * j leads right from juncture j, 2 * j + 1 leads down */
+		int[] passages = new int[2 * n];
+		int count = 0;
+		for (int j = 0; j < n; j++) {
+			if (j % width < width - 1) {
+				passages[count++] = 2 * j;
+			}
+			if (j + width < n) {
+				passages[count++] = 2 * j + 1;
+			}
+		}
+		int joined = 0;
+		for (int i = 0; i < count && joined < n - 1; i++) {
+			int k = i + random.nextInt(count - i); // Fisher-Yates, one step at a time
+			int passage = passages[k];
+			passages[k] = passages[i];
+			int from = passage >>> 1;
+			int to = (passage & 1) == 0 ? from + 1 : from + width;
+			int a = find(parent, from);
+			int b = find(parent, to);
+			if (a != b) {
+				if (size[a] < size[b]) {
+					int t = a;
+					a = b;
+					b = t;
+				}
+				parent[b] = a;
+				size[a] += size[b];
+				connect(from, to);
+				joined++;
+			}
+		}
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+}
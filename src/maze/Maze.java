@@ -1,8 +1,20 @@
 package maze;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * <P>This class represents a randomly generated Maze, 
@@ -23,13 +35,20 @@ import java.util.Random;
  */
 public class Maze {
 
-	private static Random random = new Random();
+	/* Side of the square tiles generated in parallel, in junctures (a
+	 * multiple of 32, so that tiles never share a long of the packed walls) */
+	static final int TILE_SIZE = 512;
+
+	/* First bytes of a maze file, and the version of the format */
+	private static final int FILE_MAGIC = 0x455A414D; // "MAZE", little-endian
+	private static final int FILE_VERSION = 1;
+	private static final int FILE_HEADER_BYTES = 32;
+
 	private int width, height;  // wall dimensions, not junctures
-	private int[][] wallIndex;
-	private boolean[][] wallToRight;
-	private boolean[][] wallDown;
-	private int [][] horizontalWeights;
-	private int [][] verticalWeights;
+	/* The walls to the right of and below each juncture, and the weights
+	 * of those two passages: 2 bits and 1 byte per juncture */
+	private PackedGrid grid;
+	private int maxWeight;
 	
 	/**
 	 * Construct random maze.
@@ -41,7 +60,7 @@ public class Maze {
 	 * more paths between junctures.
 	 */
 	public Maze(int mazeHeight, int mazeWidth, int sparcity) {
-		this(mazeHeight, mazeWidth, sparcity, random.nextLong());
+		this(mazeHeight, mazeWidth, sparcity, ThreadLocalRandom.current().nextLong());
 	}
 	
 	/**
@@ -54,149 +73,353 @@ public class Maze {
 	 * @param randomSeed
 	 */
 	public Maze(int mazeHeight, int mazeWidth, int sparcity, long randomSeed) {
-		random = new Random(randomSeed);
-		width = mazeWidth + 1;
-		height = mazeHeight + 1;
-		int currWall = 1;
-		horizontalWeights = new int[height - 2][width - 1];
-		verticalWeights = new int[height - 1][width - 2];
-		for (int i = 0; i < height - 2; i++) {
-			for (int j = 0; j < width - 1; j++) {
-				horizontalWeights[i][j] = random.nextInt(9) + 1;
+		this(mazeHeight, mazeWidth, sparcity, randomSeed, MazeGenerator.wallGrowth());
+	}
+
+	/**
+	 * This constructor also chooses the algorithm that draws the walls
+	 * (see MazeGenerator).
+	 * 
+	 * @param mazeHeight
+	 * @param mazeWidth
+	 * @param sparcity
+	 * @param randomSeed
+	 * @param generator
+	 */
+	public Maze(int mazeHeight, int mazeWidth, int sparcity, long randomSeed, MazeGenerator generator) {
+		this(mazeHeight, mazeWidth);
+		generateRows(mazeHeight, mazeWidth, sparcity, randomSeed, generator, 
+				row -> maxWeight = Math.max(maxWeight, addRow(row, 0, 0)));
+		addOuterWalls();
+	}
+
+	/**
+	 * <P>This constructor generates the maze in parallel, on the given
+	 * number of threads.  The maze is split into square tiles (of 
+	 * TILE_SIZE junctures a side), and each tile is generated on its own
+	 * by a generator from the supplier, with its own random stream split
+	 * off the seed (see SplittableRandom).  The tiles are then stitched 
+	 * together: each is joined to its neighbors by a random spanning 
+	 * tree of single openings in the walls between tiles, so there is 
+	 * still exactly one path between any two junctures before sparcity
+	 * removes walls.</P>
+	 * 
+	 * <P>The maze depends only on the seed, never on the number of 
+	 * threads or on the order in which the tiles happen to be finished.
+	 * It differs from the maze the other constructors build from the
+	 * same seed, and the walls between tiles are straighter than the 
+	 * rest.</P>
+	 * 
+	 * @param mazeHeight
+	 * @param mazeWidth
+	 * @param sparcity
+	 * @param randomSeed
+	 * @param generators supplies a generator for each tile (for 
+	 * example MazeGenerator::wallGrowth)
+	 * @param parallelism number of threads to use
+	 */
+	public Maze(int mazeHeight, int mazeWidth, int sparcity, long randomSeed, 
+			Supplier<MazeGenerator> generators, int parallelism) {
+		this(mazeHeight, mazeWidth);
+		int tilesAcross = (mazeWidth + TILE_SIZE - 1) / TILE_SIZE;
+		int tilesDown = (mazeHeight + TILE_SIZE - 1) / TILE_SIZE;
+		int tileCount = tilesAcross * tilesDown;
+
+		/* The streams are split off in a fixed order, before any tile runs */
+		SplittableRandom seeds = new SplittableRandom(randomSeed);
+		SplittableRandom[] tileRandoms = new SplittableRandom[tileCount];
+		for (int t = 0; t < tileCount; t++) {
+			tileRandoms[t] = seeds.split();
+		}
+		int[] tileMaxWeight = new int[tileCount];
+		double removal = 1 - Math.exp(-sparcity / 100.0);
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.invoke(new RecursiveAction() {
+				@Override
+				protected void compute() {
+					List<RecursiveAction> tiles = new ArrayList<>(tileCount);
+					for (int t = 0; t < tileCount; t++) {
+						int tile = t;
+						tiles.add(new RecursiveAction() {
+							@Override
+							protected void compute() {
+								int x0 = tile % tilesAcross * TILE_SIZE;
+								int y0 = tile / tilesAcross * TILE_SIZE;
+								Random random = new SplittableRandomAdapter(tileRandoms[tile]);
+								generators.get().generate(Math.min(TILE_SIZE, mazeWidth - x0), 
+										Math.min(TILE_SIZE, mazeHeight - y0), random, row -> {
+									finishRow(row, removal, random);
+									tileMaxWeight[tile] = Math.max(tileMaxWeight[tile], addRow(row, x0, y0));
+								});
+							}
+						});
+					}
+					invokeAll(tiles);
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		for (int max : tileMaxWeight) {
+			maxWeight = Math.max(maxWeight, max);
+		}
+		addOuterWalls();
+		stitchTiles(tilesAcross, tilesDown, removal, new SplittableRandomAdapter(seeds.split()));
+	}
+
+	/* Allocates an empty maze (no walls, no weights) of the given size */
+	private Maze(int mazeHeight, int mazeWidth) {
+		this(mazeHeight, mazeWidth, PackedGrid.allocate(mazeWidth, mazeHeight), 0);
+	}
+
+	private Maze(int mazeHeight, int mazeWidth, PackedGrid grid, int maxWeight) {
+		this.width = mazeWidth + 1;
+		this.height = mazeHeight + 1;
+		this.grid = grid;
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * <P>Saves this maze to a file, in a binary format that load can map
+	 * straight into memory: a 32 byte header (the text "MAZE", a format
+	 * version, the width, height and largest weight), then the packed
+	 * walls and weights of every juncture, little-endian.</P>
+	 * 
+	 * @param file where to save the maze (replaced if it exists)
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(getMazeWidth()).putInt(getMazeHeight())
+					.putInt(maxWeight);
+			header.clear();
+			while (header.hasRemaining()) {
+				channel.write(header);
 			}
+			grid.writeTo(channel);
 		}
-		for (int i = 0; i < height - 1; i++) {
-			for (int j = 0; j < width - 2; j++) {
-				verticalWeights[i][j] = random.nextInt(9) + 1;
+	}
 
+	/**
+	 * <P>Loads a maze saved by save.  The file is memory-mapped 
+	 * read-only rather than read, so even a huge maze loads at once (its
+	 * pages are read in by the operating system as they are used), and
+	 * processes that load the same file share one copy of it in memory.
+	 * The file must not be changed while the maze is in use.</P>
+	 * 
+	 * @param file a file written by save
+	 * @return the maze
+	 * @throws IOException if the file cannot be read, or is not a
+	 * maze file
+	 */
+	public static Maze load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+			}
+			header.flip();
+			if (header.remaining() < FILE_HEADER_BYTES || header.getInt() != FILE_MAGIC) {
+				throw new IOException("Not a maze file: " + file);
+			}
+			int version = header.getInt();
+			if (version != FILE_VERSION) {
+				throw new IOException("Unsupported maze file version " + version + ": " + file);
 			}
+			int mazeWidth = header.getInt();
+			int mazeHeight = header.getInt();
+			int maxWeight = header.getInt();
+			if (mazeWidth < 1 || mazeHeight < 1) {
+				throw new IOException("Corrupt maze file: " + file);
+			}
+			if (channel.size() < FILE_HEADER_BYTES + PackedGrid.byteSize(mazeWidth, mazeHeight)) {
+				throw new IOException("Truncated maze file: " + file); // mapping past the end would fail
+			}
+			PackedGrid grid = PackedGrid.map(channel, FILE_HEADER_BYTES, mazeWidth, mazeHeight);
+			return new Maze(mazeHeight, mazeWidth, grid, maxWeight); // the mapping outlives the channel
 		}
-		wallIndex = new int[height][width];
-		for (int i = 0; i < width; i++) {
-			wallIndex[0][i] = currWall;
-			wallIndex[height - 1][i] = currWall;
+	}
+
+	/**
+	 * <P>Generates a maze one row at a time without storing it: the
+	 * rows (walls and weights) are handed to the consumer from the top
+	 * down, and each is only valid until the next one arrives.  With
+	 * MazeGenerator.eller() the memory used is proportional to the width
+	 * of the maze, however tall it is.</P>
+	 * 
+	 * <P>The generator draws a maze with exactly one path between any two
+	 * junctures.  Then, if sparcity is above 0, each interior wall is
+	 * removed with probability 1 - e^(-sparcity / 100) (about 39% of them
+	 * for sparcity 50, 63% for sparcity 100), and finally the weights
+	 * are picked (from 1 to 9).  The same seed and generator always give
+	 * the same rows, and the Maze constructor with the same arguments
+	 * builds exactly this maze.</P>
+	 * 
+	 * @param mazeHeight
+	 * @param mazeWidth
+	 * @param sparcity
+	 * @param randomSeed
+	 * @param generator algorithm that draws the walls
+	 * @param rows receives each row in turn
+	 */
+	public static void generateRows(int mazeHeight, int mazeWidth, int sparcity, long randomSeed,
+			MazeGenerator generator, Consumer<MazeRow> rows) {
+		Random random = new Random(randomSeed);
+		double removal = 1 - Math.exp(-sparcity / 100.0);
+		generator.generate(mazeWidth, mazeHeight, random, row -> {
+			finishRow(row, removal, random);
+			rows.accept(row);
+		});
+	}
+
+	/* Removes each wall inside the row with the given probability, then
+	 * picks the weights of the row */
+	private static void finishRow(MazeRow row, double removal, Random random) {
+		int rowWidth = row.getWidth();
+		if (removal > 0) {
+			for (int x = 0; x < rowWidth; x++) {
+				if (x < rowWidth - 1 && row.isWallToRight(x) && random.nextDouble() < removal) {
+					row.removeWallToRight(x);
+				}
+				if (!row.isLastRow() && row.isWallBelow(x) && random.nextDouble() < removal) {
+					row.removeWallBelow(x);
+				}
+			}
+		}
+		for (int x = 0; x < rowWidth; x++) {
+			row.setWeightToRight(x, random.nextInt(9) + 1);
+			row.setWeightBelow(x, random.nextInt(9) + 1);
 		}
-		for (int i = 0; i < height; i++) {
-			wallIndex[i][0] = currWall;
-			wallIndex[i][width - 1] = currWall;
+	}
+
+	/* Copies a row generated for the block of junctures whose top left
+	 * corner is (x0, y0) into the walls and weights of this maze, and 
+	 * returns its largest weight.  Only the walls inside the block are
+	 * copied: the walls around the block are shared with its neighbors
+	 * (or are the outside wall), and are drawn separately. */
+	private int addRow(MazeRow row, int x0, int y0) {
+		int y = y0 + row.getY();
+		int rowWidth = row.getWidth();
+		int max = 0;
+		for (int i = 0; i < rowWidth; i++) {
+			int x = x0 + i;
+			if (i < rowWidth - 1 && row.isWallToRight(i)) {
+				grid.setWallToRight(x, y, true);
+			}
+			if (!row.isLastRow() && row.isWallBelow(i)) {
+				grid.setWallBelow(x, y, true);
+			}
+			int weightToRight = x < width - 2 ? row.getWeightToRight(i) : 0;
+			int weightBelow = y < height - 2 ? row.getWeightBelow(i) : 0;
+			grid.setWeights(x, y, weightToRight, weightBelow);
+			max = Math.max(max, Math.max(weightToRight, weightBelow));
 		}
-		wallToRight = new boolean[height][width];
-		wallDown = new boolean[height][width];
-		for (int i = 0; i < width - 1; i++) {
-			wallToRight[0][i] = true;
-			wallToRight[height - 1][i] = true;
+		return max;
+	}
+
+	/* Draws the wall surrounding the entire grid (the walls above the
+	 * top row and to the left of the first column are implied) */
+	private void addOuterWalls() {
+		for (int x = 0; x < width - 1; x++) {
+			grid.setWallBelow(x, height - 2, true);
 		}
-		for (int i = 0; i < height - 1; i++) {
-			wallDown[i][0] = true;
-			wallDown[i][width - 1] = true;
+		for (int y = 0; y < height - 1; y++) {
+			grid.setWallToRight(width - 2, y, true);
 		}
+	}
 
-		/* Draw the interior walls */
-		ArrayList<Juncture> points = new ArrayList<>();
-		for (int x = 1; x < width; x++) {
-			for (int y = 1; y < height; y++) {
-				points.add(new Juncture(x, y));
+	/* Draws the walls between the tiles of a maze generated in parallel,
+	 * opens one passage through the wall between each pair of tiles 
+	 * joined by a random spanning tree of the tiles (Kruskal's algorithm
+	 * on the small grid of tiles), and then applies the sparcity to the
+	 * walls between tiles like to any other wall */
+	private void stitchTiles(int tilesAcross, int tilesDown, double removal, Random random) {
+		int mazeWidth = width - 1, mazeHeight = height - 1;
+		for (int k = 1; k < tilesAcross; k++) {
+			for (int y = 0; y < mazeHeight; y++) {
+				grid.setWallToRight(k * TILE_SIZE - 1, y, true);
 			}
 		}
-		Collections.shuffle(points);
-		
-		while (points.size() > 0) {
-			Juncture p = points.remove(0);
-			int row = p.getY();
-			int col = p.getX();
-			if (wallIndex[row][col] == 0) {
-				currWall++;
-				wallIndex[row][col] = currWall;
-				drawFrom(row, col, currWall);
+		for (int k = 1; k < tilesDown; k++) {
+			for (int x = 0; x < mazeWidth; x++) {
+				grid.setWallBelow(x, k * TILE_SIZE - 1, true);
 			}
 		}
-		
-		/* Remove some walls if sparcity is > 0 */
-		if (sparcity > 0) {
-			for (int i = 0; i < width * height * sparcity/50.0; i++) {
-				int r = random.nextInt(height - 2) + 1;
-				int c = random.nextInt(width - 2) + 1;
-				if (random.nextBoolean() == false) {
-					wallDown[r][c] = false;
-				} else {
-					wallToRight[r][c] = false;
-				}
+
+		/* Joint 2 * t is between tile t and the one to its right, 2 * t + 1
+		 * between tile t and the one below */
+		int tileCount = tilesAcross * tilesDown;
+		int[] joints = new int[2 * tileCount];
+		int count = 0;
+		for (int t = 0; t < tileCount; t++) {
+			if (t % tilesAcross < tilesAcross - 1) {
+				joints[count++] = 2 * t;
+			}
+			if (t + tilesAcross < tileCount) {
+				joints[count++] = 2 * t + 1;
 			}
 		}
-	}
-	
-	private void drawFrom(int row, int col, int currWall) {
-		if (possibleToExtend(row, col, currWall)) {
-			while(true) {
-				int directionToTry = random.nextInt(4);
-				if (directionToTry == 0) {  // to right
-					int wallFound = wallIndex[row][col + 1];
-					if (wallFound != currWall) {
-						wallIndex[row][col + 1] = currWall;
-						wallToRight[row][col] = true;
-						if (wallFound == 0) {
-							drawFrom(row, col + 1, currWall);
-						}
-						return;
-					}
-				} else if (directionToTry == 1) {  // to left
-					int wallFound = wallIndex[row][col - 1];
-					if (wallFound != currWall) {
-						wallIndex[row][col - 1] = currWall;
-						wallToRight[row][col - 1] = true;
-						if (wallFound == 0) {
-							drawFrom(row, col - 1, currWall);
-						}
-						return;
-					}
-				} else if (directionToTry == 2) {  // up
-					int wallFound = wallIndex[row - 1][col];
-					if (wallFound != currWall) {
-						wallIndex[row - 1][col] = currWall;
-						wallDown[row - 1][col] = true;
-						if (wallFound == 0) {
-							drawFrom(row - 1, col, currWall);
-						}
-						return;
-					}
-				} else {  //down
-					int wallFound = wallIndex[row + 1][col];
-					if (wallFound != currWall) {
-						wallIndex[row + 1][col] = currWall;
-						wallDown[row][col] = true;
-						if (wallFound == 0) {
-							drawFrom(row + 1, col, currWall);
-						}
-						return;
+		int[] parent = new int[tileCount];
+		for (int t = 0; t < tileCount; t++) {
+			parent[t] = t;
+		}
+		for (int i = 0; i < count; i++) {
+			int k = i + random.nextInt(count - i);
+			int joint = joints[k];
+			joints[k] = joints[i];
+			int from = joint >>> 1;
+			int to = (joint & 1) == 0 ? from + 1 : from + tilesAcross;
+			int a = find(parent, from), b = find(parent, to);
+			if (a == b) {
+				continue;
+			}
+			parent[a] = b;
+			int x0 = from % tilesAcross * TILE_SIZE;
+			int y0 = from / tilesAcross * TILE_SIZE;
+			if ((joint & 1) == 0) { // an opening somewhere down the wall to the right of the tile
+				int y = y0 + random.nextInt(Math.min(TILE_SIZE, mazeHeight - y0));
+				grid.setWallToRight(x0 + TILE_SIZE - 1, y, false);
+			} else { // an opening somewhere along the wall below the tile
+				int x = x0 + random.nextInt(Math.min(TILE_SIZE, mazeWidth - x0));
+				grid.setWallBelow(x, y0 + TILE_SIZE - 1, false);
+			}
+		}
+
+		if (removal > 0) {
+			for (int k = 1; k < tilesAcross; k++) {
+				for (int y = 0; y < mazeHeight; y++) {
+					if (grid.isWallToRight(k * TILE_SIZE - 1, y) && random.nextDouble() < removal) {
+						grid.setWallToRight(k * TILE_SIZE - 1, y, false);
 					}
 				}
 			}
-		} else {  // no current extension possible
-			while(true) {
-				int r = random.nextInt(height);
-				int c = random.nextInt(width);
-				if (wallIndex[r][c] == currWall && possibleToExtend(r, c, currWall)) {
-					drawFrom(r, c, currWall);
-					return;
+			for (int k = 1; k < tilesDown; k++) {
+				for (int x = 0; x < mazeWidth; x++) {
+					if (grid.isWallBelow(x, k * TILE_SIZE - 1) && random.nextDouble() < removal) {
+						grid.setWallBelow(x, k * TILE_SIZE - 1, false);
+					}
 				}
 			}
 		}
 	}
-	
-	private boolean possibleToExtend(int row, int col, int currWall) {
-		if (wallIndex[row][col + 1] != currWall) {
-			return true;
-		}
-		if (wallIndex[row][col - 1] != currWall) {
-			return true;
-		}
-		if (wallIndex[row + 1][col] != currWall) {
-			return true;
-		}
-		if (wallIndex[row - 1][col] != currWall) {
-			return true;
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
 		}
-		return false;
+		return i;
+	}
+
+	/** Returns the largest weight between any two adjacent
+	 * junctures (at most 9).
+	 * @return the largest weight in the maze
+	 */
+	public int getMaxWeight() {
+		return maxWeight;
 	}
 
 	/** Returns the width of this maze.  (This is the width
@@ -221,7 +444,7 @@ public class Maze {
 	 * @return true if there is a wall above this juncture
 	 */
 	public boolean isWallAbove(Juncture juncture) {
-		return wallToRight[juncture.getY()][juncture.getX()];
+		return isWallAbove(juncture.getX(), juncture.getY());
 	}
 
 	/** Returns true if there is a wall below the given juncture,
@@ -230,7 +453,7 @@ public class Maze {
 	 * @return true if there is a wall below this juncture
 	 */
 	public boolean isWallBelow(Juncture juncture) {
-		return wallToRight[juncture.getY()+ 1][juncture.getX()];
+		return isWallBelow(juncture.getX(), juncture.getY());
 	}
 
 	/** Returns true if there is a wall to the left of the 
@@ -239,7 +462,7 @@ public class Maze {
 	 * @return true if there is a wall to the left of this juncture
 	 */
 	public boolean isWallToLeft(Juncture juncture) {
-		return wallDown[juncture.getY()][juncture.getX()];
+		return isWallToLeft(juncture.getX(), juncture.getY());
 	}
 
 	/** Returns true if there is a wall to the right of the 
@@ -248,7 +471,7 @@ public class Maze {
 	 * @return true if there is a wall to the right of this juncture
 	 */
 	public boolean isWallToRight(Juncture juncture) {
-		return wallDown[juncture.getY()][juncture.getX() + 1];
+		return isWallToRight(juncture.getX(), juncture.getY());
 	}
 
 	/** Returns the weight between this juncture and the one above.
@@ -257,7 +480,7 @@ public class Maze {
 	 * @return a positive integer
 	 */
 	public int getWeightAbove(Juncture juncture) {
-		return horizontalWeights[juncture.getY() - 1][juncture.getX()];
+		return getWeightAbove(juncture.getX(), juncture.getY());
 	}
 	
 	/** Returns the weight between this juncture and the one below.
@@ -266,7 +489,7 @@ public class Maze {
 	 * @return a positive integer
 	 */
 	public int getWeightBelow(Juncture juncture) {
-		return horizontalWeights[juncture.getY()][juncture.getX()];
+		return getWeightBelow(juncture.getX(), juncture.getY());
 	}
 
 	/** Returns the weight between this juncture and the one to its
@@ -276,7 +499,7 @@ public class Maze {
 	 * @return a positive integer
 	 */
 	public int getWeightToLeft(Juncture juncture) {
-		return verticalWeights[juncture.getY()][juncture.getX() - 1];
+		return getWeightToLeft(juncture.getX(), juncture.getY());
 	}
 	
 	/** Returns the weight between this juncture and the one to its
@@ -286,6 +509,88 @@ public class Maze {
 	 * @return a positive integer
 	 */
 	public int getWeightToRight(Juncture juncture) {
-		return	verticalWeights[juncture.getY()][juncture.getX()];
+		return getWeightToRight(juncture.getX(), juncture.getY());
+	}
+
+	/* The same queries by coordinates, so that code walking the
+	 * whole grid does not need to create a Juncture per cell.
+	 */
+
+	/** Returns true if there is a wall above the juncture at (x, y).
+	 * @param x
+	 * @param y
+	 * @return true if there is a wall above this juncture
+	 */
+	public boolean isWallAbove(int x, int y) {
+		return y == 0 || grid.isWallBelow(x, y - 1);
+	}
+
+	/** Returns true if there is a wall below the juncture at (x, y).
+	 * @param x
+	 * @param y
+	 * @return true if there is a wall below this juncture
+	 */
+	public boolean isWallBelow(int x, int y) {
+		return grid.isWallBelow(x, y);
+	}
+
+	/** Returns true if there is a wall to the left of the juncture 
+	 * at (x, y).
+	 * @param x
+	 * @param y
+	 * @return true if there is a wall to the left of this juncture
+	 */
+	public boolean isWallToLeft(int x, int y) {
+		return x == 0 || grid.isWallToRight(x - 1, y);
+	}
+
+	/** Returns true if there is a wall to the right of the juncture 
+	 * at (x, y).
+	 * @param x
+	 * @param y
+	 * @return true if there is a wall to the right of this juncture
+	 */
+	public boolean isWallToRight(int x, int y) {
+		return grid.isWallToRight(x, y);
+	}
+
+	/** Returns the weight between the juncture at (x, y) and the 
+	 * one above.
+	 * @param x
+	 * @param y
+	 * @return a positive integer
+	 */
+	public int getWeightAbove(int x, int y) {
+		return grid.getWeightBelow(x, y - 1);
+	}
+
+	/** Returns the weight between the juncture at (x, y) and the 
+	 * one below.
+	 * @param x
+	 * @param y
+	 * @return a positive integer
+	 */
+	public int getWeightBelow(int x, int y) {
+		return grid.getWeightBelow(x, y);
+	}
+
+	/** Returns the weight between the juncture at (x, y) and the 
+	 * one to its left.
+	 * @param x
+	 * @param y
+	 * @return a positive integer
+	 */
+	public int getWeightToLeft(int x, int y) {
+		return grid.getWeightToRight(x - 1, y);
+	}
+
+	/** Returns the weight between the juncture at (x, y) and the 
+	 * one to its right.
+	 * @param x
+	 * @param y
+	 * @return a positive integer
+	 */
+	public int getWeightToRight(int x, int y) {
+		return grid.getWeightToRight(x, y);
 	}
 }
@@ -1,18 +1,14 @@
 package maze;
 
-import java.awt.BasicStroke;
 import java.awt.BorderLayout;
 import java.awt.Color;
-import java.awt.Font;
-import java.awt.Graphics;
-import java.awt.Graphics2D;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
 import java.text.NumberFormat;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Stack;
 import javax.swing.JButton;
@@ -21,8 +17,13 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
+import javax.swing.JToggleButton;
 import javax.swing.JCheckBox;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.WindowConstants;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import graph.GraphAlgorithmObserver;
 import graph.MazeGraph;
@@ -34,6 +35,12 @@ import graph.MazeGraph;
  * can perform various algorithms (DFS, BFS, and 
  * Dijsktra.)</P>
  * 
+ * <P>A search runs at full speed on a thread of its own, recording 
+ * the colors it gives the squares (see SearchRecording), and a Swing
+ * Timer plays the recording back on the event dispatch thread at the
+ * speed of the slider.  Playback can be paused, scrubbed back and 
+ * forth, or skipped to the end.</P>
+ * 
  * @author Fawzi Emad (C) 2020
  */
 public class MazeGUI {
@@ -45,7 +52,7 @@ public class MazeGUI {
 	private JPanel contentPane;
 	private JFrame window;
 	private JPanel controlsPanel;
-	private JPanel mazePanel;
+	private MazePanel mazePanel;
 
 	/* Widgets */
 	private JButton drawButton;
@@ -54,21 +61,31 @@ public class MazeGUI {
 	private JButton DFSButton;
 	private JButton BFSButton;
 	private JButton DijkstraButton;
+	private JButton AStarButton;
 	private JSlider speedSlider;
 	private JSlider densitySlider;
 	private JCheckBox showWeights;
+	private JSlider replaySlider;
+	private JToggleButton pauseButton;
+	private JButton skipButton;
 
 	/* GUI style */
-	private final Color WALL_COLOR = Color.BLACK;
-	private static int STROKE_WIDTH;
 	private final Color[] squareColors  = {Color.GRAY, Color.RED, Color.GREEN, Color.BLUE, Color.PINK, 
 			Color.YELLOW, Color.CYAN, Color.MAGENTA, Color.ORANGE, Color.WHITE, Color.BLACK};
 	
-	/* Used during searches */
-	private int[][] colorIndex;
-	private Collection<Juncture> coloredJunctures;
+	/* Used during searches (by the search thread) */
+	private int[][] searchColors;
+	private Stack<Juncture> dfsPath;
 	private boolean isDFS;
 
+	/* Playback of the last search (on the event dispatch thread) */
+	private static final int FRAME_MS = 16;
+	private int[][] colorIndex;
+	private SearchRecording recording;
+	private int replayPosition;
+	private Timer replayTimer;
+	private boolean updatingReplaySlider;
+
 	/** Creates and displays the GUI; constructs 
 	 * a maze to start things off.
 	 */
@@ -82,6 +99,7 @@ public class MazeGUI {
 		heightLabel = new JLabel("Height");
 		drawButton = new JButton("New Maze");
 		DijkstraButton = new JButton("Dijkstra");
+		AStarButton = new JButton("A*");
 		densitySlider = new JSlider();
 		DFSButton = new JButton("DFS");
 		BFSButton = new JButton("BFS");
@@ -98,14 +116,24 @@ public class MazeGUI {
 		DijkstraButton.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent arg0) {
-				changeButtonStatus(false);
 				showWeights.setSelected(true);
-				Thread thread = new Thread(new Runnable() {
+				startSearch(new Runnable() {
 					public void run() {
 						theGraph.DoDijsktra(new Juncture(0,0), new Juncture(maze.getMazeWidth() - 1, maze.getMazeHeight() - 1));
 					}
 				});
-				thread.start();
+			}
+		});
+
+		AStarButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent arg0) {
+				showWeights.setSelected(true);
+				startSearch(new Runnable() {
+					public void run() {
+						theGraph.DoAStar(new Juncture(0,0), new Juncture(maze.getMazeWidth() - 1, maze.getMazeHeight() - 1));
+					}
+				});
 			}
 		});
 
@@ -113,43 +141,73 @@ public class MazeGUI {
 			@Override
 			public void actionPerformed(ActionEvent arg0) {
 				showWeights.setSelected(false);
-				changeButtonStatus(false);
-				Thread thread = new Thread(new Runnable() {
+				startSearch(new Runnable() {
 					@Override
 					public void run() {
 						theGraph.DoDFS(new Juncture(0,0), 
 								new Juncture(maze.getMazeWidth() - 1, maze.getMazeHeight() - 1));
 					}
 				});
-				thread.start();
 			}
 		});
 
 		BFSButton.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent arg0) {
-				changeButtonStatus(false);
 				showWeights.setSelected(false);
-				Thread thread = new Thread(new Runnable() {
+				startSearch(new Runnable() {
 					@Override
 					public void run() {
 						theGraph.DoBFS(new Juncture(0,0), 
 								new Juncture(maze.getMazeWidth() - 1, maze.getMazeHeight() - 1));
 					}
 				});
-				thread.start();
 			}
 		});
 		
-		showWeights.addActionListener(new ActionListener() {
+		showWeights.addItemListener(new ItemListener() {
 			@Override
-			public void actionPerformed(ActionEvent arg0) {
-				mazePanel.updateUI();
+			public void itemStateChanged(ItemEvent arg0) {
+				mazePanel.setShowWeights(showWeights.isSelected());
 			}
 		});
 		
 		speedSlider = new JSlider();
 		speedSlider.setValue(40);
+
+		replaySlider = new JSlider(0, 0, 0);
+		replaySlider.addChangeListener(new ChangeListener() {
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				if (!updatingReplaySlider) {
+					seek(replaySlider.getValue());
+				}
+			}
+		});
+		pauseButton = new JToggleButton("Pause");
+		pauseButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent arg0) {
+				if (!pauseButton.isSelected()) {
+					replayTimer.restart();
+				}
+			}
+		});
+		skipButton = new JButton("Skip");
+		skipButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent arg0) {
+				if (recording != null) {
+					seek(recording.size());
+				}
+			}
+		});
+		replayTimer = new Timer(FRAME_MS, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent arg0) {
+				replayFrame();
+			}
+		});
 		NumberFormat numberFormat = NumberFormat.getIntegerInstance();
 		numberFormat.setMaximumFractionDigits(0);
 		widthBox = new JFormattedTextField(numberFormat);
@@ -191,100 +249,15 @@ public class MazeGUI {
 		controlsPanel.add(DFSButton);
 		controlsPanel.add(BFSButton);
 		controlsPanel.add(DijkstraButton);
+		controlsPanel.add(AStarButton);
 		controlsPanel.add(new JLabel("   Speed"));
 		controlsPanel.add(speedSlider);
+		controlsPanel.add(new JLabel("   Replay"));
+		controlsPanel.add(replaySlider);
+		controlsPanel.add(pauseButton);
+		controlsPanel.add(skipButton);
 
-		mazePanel = new JPanel() {
-
-			private static final long serialVersionUID = 1L;
-
-			@Override
-			public void paint(Graphics gr) {
-				super.paint(gr);
-				Graphics2D g = (Graphics2D) gr;
-				int height = maze.getMazeHeight() + 1;
-				int width = maze.getMazeWidth() + 1;
-				int paneWidth = getWidth();
-				int paneHeight = getHeight();
-				double widthMultiplier = (double)(paneWidth) / (width + 1);
-				double heightMultiplier = (double)(paneHeight) / (height + 1);
-				STROKE_WIDTH = (int)(widthMultiplier / 10);
-				if (STROKE_WIDTH < 2) {
-					STROKE_WIDTH = 2;
-				}
-				g.setStroke(new BasicStroke(STROKE_WIDTH));
-				g.setColor(Color.GREEN);
-				g.fillRect((int)(widthMultiplier), (int)(heightMultiplier),
-						(int)widthMultiplier, (int)heightMultiplier);
-				g.setColor(Color.RED);
-				g.fillRect((int)((width - 1) * widthMultiplier), (int)((height - 1) * heightMultiplier),
-						(int)widthMultiplier, (int)heightMultiplier);
-
-				for (int row = 0; row < height - 1; row++) {
-					for (int col = 0; col < width - 1; col++) {
-						g.setColor(squareColors[colorIndex[row][col]]);
-						g.fillRect((int)((col + 1.32) * widthMultiplier), (int)((row + 1.32) * heightMultiplier),
-								(int)(widthMultiplier * 0.4), (int)(heightMultiplier * 0.4)); 
-					}
-				}
-				g.setColor(WALL_COLOR);
-				for (int row = 0; row < height - 1; row++) {
-					for (int col = 0; col < width - 1; col++) {
-						if (maze.isWallAbove(new Juncture(col, row))) {
-							drawHorizontalLine(g, (int)((col + 1) * widthMultiplier), (int)((row + 1) * heightMultiplier),
-									(int)((col + 2) * widthMultiplier));						
-						}
-						if (maze.isWallToLeft(new Juncture(col, row))) {
-							drawVerticalLine(g, (int)((col + 1) * widthMultiplier),  (int)((row + 1) * heightMultiplier),
-									(int)((row + 2) * heightMultiplier));
-						}
-					}
-				}
-				for (int x = 1; x < width; x++) { 
-					for (int y = 1; y < height; y++) {
-						int a = (int)(x * widthMultiplier);
-						int b = (int)(y * heightMultiplier);
-						g.drawLine(a, b, a, b);
-					}
-				} 
-				for (int row = 0; row < height - 1; row++) {
-					if (maze.isWallToRight(new Juncture(width - 2, row))) {
-						int col = width - 1;
-						drawVerticalLine(g, (int)((col + 1) * widthMultiplier),  (int)((row + 1) * heightMultiplier),
-								(int)((row + 2) * heightMultiplier));
-					}
-				}
-				for (int col = 0; col < width - 1; col++) {
-					if (maze.isWallBelow(new Juncture(col, height - 2))) {
-						int row = height - 1;
-						drawHorizontalLine(g, (int)((col + 1) * widthMultiplier), (int)((row + 1) * heightMultiplier),
-								(int)((col + 2) * widthMultiplier));
-					}
-				}
-				g.setFont(new Font("Arial", Font.BOLD, (int)(0.5 * heightMultiplier)));
-				if (showWeights.isSelected()) {
-					g.setColor(Color.BLACK);
-					for (int row = 0; row < height - 2; row++) {
-						for (int col = 0; col < width - 1 ; col++) {
-							Juncture juncture = new Juncture(col, row);
-							if (!maze.isWallBelow(juncture)) {
-								g.drawString(String.valueOf(maze.getWeightBelow(juncture)), (int)((col + 1.38) * widthMultiplier), (int)((row + 2.2) * heightMultiplier));
-							}
-						}
-					}
-					for (int row = 0; row < height - 1; row++) {
-						for (int col = 0; col < width - 2; col++) {
-							Juncture juncture = new Juncture(col, row);
-							if (!maze.isWallToRight(juncture)) {
-								g.drawString(String.valueOf(maze.getWeightToRight(juncture)), (int)((col + 1.9) * widthMultiplier), (int)((row + 1.68) * heightMultiplier));
-							}
-						}
-					}
-				}
-			}
-		};
-
-		mazePanel.setBackground(Color.GRAY);
+		mazePanel = new MazePanel(squareColors);
 
 		contentPane = new JPanel();
 		contentPane.setLayout(new BorderLayout());
@@ -304,133 +277,212 @@ public class MazeGUI {
 		BFSButton.setEnabled(setting);
 		drawButton.setEnabled(setting);
 		DijkstraButton.setEnabled(setting);
+		AStarButton.setEnabled(setting);
 	}
 
-	private int getSliderDelayMS() {
+	/* Time between two steps of the playback */
+	private int getSliderDelayMicros() {
 		int v = 109 - speedSlider.getValue();
-		return (v * v * v) / 1000;
+		return v * v * v;
 	}
 
-	private void drawHorizontalLine(Graphics2D g, int x1, int y, int x2) {
-		g.drawLine(x1,  y,  x2,  y);
+	/* Runs a search on a thread of its own, recording what it does,
+	 * and starts playing the recording back */
+	private void startSearch(final Runnable search) {
+		changeButtonStatus(false);
+		replayTimer.stop();
+		resetColorsOfSquares();
+		final SearchRecording searchRecording = new SearchRecording();
+		recording = searchRecording;
+		replayPosition = 0;
+		pauseButton.setSelected(false);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					search.run();
+				} finally {
+					searchRecording.finish();
+					SwingUtilities.invokeLater(new Runnable() {
+						@Override
+						public void run() {
+							changeButtonStatus(true);
+						}
+					});
+				}
+			}
+		});
+		thread.start();
+		replayTimer.setDelay(FRAME_MS);
+		replayTimer.start();
 	}
 
-	private void drawVerticalLine(Graphics2D g, int x, int y1, int y2) {
-		g.drawLine(x,  y1,  x,  y2);
+	/* Called by the Timer: plays as many steps as the speed slider 
+	 * allows in one frame, then follows the recording with the 
+	 * replay slider */
+	private void replayFrame() {
+		if (recording == null) {
+			replayTimer.stop();
+			return;
+		}
+		int size = recording.size();
+		if (!pauseButton.isSelected() && !replaySlider.getValueIsAdjusting()) {
+			int delay = getSliderDelayMicros();
+			replayTimer.setDelay(Math.max(FRAME_MS, delay / 1000));
+			int steps = Math.max(1, FRAME_MS * 1000 / Math.max(1, delay));
+			int position = replayPosition;
+			for (int step = 0; step < steps && position < size; step++) {
+				do {
+					position++;
+				} while (!recording.isEndOfStep(position - 1));
+			}
+			seek(position);
+		}
+		updateReplaySlider(size);
+		if (recording.isFinished() && replayPosition == recording.size() || pauseButton.isSelected()) {
+			replayTimer.stop();
+		}
+	}
+
+	/* Plays the recording forward or backward to the first step 
+	 * boundary at or after position */
+	private void seek(int position) {
+		if (recording == null) {
+			return;
+		}
+		int size = recording.size();
+		position = Math.min(position, size);
+		while (replayPosition < position 
+				|| replayPosition > 0 && replayPosition < size && !recording.isEndOfStep(replayPosition - 1)) {
+			int square = recording.square(replayPosition);
+			setSquareColor(square % maze.getMazeWidth(), square / maze.getMazeWidth(), recording.newColor(replayPosition));
+			replayPosition++;
+		}
+		while (replayPosition > position && replayPosition > 0) {
+			do {
+				replayPosition--;
+				int square = recording.square(replayPosition);
+				setSquareColor(square % maze.getMazeWidth(), square / maze.getMazeWidth(), recording.oldColor(replayPosition));
+			} while (replayPosition > 0 && !recording.isEndOfStep(replayPosition - 1));
+		}
+		updateReplaySlider(size);
+		if (replayPosition < size || !recording.isFinished()) {
+			if (!pauseButton.isSelected() && !replayTimer.isRunning()) {
+				replayTimer.start();
+			}
+		}
+	}
+
+	/* Colors a square on screen, repainting only that square */
+	private void setSquareColor(int x, int y, int color) {
+		if (colorIndex[y][x] != color) {
+			colorIndex[y][x] = color;
+			mazePanel.squareChanged(x, y);
+		}
+	}
+
+	private void updateReplaySlider(int size) {
+		updatingReplaySlider = true;
+		replaySlider.setMaximum(size);
+		if (!replaySlider.getValueIsAdjusting()) {
+			replaySlider.setValue(replayPosition);
+		}
+		updatingReplaySlider = false;
+	}
+
+	/* Called by the search thread: changes the color of a square as the
+	 * search sees it, and records the change for playback */
+	private void recordColor(Juncture juncture, int color, boolean endOfStep) {
+		int x = juncture.getX();
+		int y = juncture.getY();
+		recording.add(y * maze.getMazeWidth() + x, searchColors[y][x], color, endOfStep);
+		searchColors[y][x] = color;
 	}
 
 	private void makeNewMaze() {
 		int height = Integer.parseInt(heightBox.getText());
 		int width = Integer.parseInt(widthBox.getText());
+		replayTimer.stop();
+		recording = null;
+		updateReplaySlider(0);
 		maze = new Maze(height, width, 100 - densitySlider.getValue());
 		colorIndex = new int[height][width];
+		searchColors = new int[height][width];
+		mazePanel.setMaze(maze, colorIndex);
 		resetColorsOfSquares();
 		theGraph = new MazeGraph(maze);
 		theGraph.addObserver(new GraphAlgorithmObserver<Juncture>() {
 			@Override
 			public void notifyBFSHasBegun() {
-				coloredJunctures = new ArrayList<Juncture>();
-				resetColorsOfSquares();
 				isDFS = false;
 			}
 
 			@Override
 			public void notifyDFSHasBegun() {
-				coloredJunctures = new Stack<Juncture>();
-				resetColorsOfSquares();
+				dfsPath = new Stack<Juncture>();
 				isDFS = true;
 			}
 
 			@Override
 			public void notifyDijkstraHasBegun() {
-				coloredJunctures = new Stack<Juncture>();
-				resetColorsOfSquares();
 			}
 
 			@Override
 			public void notifySearchIsOver() {
-				changeButtonStatus(true);
-				controlsPanel.updateUI();
+				recording.endStep();
 			}
 
 			@Override
 			public void notifyDijkstraVertexFinished(Juncture p, Integer pathCost) {
-				colorIndex[p.getY()][p.getX()] = 5;
-				mazePanel.updateUI();
-				try {
-					Thread.sleep(getSliderDelayMS());
-				} catch(InterruptedException e) {
-
-				}
+				recordColor(p, 5, true);
 			}
 
 			@Override
 			public void notifyDijkstraIsOver(List<Juncture> path) {
 				for (int i = 0; i < maze.getMazeHeight(); i++) {
 					for (int j = 0; j < maze.getMazeWidth(); j++) {
-						colorIndex[i][j] = 0;
+						if (searchColors[i][j] != 0) {
+							recordColor(new Juncture(j, i), 0, false);
+						}
 					}
 				}
 				for (Juncture p : path) {
-					colorIndex[p.getY()][p.getX()] = 3;
+					recordColor(p, 3, false);
+				}
+				recording.endStep();
+			}
+
+			@Override
+			public void notifyAStarVisit(Juncture juncture, boolean visited) {
+				recordColor(juncture, visited ? 5 : 6, visited);
+			}
+
+			@Override
+			public void notifyAStarIsOver(List<Juncture> path) {
+				for (Juncture p : path) {
+					recordColor(p, 3, false);
 				}
-				changeButtonStatus(true);
-				mazePanel.updateUI();
+				recording.endStep();
 			}
 
 			@Override
 			public void notifyVisit(Juncture juncture) {
+				notifyVisit(juncture, null, 0);
+			}
+
+			@Override
+			public void notifyVisit(Juncture juncture, Juncture parent, int depth) {
 				if (isDFS) {
 					/* Go through and remove all of the points from the end
-					 * of the path back to the last point that was adjacent
-					 * to this one
+					 * of the path back to the one this one was reached from
 					 */
-					while(!coloredJunctures.isEmpty()) {
-						Juncture p = ((Stack<Juncture>)coloredJunctures).peek();
-						if (theGraph.getWeight(p, juncture) != null) {
-							break;
-						}
-						colorIndex[p.getY()][p.getX()] = 0;
-						mazePanel.updateUI();
-						try {
-							Thread.sleep(getSliderDelayMS());
-						} catch(InterruptedException e) {
-
-						}
-						((Stack<Juncture>)coloredJunctures).pop();
-					}
-
-					colorIndex[juncture.getY()][juncture.getX()] = 3;
-					mazePanel.updateUI();
-					try {
-						Thread.sleep(getSliderDelayMS());
-					} catch(InterruptedException e) {
-
-					}
-					((Stack<Juncture>)coloredJunctures).push(juncture);
-				} else {   // BFS
-					int c = 1;
-					for (int i = coloredJunctures.size() - 1; i >=0; i--) {
-						Juncture p = ((ArrayList<Juncture>)coloredJunctures).get(i);
-
-						if (theGraph.getWeight(p, juncture) != null) {
-
-							int old = colorIndex[p.getY()][p.getX()];
-							c = old + 1;
-							if (c >= squareColors.length) {
-								c = 1;
-							}
-							break;
-						}
-					}
-					colorIndex[juncture.getY()][juncture.getX()] = c;
-					mazePanel.updateUI();
-					try {
-						Thread.sleep(getSliderDelayMS());
-					} catch(InterruptedException e) {
-
+					while(!dfsPath.isEmpty() && !dfsPath.peek().equals(parent)) {
+						recordColor(dfsPath.pop(), 0, true);
 					}
-					coloredJunctures.add(juncture);
+					recordColor(juncture, 3, true);
+					dfsPath.push(juncture);
+				} else {   // BFS: each level a color, cycling through all but gray
+					recordColor(juncture, depth % (squareColors.length - 1) + 1, true);
 				}
 			}
 
@@ -442,13 +494,16 @@ public class MazeGUI {
 		controlsPanel.updateUI();
 	}
 
+	/* Clears the colors, both those on screen and those the next
+	 * search starts from */
 	private void resetColorsOfSquares() {
 		for (int row = 0; row < maze.getMazeHeight(); row++) {
 			for (int col = 0; col < maze.getMazeWidth(); col++) {
 				colorIndex[row][col] = 0;
+				searchColors[row][col] = 0;
 			}
 		}
-		mazePanel.updateUI();
+		mazePanel.squaresChanged();
 	}
 
 	/** Request to the Event Dispatching Thread to create and
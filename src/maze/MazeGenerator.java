@@ -0,0 +1,75 @@
+package maze;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * <P>An algorithm for drawing the walls of a Maze.  Every generator 
+ * produces a "perfect" maze, with exactly one path between any two
+ * junctures; the Maze then removes extra walls according to its 
+ * sparcity, and picks the weights.</P>
+ * 
+ * <P>A generator produces the maze one row at a time, from the top,
+ * handing each row to a consumer.  Most generators need the whole maze
+ * in memory before the first row is ready, but Eller's algorithm only
+ * ever holds one row, so with Maze.generateRows it can stream mazes that
+ * are far too tall to store.</P>
+ * 
+ * <P>A generator may be used for many mazes, but only for one at a 
+ * time.</P>
+ */
+public interface MazeGenerator {
+
+	/**
+	 * Generates a perfect maze of the given size.
+	 * 
+	 * @param mazeWidth number of junctures across
+	 * @param mazeHeight number of junctures down
+	 * @param random the source of every random choice (so the same seed
+	 * gives the same maze)
+	 * @param rows receives the rows of the maze in order, from row 0.  The
+	 * same MazeRow object is passed every time, and the consumer may remove
+	 * more walls from it.
+	 */
+	public void generate(int mazeWidth, int mazeHeight, Random random, Consumer<MazeRow> rows);
+
+	/** The original Maze algorithm: walls grow as random walks from
+	 * the posts between junctures until they touch another wall. 
+	 * @return a new generator
+	 */
+	public static MazeGenerator wallGrowth() {
+		return new WallGrowthGenerator();
+	}
+
+	/** Randomized Kruskal's algorithm: passages are opened in random
+	 * order, skipping any that would join junctures already connected.
+	 * @return a new generator
+	 */
+	public static MazeGenerator kruskal() {
+		return new KruskalGenerator();
+	}
+
+	/** Randomized Prim's algorithm: the maze grows outward from one
+	 * juncture, each time joining a random juncture of its frontier.
+	 * @return a new generator
+	 */
+	public static MazeGenerator prim() {
+		return new PrimGenerator();
+	}
+
+	/** Wilson's algorithm: loop-erased random walks, which pick every
+	 * possible perfect maze with equal probability.
+	 * @return a new generator
+	 */
+	public static MazeGenerator wilson() {
+		return new WilsonGenerator();
+	}
+
+	/** Eller's algorithm: builds the maze a row at a time, in memory
+	 * proportional to its width.
+	 * @return a new generator
+	 */
+	public static MazeGenerator eller() {
+		return new EllerGenerator();
+	}
+}
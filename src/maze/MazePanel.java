@@ -0,0 +1,404 @@
+package maze;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import javax.swing.JPanel;
+
+/**
+ * <P>The panel the MazeGUI draws its maze on.</P>
+ *
+ * <P>The panel is a viewport onto the maze: it starts out fitting the
+ * whole maze, the mouse wheel zooms in and out around the pointer,
+ * dragging pans, and a double click fits the whole maze again.</P>
+ *
+ * <P>Drawing the maze in full detail (every wall, corner and weight)
+ * takes time proportional to the number of cells drawn, far too long to
+ * do for every step of a search.  So only the cells in view are drawn,
+ * once, into an image the size of the panel, which is only drawn again
+ * when the view moves, the maze is replaced, or the weights are shown
+ * or hidden.  A step of a search only changes the colors of a few
+ * squares: each one in view is filled in on the image and only its
+ * rectangle of the panel is repainted (see squareChanged), so a step
+ * costs time proportional to the number of squares it changes.  The
+ * squares sit inside their cells, clear of the walls and the weights,
+ * so filling one in never disturbs the rest of the picture.</P>
+ *
+ * <P>Once the cells are too small for their walls to be told apart
+ * (less than DETAIL_CELL_SIZE pixels), the panel shows an overview
+ * instead: an image with one pixel per block of cells (a power of two
+ * wide, just large enough for a block to cover a pixel), the color of
+ * a colored square in the block if there is one, otherwise a shade of
+ * gray that is darker the more walls the block has.  The overview is
+ * built once for each block size and scaled onto the panel, so panning
+ * and painting it cost time proportional to the size of the panel, not
+ * of the maze.</P>
+ *
+ * <P>Like every Swing component, a MazePanel must only be used on the
+ * event dispatch thread.</P>
+ */
+final class MazePanel extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Color WALL_COLOR = Color.BLACK;
+	private static final Color BACKGROUND_COLOR = Color.GRAY;
+
+	/* Smallest cells (in pixels) drawn in detail, and with weights */
+	private static final double DETAIL_CELL_SIZE = 4;
+	private static final double WEIGHT_CELL_SIZE = 12;
+
+	/* Zoom per notch of the mouse wheel, and its limits: from a quarter
+	 * of the size that fits the whole maze to cells this many pixels */
+	private static final double ZOOM_STEP = 1.25;
+	private static final double MAX_CELL_SIZE = 256;
+
+	private final Color[] squareColors;
+
+	private Maze maze;
+	private int[][] colorIndex;
+	private boolean showWeights;
+
+	/* The view: the top left corner of the maze on the panel, and the
+	 * size of a cell, in pixels; fitted while it shows the whole maze */
+	private double originX, originY;
+	private double cellWidth, cellHeight;
+	private boolean fitted = true;
+	private int viewWidth, viewHeight;
+
+	/* The cells in view as drawn, and the graphics drawing on it (not
+	 * valid when the view has changed since it was drawn) */
+	private BufferedImage image;
+	private Graphics2D imageGraphics;
+	private boolean imageValid;
+	private int firstColumn, lastColumn, firstRow, lastRow;
+
+	/* The overview, for cells smaller than DETAIL_CELL_SIZE, with
+	 * overviewBlock x overviewBlock cells per pixel */
+	private BufferedImage overview;
+	private int overviewBlock;
+
+	/** @param squareColors color of the square of a juncture, by
+	 * color index */
+	MazePanel(Color[] squareColors) {
+		this.squareColors = squareColors;
+		setBackground(BACKGROUND_COLOR);
+		MouseAdapter mouse = new MouseAdapter() {
+			private int lastX, lastY;
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+				lastX = e.getX();
+				lastY = e.getY();
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				originX += e.getX() - lastX;
+				originY += e.getY() - lastY;
+				lastX = e.getX();
+				lastY = e.getY();
+				fitted = false;
+				viewChanged();
+			}
+
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+			}
+
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2) {
+					fitted = true;
+					viewChanged();
+				}
+			}
+		};
+		addMouseListener(mouse);
+		addMouseMotionListener(mouse);
+		addMouseWheelListener(mouse);
+	}
+
+	/** Shows another maze, all of it.
+	 *
+	 * @param maze the maze
+	 * @param colorIndex the color index of each juncture, by row and
+	 * column; the panel reads it, and must be told when it changes
+	 */
+	void setMaze(Maze maze, int[][] colorIndex) {
+		this.maze = maze;
+		this.colorIndex = colorIndex;
+		fitted = true;
+		overview = null;
+		viewChanged();
+	}
+
+	/** @param showWeights true to write the weight of every edge on
+	 * the maze (when the cells are large enough to read them) */
+	void setShowWeights(boolean showWeights) {
+		if (showWeights != this.showWeights) {
+			this.showWeights = showWeights;
+			viewChanged();
+		}
+	}
+
+	/** Shows the new color of the square of juncture (x, y).
+	 *
+	 * @param x column of the juncture
+	 * @param y row of the juncture
+	 */
+	void squareChanged(int x, int y) {
+		boolean detailed = isDetailed();
+		if (imageValid && x >= firstColumn && x <= lastColumn && y >= firstRow && y <= lastRow) {
+			fillSquare(x, y);
+			if (detailed) {
+				repaint(x(x + 0.32), y(y + 0.32), (int)(cellWidth * 0.4) + 1, (int)(cellHeight * 0.4) + 1);
+			}
+		}
+		if (overview != null) {
+			int blockX = x / overviewBlock;
+			int blockY = y / overviewBlock;
+			overview.setRGB(blockX, blockY, blockColor(blockX, blockY));
+			if (!detailed) {
+				int left = x(blockX * overviewBlock);
+				int top = y(blockY * overviewBlock);
+				repaint(left, top, x((blockX + 1) * overviewBlock) - left + 1, y((blockY + 1) * overviewBlock) - top + 1);
+			}
+		}
+	}
+
+	/** Shows the colors of all the squares, after many of them changed. */
+	void squaresChanged() {
+		if (imageValid) {
+			fillSquares();
+		}
+		overview = null;
+		repaint();
+	}
+
+	@Override
+	public void paint(Graphics gr) {
+		if (maze == null || getWidth() <= 0 || getHeight() <= 0) {
+			super.paint(gr);
+			return;
+		}
+		if (getWidth() != viewWidth || getHeight() != viewHeight) {
+			viewWidth = getWidth();
+			viewHeight = getHeight();
+			imageValid = false;
+		}
+		if (fitted) {
+			fit();
+		}
+		if (isDetailed()) {
+			if (!imageValid) {
+				drawImage();
+			}
+			gr.drawImage(image, 0, 0, null);
+			return;
+		}
+		int block = 1;
+		while (block * Math.min(cellWidth, cellHeight) < 1) {
+			block *= 2;
+		}
+		if (overview == null || overviewBlock != block) {
+			buildOverview(block);
+		}
+		gr.setColor(BACKGROUND_COLOR);
+		gr.fillRect(0, 0, viewWidth, viewHeight);
+		int columns = overview.getWidth() * block;
+		int rows = overview.getHeight() * block;
+		gr.drawImage(overview, x(0), y(0), x(columns), y(rows), 0, 0, overview.getWidth(), overview.getHeight(), null);
+	}
+
+	/* Sizes the cells so that the whole maze fits, with a cell's width
+	 * or height to spare all around */
+	private void fit() {
+		cellWidth = (double) viewWidth / (maze.getMazeWidth() + 2);
+		cellHeight = (double) viewHeight / (maze.getMazeHeight() + 2);
+		originX = cellWidth;
+		originY = cellHeight;
+	}
+
+	/* Zooms by factor, keeping the point (x, y) of the panel still */
+	private void zoom(double factor, int x, int y) {
+		if (maze == null || viewWidth == 0) {
+			return;
+		}
+		double smallest = 0.25 * Math.min((double) viewWidth / (maze.getMazeWidth() + 2),
+				(double) viewHeight / (maze.getMazeHeight() + 2));
+		factor = Math.max(factor, smallest / Math.min(cellWidth, cellHeight));
+		factor = Math.min(factor, MAX_CELL_SIZE / Math.max(cellWidth, cellHeight));
+		originX = x - (x - originX) * factor;
+		originY = y - (y - originY) * factor;
+		cellWidth *= factor;
+		cellHeight *= factor;
+		fitted = false;
+		viewChanged();
+	}
+
+	private void viewChanged() {
+		imageValid = false;
+		repaint();
+	}
+
+	private boolean isDetailed() {
+		return cellWidth >= DETAIL_CELL_SIZE && cellHeight >= DETAIL_CELL_SIZE;
+	}
+
+	/* Left edge on the panel of column u of the maze */
+	private int x(double u) {
+		return (int)(originX + u * cellWidth);
+	}
+
+	/* Top edge on the panel of row v of the maze */
+	private int y(double v) {
+		return (int)(originY + v * cellHeight);
+	}
+
+	/* Draws the cells in view on a new image the size of the panel */
+	private void drawImage() {
+		if (image == null || image.getWidth() != viewWidth || image.getHeight() != viewHeight) {
+			if (imageGraphics != null) {
+				imageGraphics.dispose();
+			}
+			image = new BufferedImage(viewWidth, viewHeight, BufferedImage.TYPE_INT_RGB);
+			imageGraphics = image.createGraphics();
+		}
+		Graphics2D g = imageGraphics;
+		imageValid = true;
+		g.setColor(BACKGROUND_COLOR);
+		g.fillRect(0, 0, viewWidth, viewHeight);
+
+		int width = maze.getMazeWidth();
+		int height = maze.getMazeHeight();
+		firstColumn = Math.max(0, (int) Math.floor(-originX / cellWidth));
+		lastColumn = Math.min(width - 1, (int) Math.ceil((viewWidth - originX) / cellWidth));
+		firstRow = Math.max(0, (int) Math.floor(-originY / cellHeight));
+		lastRow = Math.min(height - 1, (int) Math.ceil((viewHeight - originY) / cellHeight));
+		if (firstColumn > lastColumn || firstRow > lastRow) {
+			return;
+		}
+		int strokeWidth = (int)(cellWidth / 10);
+		if (strokeWidth < 2) {
+			strokeWidth = 2;
+		}
+		g.setStroke(new BasicStroke(strokeWidth));
+		g.setColor(Color.GREEN);
+		g.fillRect(x(0), y(0), (int)cellWidth, (int)cellHeight);
+		g.setColor(Color.RED);
+		g.fillRect(x(width - 1), y(height - 1), (int)cellWidth, (int)cellHeight);
+
+		g.setColor(WALL_COLOR);
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int col = firstColumn; col <= lastColumn; col++) {
+				if (maze.isWallAbove(col, row)) {
+					drawHorizontalLine(g, x(col), y(row), x(col + 1));
+				}
+				if (maze.isWallToLeft(col, row)) {
+					drawVerticalLine(g, x(col), y(row), y(row + 1));
+				}
+			}
+		}
+		for (int col = firstColumn; col <= lastColumn + 1; col++) {
+			for (int row = firstRow; row <= lastRow + 1; row++) {
+				int a = x(col);
+				int b = y(row);
+				g.drawLine(a, b, a, b);
+			}
+		}
+		if (lastColumn == width - 1) {
+			for (int row = firstRow; row <= lastRow; row++) {
+				if (maze.isWallToRight(width - 1, row)) {
+					drawVerticalLine(g, x(width), y(row), y(row + 1));
+				}
+			}
+		}
+		if (lastRow == height - 1) {
+			for (int col = firstColumn; col <= lastColumn; col++) {
+				if (maze.isWallBelow(col, height - 1)) {
+					drawHorizontalLine(g, x(col), y(height), x(col + 1));
+				}
+			}
+		}
+		if (showWeights && cellHeight >= WEIGHT_CELL_SIZE) {
+			g.setFont(new Font("Arial", Font.BOLD, (int)(0.5 * cellHeight)));
+			g.setColor(Color.BLACK);
+			for (int row = firstRow; row <= Math.min(lastRow, height - 2); row++) {
+				for (int col = firstColumn; col <= lastColumn; col++) {
+					if (!maze.isWallBelow(col, row)) {
+						g.drawString(String.valueOf(maze.getWeightBelow(col, row)), x(col + 0.38), y(row + 1.2));
+					}
+				}
+			}
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int col = firstColumn; col <= Math.min(lastColumn, width - 2); col++) {
+					if (!maze.isWallToRight(col, row)) {
+						g.drawString(String.valueOf(maze.getWeightToRight(col, row)), x(col + 0.9), y(row + 0.68));
+					}
+				}
+			}
+		}
+		fillSquares();
+	}
+
+	private void fillSquares() {
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int col = firstColumn; col <= lastColumn; col++) {
+				fillSquare(col, row);
+			}
+		}
+	}
+
+	private void fillSquare(int x, int y) {
+		imageGraphics.setColor(squareColors[colorIndex[y][x]]);
+		imageGraphics.fillRect(x(x + 0.32), y(y + 0.32), (int)(cellWidth * 0.4), (int)(cellHeight * 0.4));
+	}
+
+	/* Builds the overview with block x block cells per pixel */
+	private void buildOverview(int block) {
+		int width = (maze.getMazeWidth() + block - 1) / block;
+		int height = (maze.getMazeHeight() + block - 1) / block;
+		overview = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		overviewBlock = block;
+		for (int blockY = 0; blockY < height; blockY++) {
+			for (int blockX = 0; blockX < width; blockX++) {
+				overview.setRGB(blockX, blockY, blockColor(blockX, blockY));
+			}
+		}
+	}
+
+	/* The color of a pixel of the overview: that of the first colored
+	 * square in its block, or a gray from the share of open walls */
+	private int blockColor(int blockX, int blockY) {
+		int right = Math.min(maze.getMazeWidth(), (blockX + 1) * overviewBlock);
+		int bottom = Math.min(maze.getMazeHeight(), (blockY + 1) * overviewBlock);
+		int open = 0, cells = 0;
+		for (int y = blockY * overviewBlock; y < bottom; y++) {
+			for (int x = blockX * overviewBlock; x < right; x++) {
+				if (colorIndex[y][x] != 0) {
+					return squareColors[colorIndex[y][x]].getRGB();
+				}
+				open += (maze.isWallToRight(x, y) ? 0 : 1) + (maze.isWallBelow(x, y) ? 0 : 1);
+				cells++;
+			}
+		}
+		int gray = 0x30 + 0x90 * open / (2 * cells);
+		return gray << 16 | gray << 8 | gray;
+	}
+
+	private void drawHorizontalLine(Graphics2D g, int x1, int y, int x2) {
+		g.drawLine(x1,  y,  x2,  y);
+	}
+
+	private void drawVerticalLine(Graphics2D g, int x, int y1, int y2) {
+		g.drawLine(x,  y1,  x,  y2);
+	}
+}
@@ -0,0 +1,123 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * <P>One row of junctures of a maze, as produced by a MazeGenerator:
+ * which of the junctures have a wall to their right and below, and the
+ * weights between them and their neighbors.</P>
+ * 
+ * <P>Generators reuse a single MazeRow for every row they produce, so
+ * a row is only valid until the next one arrives; a consumer that 
+ * needs to keep it must copy what it needs.  This is what lets a maze
+ * be streamed in memory proportional to its width.</P>
+ * 
+ * <P>A row starts out (see reset) with every wall in place, and the
+ * generator removes walls to carve passages.  The walls around the
+ * outside of the maze are always there.</P>
+ */
+public final class MazeRow {
+
+	private final int width, height;
+	private int y;
+	private final long[] wallToRight;
+	private final long[] wallBelow;
+	private final byte[] weightToRight;
+	private final byte[] weightBelow;
+
+	/**
+	 * Creates a row for a maze of the given size.
+	 * 
+	 * @param mazeWidth number of junctures across
+	 * @param mazeHeight number of junctures down
+	 */
+	public MazeRow(int mazeWidth, int mazeHeight) {
+		this.width = mazeWidth;
+		this.height = mazeHeight;
+		this.wallToRight = Bits.create(mazeWidth);
+		this.wallBelow = Bits.create(mazeWidth);
+		this.weightToRight = new byte[mazeWidth];
+		this.weightBelow = new byte[mazeWidth];
+	}
+
+	/** Starts row y of the maze with every wall in place.
+	 * 
+	 * @param y index of the row, from 0 (the top)
+	 */
+	public void reset(int y) {
+		this.y = y;
+		Arrays.fill(wallToRight, -1L);
+		Arrays.fill(wallBelow, -1L);
+	}
+
+	/** @return index of this row, from 0 (the top) */
+	public int getY() {
+		return y;
+	}
+
+	/** @return number of junctures in the row */
+	public int getWidth() {
+		return width;
+	}
+
+	/** @return true if this is the bottom row of the maze */
+	public boolean isLastRow() {
+		return y == height - 1;
+	}
+
+	/** Removes the wall between juncture x and juncture x + 1.
+	 * @param x
+	 */
+	public void removeWallToRight(int x) {
+		if (x < width - 1) {
+			Bits.clear(wallToRight, x);
+		}
+	}
+
+	/** Removes the wall between juncture x and the juncture below it.
+	 * @param x
+	 */
+	public void removeWallBelow(int x) {
+		if (y < height - 1) {
+			Bits.clear(wallBelow, x);
+		}
+	}
+
+	/** @param x
+	 * @return true if there is a wall to the right of juncture x
+	 */
+	public boolean isWallToRight(int x) {
+		return x == width - 1 || Bits.get(wallToRight, x);
+	}
+
+	/** @param x
+	 * @return true if there is a wall below juncture x
+	 */
+	public boolean isWallBelow(int x) {
+		return y == height - 1 || Bits.get(wallBelow, x);
+	}
+
+	/** @param x
+	 * @return the weight between juncture x and juncture x + 1
+	 * (undefined for the last juncture of the row)
+	 */
+	public int getWeightToRight(int x) {
+		return weightToRight[x];
+	}
+
+	/** @param x
+	 * @return the weight between juncture x and the juncture below
+	 * (undefined in the last row)
+	 */
+	public int getWeightBelow(int x) {
+		return weightBelow[x];
+	}
+
+	void setWeightToRight(int x, int weight) {
+		weightToRight[x] = (byte) weight;
+	}
+
+	void setWeightBelow(int x, int weight) {
+		weightBelow[x] = (byte) weight;
+	}
+}
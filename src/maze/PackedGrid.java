@@ -0,0 +1,160 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * <P>The compact storage behind a Maze: 2 bits of walls and 1 byte of
+ * weights per juncture.</P>
+ * 
+ * <P>For juncture (x, y), the walls are a bit for the wall to its right
+ * and a bit for the wall below it (the walls above and to the left are
+ * those of its neighbors).  Each row of junctures is packed into longs,
+ * 32 junctures per long, and padded to a whole number of longs so that
+ * blocks of junctures 32 wide never share a long (which lets tiles of a
+ * maze be filled in in parallel).  The weights byte holds the weight to
+ * the right in its low 4 bits and the weight below in its high 4 bits.</P>
+ * 
+ * <P>The data lives in ByteBuffers of up to 1GB each (a "page" holds a
+ * power-of-two number of rows), so a grid can be larger than a Java 
+ * array, and can be a view of a memory-mapped file as well as of 
+ * memory.  Every buffer is little-endian, which is also the order in 
+ * which the grid is stored in a maze file (see Maze.save).</P>
+ */
+final class PackedGrid {
+
+	private static final int MAX_PAGE_BYTES = 1 << 30;
+
+	private final int width, height; // in junctures
+	private final int wallBytesPerRow;
+	private final int pageShift;     // rows per page is 1 << pageShift
+	private final int pageMask;
+	private final ByteBuffer[] wallPages;
+	private final ByteBuffer[] weightPages;
+
+	private PackedGrid(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.wallBytesPerRow = 8 * ((width + 31) >>> 5);
+		int rowBytes = Math.max(1, Math.max(wallBytesPerRow, width));
+		int shift = 0;
+		while (shift < 30 && (long) rowBytes << (shift + 1) <= MAX_PAGE_BYTES) {
+			shift++;
+		}
+		this.pageShift = shift;
+		this.pageMask = (1 << shift) - 1;
+		int pages = (int) (((long) height + pageMask) >>> shift);
+		this.wallPages = new ByteBuffer[pages];
+		this.weightPages = new ByteBuffer[pages];
+	}
+
+	/** Creates a grid in memory with no walls and all weights 0. */
+	static PackedGrid allocate(int width, int height) {
+		PackedGrid grid = new PackedGrid(width, height);
+		for (int p = 0; p < grid.wallPages.length; p++) {
+			int rows = grid.rowsInPage(p);
+			grid.wallPages[p] = ByteBuffer.allocate(rows * grid.wallBytesPerRow).order(ByteOrder.LITTLE_ENDIAN);
+			grid.weightPages[p] = ByteBuffer.allocate(rows * width).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return grid;
+	}
+
+	/** Maps a grid stored in a file (read-only) starting at the given
+	 * offset: all the wall rows, then all the weight rows. */
+	static PackedGrid map(FileChannel channel, long offset, int width, int height) throws IOException {
+		PackedGrid grid = new PackedGrid(width, height);
+		long weightsOffset = offset + grid.wallBytes();
+		for (int p = 0; p < grid.wallPages.length; p++) {
+			long firstRow = (long) p << grid.pageShift;
+			int rows = grid.rowsInPage(p);
+			grid.wallPages[p] = channel.map(FileChannel.MapMode.READ_ONLY, 
+					offset + firstRow * grid.wallBytesPerRow, (long) rows * grid.wallBytesPerRow)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			grid.weightPages[p] = channel.map(FileChannel.MapMode.READ_ONLY,
+					weightsOffset + firstRow * width, (long) rows * width)
+					.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return grid;
+	}
+
+	/** Writes the wall rows, then the weight rows, at the channel's position. */
+	void writeTo(FileChannel channel) throws IOException {
+		for (ByteBuffer page : wallPages) {
+			writeFully(channel, page.duplicate());
+		}
+		for (ByteBuffer page : weightPages) {
+			writeFully(channel, page.duplicate());
+		}
+	}
+
+	/** @return number of bytes writeTo writes */
+	long byteSize() {
+		return wallBytes() + (long) width * height;
+	}
+
+	/** @return number of bytes writeTo writes for a grid of the given
+	 * size (so a file can be checked before it is mapped) */
+	static long byteSize(int width, int height) {
+		return new PackedGrid(width, height).byteSize();
+	}
+
+	private long wallBytes() {
+		return (long) wallBytesPerRow * height;
+	}
+
+	private int rowsInPage(int page) {
+		return (int) Math.min(1L << pageShift, height - ((long) page << pageShift));
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.clear();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/* Byte offset, within its page, of the long holding the walls of (x, y) */
+	private int wallIndex(int x, int y) {
+		return (y & pageMask) * wallBytesPerRow + ((x >>> 5) << 3);
+	}
+
+	boolean isWallToRight(int x, int y) {
+		return (wallPages[y >>> pageShift].getLong(wallIndex(x, y)) & (1L << (x << 1))) != 0;
+	}
+
+	boolean isWallBelow(int x, int y) {
+		return (wallPages[y >>> pageShift].getLong(wallIndex(x, y)) & (2L << (x << 1))) != 0;
+	}
+
+	int getWeightToRight(int x, int y) {
+		return weightPages[y >>> pageShift].get((y & pageMask) * width + x) & 0x0F;
+	}
+
+	int getWeightBelow(int x, int y) {
+		return (weightPages[y >>> pageShift].get((y & pageMask) * width + x) >>> 4) & 0x0F;
+	}
+
+	/* Turns the wall to the right of (x, y) on or off.  Not atomic: 
+	 * threads must only write junctures in different longs. */
+	void setWallToRight(int x, int y, boolean wall) {
+		setWallBit(x, y, 1L << (x << 1), wall);
+	}
+
+	void setWallBelow(int x, int y, boolean wall) {
+		setWallBit(x, y, 2L << (x << 1), wall);
+	}
+
+	private void setWallBit(int x, int y, long bit, boolean wall) {
+		ByteBuffer page = wallPages[y >>> pageShift];
+		int index = wallIndex(x, y);
+		long word = page.getLong(index);
+		page.putLong(index, wall ? word | bit : word & ~bit);
+	}
+
+	/* Sets both weights of (x, y), each from 0 to 15 */
+	void setWeights(int x, int y, int weightToRight, int weightBelow) {
+		weightPages[y >>> pageShift].put((y & pageMask) * width + x, (byte) (weightToRight | weightBelow << 4));
+	}
+}
@@ -0,0 +1,52 @@
+package maze;
+
+import java.util.Random;
+
+/**
+ * <P>Randomized Prim's algorithm.  The maze grows from a random
+ * juncture.  Each step takes a random juncture from the frontier (the
+ * junctures next to the maze but not yet in it), joins it to a random
+ * neighbor that is already in the maze, and adds its own new neighbors
+ * to the frontier.  The frontier is an array with swap-removal, so 
+ * every step takes constant time.</P>
+ */
+final class PrimGenerator extends GridMazeGenerator {
+
+	private static final byte OUTSIDE = 0, FRONTIER = 1, INSIDE = 2;
+
+	@Override
+	protected void carve(Random random) {
+		int n = width * height;
+		byte[] state = new byte[n];
+		int[] frontier = new int[n];
+		int frontierSize = 0;
+		int[] adjacent = new int[4];
+		int[] inside = new int[4];
+
+		int first = random.nextInt(n);
+		state[first] = INSIDE;
+		int count = neighbors(first, adjacent);
+		for (int i = 0; i < count; i++) {
+			state[adjacent[i]] = FRONTIER;
+			frontier[frontierSize++] = adjacent[i];
+		}
+		while (frontierSize > 0) {
+			int k = random.nextInt(frontierSize);
+			int juncture = frontier[k];
+			frontier[k] = frontier[--frontierSize];
+			count = neighbors(juncture, adjacent);
+			int insideCount = 0;
+			for (int i = 0; i < count; i++) {
+				int neighbor = adjacent[i];
+				if (state[neighbor] == INSIDE) {
+					inside[insideCount++] = neighbor;
+				} else if (state[neighbor] == OUTSIDE) {
+					state[neighbor] = FRONTIER;
+					frontier[frontierSize++] = neighbor;
+				}
+			}
+			connect(juncture, inside[random.nextInt(insideCount)]);
+			state[juncture] = INSIDE;
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * <P>The color changes made by one search in the MazeGUI, recorded by
+ * the search thread as fast as it can run and played back by the event
+ * dispatch thread at whatever speed the user picks.</P>
+ *
+ * <P>Each event changes the color of one square, and remembers the
+ * color it replaces, so that playback can run backward as well as
+ * forward.  Events are grouped into steps (a step is what the search
+ * did between two frames of the old animation: a visit, a backtrack,
+ * or the whole path drawn at the end), and playback only stops between
+ * steps.</P>
+ *
+ * <P>The events are packed into longs, in chunks of CHUNK_SIZE that are
+ * never moved once written, so the recording only grows (it keeps the
+ * whole search, for scrubbing back to the start) and the reader never
+ * sees a chunk being copied.  One thread may add events while another
+ * reads them: the writer publishes the events of each step by writing
+ * the volatile size, and the reader only reads below it.</P>
+ */
+final class SearchRecording {
+
+	private static final int CHUNK_SHIFT = 14;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/* An event: square << 16 | old color << 12 | new color << 8 | end of step */
+	private volatile long[][] chunks = new long[16][];
+	private int written;
+	private volatile int size;
+	private volatile boolean finished;
+
+	/** Records a color change; only the search thread may call this.
+	 *
+	 * @param square index of the square (y * width + x)
+	 * @param oldColor color the square had (0 to 15)
+	 * @param newColor color the square gets (0 to 15)
+	 * @param endOfStep true if this is the last change of its step,
+	 * which makes the step visible to the reader
+	 */
+	void add(int square, int oldColor, int newColor, boolean endOfStep) {
+		int chunk = written >>> CHUNK_SHIFT;
+		long[][] current = chunks;
+		if (chunk == current.length) {
+			current = Arrays.copyOf(current, chunk * 2);
+			chunks = current;
+		}
+		if (current[chunk] == null) {
+			current[chunk] = new long[CHUNK_SIZE];
+		}
+		current[chunk][written & CHUNK_MASK] = (long) square << 16 | oldColor << 12 | newColor << 8
+				| (endOfStep ? 1 : 0);
+		written++;
+		if (endOfStep) {
+			size = written;
+		}
+	}
+
+	/** Marks the last change recorded as the end of its step, if it is
+	 * not already. */
+	void endStep() {
+		if (written > size) {
+			long[] chunk = chunks[(written - 1) >>> CHUNK_SHIFT];
+			chunk[(written - 1) & CHUNK_MASK] |= 1;
+			size = written;
+		}
+	}
+
+	/** Ends the recording: the search is over. */
+	void finish() {
+		endStep();
+		finished = true;
+	}
+
+	/** @return true once the search has finished, and every event
+	 * it made is visible */
+	boolean isFinished() {
+		return finished;
+	}
+
+	/** @return number of events that may be read */
+	int size() {
+		return size;
+	}
+
+	/** @param i index of an event, below size()
+	 * @return index of the square the event colors */
+	int square(int i) {
+		return (int) (event(i) >>> 16);
+	}
+
+	/** @param i index of an event, below size()
+	 * @return color of the square before the event */
+	int oldColor(int i) {
+		return (int) (event(i) >>> 12) & 15;
+	}
+
+	/** @param i index of an event, below size()
+	 * @return color of the square after the event */
+	int newColor(int i) {
+		return (int) (event(i) >>> 8) & 15;
+	}
+
+	/** @param i index of an event, below size()
+	 * @return true if the event is the last of its step */
+	boolean isEndOfStep(int i) {
+		return (event(i) & 1) != 0;
+	}
+
+	private long event(int i) {
+		return chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+	}
+}
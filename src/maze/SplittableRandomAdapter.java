@@ -0,0 +1,52 @@
+package maze;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Lets a SplittableRandom stand in for a Random, so that each tile of
+ * a maze generated in parallel can hand the generator its own stream.
+ * Every method used by the generators draws from the SplittableRandom;
+ * the seed of the underlying Random is never used.
+ */
+final class SplittableRandomAdapter extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	private final SplittableRandom source;
+
+	SplittableRandomAdapter(SplittableRandom source) {
+		super(0);
+		this.source = source;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return source.nextInt() >>> (32 - bits);
+	}
+
+	@Override
+	public int nextInt() {
+		return source.nextInt();
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return source.nextInt(bound);
+	}
+
+	@Override
+	public long nextLong() {
+		return source.nextLong();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return source.nextBoolean();
+	}
+
+	@Override
+	public double nextDouble() {
+		return source.nextDouble();
+	}
+}
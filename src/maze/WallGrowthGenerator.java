@@ -0,0 +1,199 @@
+package maze;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * <P>Draws the interior walls of a Maze.  The walls are drawn on the
+ * grid of "posts" (the corners between junctures), where every post on
+ * the outside of the grid already belongs to the surrounding wall.</P>
+ * 
+ * <P>The posts are taken in random order.  Each post that no wall has
+ * reached yet starts a new wall, which grows as a random walk: from its
+ * newest post it extends by one segment in a random direction that 
+ * does not lead back onto itself, until the segment just drawn touches
+ * another wall.  If the walk gets boxed in by its own posts, it carries
+ * on from a random post of the wall that can still be extended.  Every
+ * wall therefore ends up joined to the rest by exactly one segment, so
+ * the walls form a tree and there is exactly one path between any two
+ * junctures.</P>
+ * 
+ * <P>The walk is a loop rather than a recursion, so there is no limit on
+ * the size of the maze.  The posts of the growing wall are kept in a 
+ * "frontier" list; when the walk is boxed in, a random post is taken 
+ * from that list, and posts that can no longer be extended are dropped
+ * from it for good.  The random order is produced one post at a time
+ * with a Fisher-Yates shuffle, and a direction is drawn at random from
+ * those available.  Every step is O(1), so the whole maze is drawn in
+ * time linear in its area.  The choices made have the same 
+ * distribution as with the original recursive version.</P>
+ * 
+ * @author Fawzi Emad, (C) 2020
+ */
+final class WallGrowthGenerator implements MazeGenerator {
+
+	private int width, height; // number of posts across and down
+	private Random random;
+
+	/* Wall that each post belongs to (0 for none yet), by row * width + col */
+	private int[] wallIndex;
+
+	/* Posts of the wall being drawn that may still be extendable */
+	private int[] frontier = new int[64];
+	private int frontierSize;
+
+	@Override
+	public void generate(int mazeWidth, int mazeHeight, Random random, Consumer<MazeRow> rows) {
+		this.width = mazeWidth + 1;
+		this.height = mazeHeight + 1;
+		this.random = random;
+		long[] wallToRight = Bits.create(width * height);
+		long[] wallDown = Bits.create(width * height);
+		drawWalls(wallToRight, wallDown);
+
+		/* The wall to the right of juncture (x, y) runs down from post 
+		 * (x + 1, y), and the wall below it runs right from post (x, y + 1) */
+		MazeRow row = new MazeRow(mazeWidth, mazeHeight);
+		for (int y = 0; y < mazeHeight; y++) {
+			row.reset(y);
+			for (int x = 0; x < mazeWidth; x++) {
+				if (!Bits.get(wallDown, y * width + x + 1)) {
+					row.removeWallToRight(x);
+				}
+				if (!Bits.get(wallToRight, (y + 1) * width + x)) {
+					row.removeWallBelow(x);
+				}
+			}
+			rows.accept(row);
+		}
+		this.random = null;
+	}
+
+	/*
+	 * Draws the walls on the grid of posts.  Bit row * width + col of
+	 * wallToRight is set for a wall from post (col, row) to post 
+	 * (col + 1, row), and the same bit of wallDown for a wall from post
+	 * (col, row) to post (col, row + 1).
+	 */
+	private void drawWalls(long[] wallToRight, long[] wallDown) {
+		for (int i = 0; i < width - 1; i++) {
+			Bits.set(wallToRight, i);
+			Bits.set(wallToRight, (height - 1) * width + i);
+		}
+		for (int i = 0; i < height - 1; i++) {
+			Bits.set(wallDown, i * width);
+			Bits.set(wallDown, i * width + width - 1);
+		}
+		wallIndex = new int[width * height];
+		for (int col = 0; col < width; col++) {
+			wallIndex[col] = 1;
+			wallIndex[(height - 1) * width + col] = 1;
+		}
+		for (int row = 0; row < height; row++) {
+			wallIndex[row * width] = 1;
+			wallIndex[row * width + width - 1] = 1;
+		}
+
+		/* Interior posts, shuffled lazily: order[i] is fixed when it is reached */
+		int interiorWidth = width - 2;
+		int count = interiorWidth * (height - 2);
+		int[] order = new int[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = (i / interiorWidth + 1) * width + i % interiorWidth + 1;
+		}
+		int currWall = 1;
+		for (int i = 0; i < count; i++) {
+			int j = i + random.nextInt(count - i);
+			int post = order[j];
+			order[j] = order[i];
+			if (wallIndex[post] == 0) {
+				currWall++;
+				drawFrom(post, currWall, wallToRight, wallDown);
+			}
+		}
+		wallIndex = null;
+	}
+
+	/* Grows a new wall from the given post until it joins another wall */
+	private void drawFrom(int post, int currWall, long[] wallToRight, long[] wallDown) {
+		wallIndex[post] = currWall;
+		frontierSize = 0;
+		addToFrontier(post);
+		int curr = post;
+		while (true) {
+			int direction = randomDirection(curr, currWall);
+			if (direction < 0) { // boxed in: carry on from another post of this wall
+				curr = extendablePost(currWall);
+				direction = randomDirection(curr, currWall);
+			}
+			int next;
+			if (direction == 0) {  // to right
+				next = curr + 1;
+				Bits.set(wallToRight, curr);
+			} else if (direction == 1) {  // to left
+				next = curr - 1;
+				Bits.set(wallToRight, next);
+			} else if (direction == 2) {  // up
+				next = curr - width;
+				Bits.set(wallDown, next);
+			} else {  // down
+				next = curr + width;
+				Bits.set(wallDown, curr);
+			}
+			if (wallIndex[next] != 0) { // joined another wall
+				return;
+			}
+			wallIndex[next] = currWall;
+			addToFrontier(next);
+			curr = next;
+		}
+	}
+
+	/* Picks uniformly among the directions (0 right, 1 left, 2 up, 
+	 * 3 down) that lead off this wall, or returns -1 if there are none.
+	 * The available directions are packed two bits each into an int. */
+	private int randomDirection(int post, int currWall) {
+		int choices = 0;
+		int available = 0;
+		if (wallIndex[post + 1] != currWall) {
+			available |= 0 << 2 * choices++;
+		}
+		if (wallIndex[post - 1] != currWall) {
+			available |= 1 << 2 * choices++;
+		}
+		if (wallIndex[post - width] != currWall) {
+			available |= 2 << 2 * choices++;
+		}
+		if (wallIndex[post + width] != currWall) {
+			available |= 3 << 2 * choices++;
+		}
+		if (choices == 0) {
+			return -1;
+		}
+		return (available >>> 2 * random.nextInt(choices)) & 3;
+	}
+
+	/* Picks uniformly among the posts of this wall that can still be
+	 * extended, dropping the ones found boxed in along the way (a post
+	 * that is boxed in by its own wall stays that way) */
+	private int extendablePost(int currWall) {
+		while (true) {
+			int i = random.nextInt(frontierSize);
+			int post = frontier[i];
+			if (wallIndex[post + 1] != currWall || wallIndex[post - 1] != currWall
+					|| wallIndex[post - width] != currWall || wallIndex[post + width] != currWall) {
+				return post;
+			}
+			frontier[i] = frontier[--frontierSize];
+		}
+	}
+
+	private void addToFrontier(int post) {
+		if (frontierSize == frontier.length) {
+			int[] larger = new int[frontierSize * 2];
+			System.arraycopy(frontier, 0, larger, 0, frontierSize);
+			frontier = larger;
+		}
+		frontier[frontierSize++] = post;
+	}
+}
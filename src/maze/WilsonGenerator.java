@@ -0,0 +1,43 @@
+package maze;
+
+import java.util.Random;
+
+/**
+ * <P>Wilson's algorithm.  Starting from a maze of one random juncture,
+ * each juncture not yet in the maze starts a random walk that goes on
+ * until it reaches the maze; the walk, with its loops erased, is then
+ * added to the maze.  The loops are erased for free by remembering
+ * only the last direction taken out of each juncture.  Every perfect
+ * maze is equally likely.</P>
+ * 
+ * <P>The running time is that of the random walks: linear in the number
+ * of junctures times the mean time for a walk to hit the maze, which 
+ * grows only slowly (roughly with the square of the logarithm of the 
+ * size) on a grid.</P>
+ */
+final class WilsonGenerator extends GridMazeGenerator {
+
+	@Override
+	protected void carve(Random random) {
+		int n = width * height;
+		long[] inMaze = Bits.create(n);
+		int[] next = new int[n]; // where the current walk last left each juncture
+		int[] adjacent = new int[4];
+		Bits.set(inMaze, random.nextInt(n));
+		for (int start = 0; start < n; start++) {
+			if (Bits.get(inMaze, start)) {
+				continue;
+			}
+			int curr = start;
+			while (!Bits.get(inMaze, curr)) {
+				int count = neighbors(curr, adjacent);
+				next[curr] = adjacent[random.nextInt(count)];
+				curr = next[curr];
+			}
+			for (curr = start; !Bits.get(inMaze, curr); curr = next[curr]) {
+				Bits.set(inMaze, curr);
+				connect(curr, next[curr]);
+			}
+		}
+	}
+}
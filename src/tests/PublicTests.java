@@ -1,9 +1,37 @@
 package tests;
 
 import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
 import org.junit.Test;
 
+import graph.BatchAlgorithmObserver;
+import graph.ContractionHierarchy;
+import graph.DijkstraQueue;
+import graph.DynamicShortestPaths;
+import graph.FrozenGraph;
+import graph.GraphAlgorithmObserver;
+import graph.MazeGraph;
+import graph.PathCache;
+import graph.PathResult;
+import graph.Query;
+import graph.SearchAlgorithm;
+import graph.SearchContext;
+import graph.ShortestPathTree;
+import graph.VertexCodec;
 import graph.WeightedGraph;
+import maze.Juncture;
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.MazeRow;
 
 public class PublicTests {
 
@@ -61,4 +89,716 @@ public class PublicTests {
 		graph.DoDFS("B", "A");
 	}
 	
+	@Test
+	public void testVertexIndex() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addVertex("C");
+		assertEquals(3, graph.getVertexCount());
+		assertEquals(0, graph.getVertexId("A"));
+		assertEquals(2, graph.getVertexId("C"));
+		assertEquals(-1, graph.getVertexId("X"));
+		assertEquals("B", graph.getVertex(1));
+		boolean caught = false;
+		try {
+			graph.addVertex("B");
+		} catch (IllegalArgumentException e) {
+			caught = true;
+		}
+		assertTrue(caught);
+		assertEquals(3, graph.getVertexCount());
+	}
+
+	@Test
+	public void testDijkstraQueues() {
+		for (DijkstraQueue queue : DijkstraQueue.values()) {
+			WeightedGraph<String> graph = new WeightedGraph<String>();
+			graph.setDijkstraQueue(queue);
+			graph.addVertex("A");
+			graph.addVertex("B");
+			graph.addVertex("C");
+			graph.addVertex("D");
+			graph.addVertex("E");
+			graph.addEdge("A", "B", 4);
+			graph.addEdge("A", "C", 1);
+			graph.addEdge("C", "B", 2);
+			graph.addEdge("B", "D", 1);
+			graph.addEdge("C", "D", 5);
+			RecordingObserver<String> observer = new RecordingObserver<String>();
+			graph.addObserver(observer);
+			graph.DoDijsktra("A", "D");
+			assertEquals("[A, C, B, D]", observer.path.toString());
+			assertEquals("[A, C, B, D]", observer.finished.toString());
+			assertEquals("[0, 1, 3, 4]", observer.costs.toString());
+			graph.DoDijsktra("A", "E");
+			assertTrue(observer.path.isEmpty());
+		}
+	}
+
+	@Test
+	public void testMazeGraphStorage() {
+		Maze maze = new Maze(20, 30, 40, 132L);
+		MazeGraph mapGraph = new MazeGraph(maze);
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(29, 19);
+		RecordingObserver<Juncture> mapObserver = new RecordingObserver<Juncture>();
+		mapGraph.addObserver(mapObserver);
+		mapGraph.DoDijsktra(start, end);
+		int mapCost = mapObserver.costs.get(mapObserver.finished.indexOf(end));
+
+		for (MazeGraph.Storage storage : new MazeGraph.Storage[] {MazeGraph.Storage.CSR, MazeGraph.Storage.IMPLICIT}) {
+			MazeGraph graph = new MazeGraph(maze, storage);
+			assertEquals(mapGraph.getVertexCount(), graph.getVertexCount());
+			for (int y = 0; y < 20; y++) {
+				for (int x = 0; x < 30; x++) {
+					Juncture juncture = new Juncture(x, y);
+					Juncture right = new Juncture(x + 1, y);
+					Juncture below = new Juncture(x, y + 1);
+					assertEquals(mapGraph.getVertexId(juncture), graph.getVertexId(juncture));
+					assertEquals(mapGraph.getPredecessors(juncture), graph.getPredecessors(juncture));
+					if (x < 29) {
+						assertEquals(mapGraph.getWeight(juncture, right), graph.getWeight(juncture, right));
+					}
+					if (y < 19) {
+						assertEquals(mapGraph.getWeight(juncture, below), graph.getWeight(juncture, below));
+					}
+				}
+			}
+			assertFalse(graph.containsVertex(new Juncture(30, 0)));
+			boolean caught = false;
+			try {
+				graph.addVertex(new Juncture(0, 0));
+			} catch (UnsupportedOperationException e) {
+				caught = true;
+			}
+			assertTrue(caught);
+
+			RecordingObserver<Juncture> observer = new RecordingObserver<Juncture>();
+			graph.addObserver(observer);
+			graph.DoDijsktra(start, end);
+			assertEquals(600, observer.finished.size());
+			assertEquals(mapCost, (int) observer.costs.get(observer.finished.indexOf(end)));
+			graph.DoBFS(start, end);
+			assertEquals(end, observer.visited.get(observer.visited.size() - 1));
+		}
+	}
+
+	@Test
+	public void testAStar() {
+		Maze maze = new Maze(40, 40, 20, 7L);
+		MazeGraph graph = new MazeGraph(maze, MazeGraph.Storage.CSR);
+		RecordingObserver<Juncture> observer = new RecordingObserver<Juncture>();
+		graph.addObserver(observer);
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(39, 39);
+		graph.DoDijsktra(start, end);
+		int dijkstraCost = observer.costs.get(observer.finished.indexOf(end));
+		graph.DoAStar(start, end);
+		assertEquals(start, observer.path.get(0));
+		assertEquals(end, observer.path.get(observer.path.size() - 1));
+		int aStarCost = 0;
+		for (int i = 1; i < observer.path.size(); i++) {
+			aStarCost += graph.getWeight(observer.path.get(i - 1), observer.path.get(i));
+		}
+		assertEquals(dijkstraCost, aStarCost);
+		assertTrue(observer.expanded.size() <= observer.finished.size());
+		assertEquals(end, observer.expanded.get(observer.expanded.size() - 1));
+	}
+
+	@Test
+	public void testBidirectionalSearches() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addVertex("C");
+		graph.addVertex("D");
+		graph.addVertex("E");
+		graph.addEdge("A", "B", 1);
+		graph.addEdge("B", "C", 1);
+		graph.addEdge("C", "E", 1);
+		graph.addEdge("A", "D", 5);
+		graph.addEdge("D", "E", 1);
+		graph.addEdge("E", "A", 1);
+		assertTrue(graph.getPredecessors("E").contains("C"));
+		assertTrue(graph.getPredecessors("E").contains("D"));
+		assertFalse(graph.getPredecessors("E").contains("A"));
+		RecordingObserver<String> observer = new RecordingObserver<String>();
+		graph.addObserver(observer);
+		graph.DoBidirectionalDijkstra("A", "E");
+		assertEquals("[A, B, C, E]", observer.path.toString());
+		graph.DoBidirectionalDijkstra("E", "D");
+		assertEquals("[E, A, D]", observer.path.toString());
+		graph.DoBidirectionalBFS("A", "E");
+		assertEquals("A", observer.visited.get(0));
+		assertEquals("E", observer.visited.get(1));
+	}
+
+	@Test
+	public void testFindPath() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		graph.addVertex("A");
+		graph.addVertex("B");
+		graph.addVertex("C");
+		graph.addVertex("D");
+		graph.addVertex("E");
+		graph.addEdge("A", "B", 1);
+		graph.addEdge("B", "C", 1);
+		graph.addEdge("C", "D", 1);
+		graph.addEdge("A", "D", 5);
+		RecordingObserver<String> observer = new RecordingObserver<String>();
+		graph.addObserver(observer);
+		SearchContext context = new SearchContext();
+		for(SearchAlgorithm algorithm : SearchAlgorithm.values()) {
+			PathResult<String> result = graph.findPath(algorithm, "A", "D", context);
+			assertTrue(result.isFound());
+			assertEquals("A", result.getPath().get(0));
+			assertEquals("D", result.getPath().get(result.getPath().size() - 1));
+			assertFalse(graph.findPath(algorithm, "A", "E", context).isFound());
+			assertFalse(context.isFound());
+		}
+		assertEquals("[A, B, C, D]", graph.findPath(SearchAlgorithm.DIJKSTRA, "A", "D").getPath().toString());
+		assertEquals(3, graph.findPath(SearchAlgorithm.A_STAR, "A", "D").getCost());
+		assertEquals(5, graph.findPath(SearchAlgorithm.BFS, "A", "D").getCost());
+		assertEquals(-1, graph.findPath(SearchAlgorithm.BFS, "A", "E").getCost());
+		assertTrue(graph.search(SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA, "B", "D", context));
+		assertEquals(3, context.getPathLength());
+		assertEquals(graph.getVertexId("C"), context.getPathVertex(1));
+		assertEquals(2, context.getPathCost());
+		assertTrue(observer.visited.isEmpty()); // the observers are not notified
+		assertTrue(observer.finished.isEmpty());
+	}
+
+	@Test
+	public void testBatchObserver() {
+		Maze maze = new Maze(30, 30, 5, 3);
+		MazeGraph graph = new MazeGraph(maze);
+		RecordingObserver<Juncture> observer = new RecordingObserver<Juncture>();
+		graph.addObserver(observer);
+		final List<Integer> visits = new ArrayList<Integer>();
+		final List<Integer> costs = new ArrayList<Integer>();
+		final int[] pathLength = new int[1];
+		final int[] begun = new int[1];
+		graph.addBatchObserver(new BatchAlgorithmObserver() {
+			public void notifySearchHasBegun(SearchAlgorithm algorithm) {
+				begun[0]++;
+				visits.clear();
+				costs.clear();
+			}
+
+			public void notifyVisits(int[] ids, int count) {
+				for(int i = 0; i < count; i++) {
+					visits.add(ids[i]);
+				}
+			}
+
+			public void notifyFinished(int[] ids, int[] finishedCosts, int count) {
+				for(int i = 0; i < count; i++) {
+					visits.add(ids[i]);
+					costs.add(finishedCosts[i]);
+				}
+			}
+
+			public void notifySearchIsOver(int[] pathIds, int length) {
+				pathLength[0] = length;
+			}
+		});
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(29, 29);
+		graph.DoBFS(start, end);
+		assertEquals(observer.visited.size(), visits.size());
+		for(int i = 0; i < visits.size(); i++) {
+			assertEquals(observer.visited.get(i), graph.getVertex(visits.get(i)));
+		}
+		graph.DoDijsktra(start, end);
+		assertEquals(observer.finished.size(), visits.size());
+		assertEquals(observer.costs, costs);
+		assertEquals(observer.path.size(), pathLength[0]);
+
+		// A search that cannot start must not begin a batch
+		begun[0] = 0;
+		boolean caught = false;
+		try {
+			graph.DoBFS(new Juncture(30, 0), end);
+		} catch (IllegalArgumentException e) {
+			caught = true;
+		}
+		assertTrue(caught);
+		caught = false;
+		try {
+			graph.DoDFS(new Juncture(30, 0), end);
+		} catch (IllegalArgumentException e) {
+			caught = true;
+		}
+		assertTrue(caught);
+		assertEquals(0, begun[0]);
+	}
+
+	@Test
+	public void testMazeGeneration() {
+		int size = 400; // large enough to overflow the stack of the old recursive generator
+		Maze maze = new Maze(size, size, 0, 7);
+		int passages = 0;
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				if(x < size - 1 && !maze.isWallToRight(x, y)) {
+					passages++;
+					assertFalse(maze.isWallToLeft(x + 1, y));
+				}
+				if(y < size - 1 && !maze.isWallBelow(x, y)) {
+					passages++;
+					assertFalse(maze.isWallAbove(x, y + 1));
+				}
+			}
+		}
+		assertEquals(size * size - 1, passages); // a spanning tree...
+		MazeGraph graph = new MazeGraph(maze, MazeGraph.Storage.CSR);
+		RecordingObserver<Juncture> observer = new RecordingObserver<Juncture>();
+		graph.addObserver(observer);
+		graph.DoBFS(new Juncture(0, 0), new Juncture(-1, -1)); // an end that is never reached
+		assertEquals(size * size, observer.visited.size()); // ...that reaches every juncture
+		Maze same = new Maze(size, size, 0, 7);
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				assertEquals(maze.isWallToRight(x, y), same.isWallToRight(x, y));
+				assertEquals(maze.isWallBelow(x, y), same.isWallBelow(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void testMazeGenerators() {
+		MazeGenerator[] generators = {MazeGenerator.wallGrowth(), MazeGenerator.kruskal(), 
+				MazeGenerator.prim(), MazeGenerator.wilson(), MazeGenerator.eller()};
+		for(MazeGenerator generator : generators) {
+			Maze maze = new Maze(25, 40, 0, 11, generator);
+			int passages = 0;
+			for(int y = 0; y < 25; y++) {
+				for(int x = 0; x < 40; x++) {
+					passages += (maze.isWallToRight(x, y) ? 0 : 1) + (maze.isWallBelow(x, y) ? 0 : 1);
+				}
+			}
+			assertEquals(40 * 25 - 1, passages);
+			MazeGraph graph = new MazeGraph(maze, MazeGraph.Storage.CSR);
+			RecordingObserver<Juncture> observer = new RecordingObserver<Juncture>();
+			graph.addObserver(observer);
+			graph.DoBFS(new Juncture(0, 0), new Juncture(-1, -1));
+			assertEquals(40 * 25, observer.visited.size());
+		}
+
+		// streaming the rows gives exactly the maze the constructor builds
+		final Maze maze = new Maze(30, 20, 50, 5, MazeGenerator.eller());
+		final int[] rows = new int[1];
+		Maze.generateRows(30, 20, 50, 5, MazeGenerator.eller(), new Consumer<MazeRow>() {
+			public void accept(MazeRow row) {
+				int y = row.getY();
+				assertEquals(rows[0]++, y);
+				for(int x = 0; x < row.getWidth(); x++) {
+					assertEquals(maze.isWallToRight(x, y), row.isWallToRight(x));
+					assertEquals(maze.isWallBelow(x, y), row.isWallBelow(x));
+					if(x < 19) {
+						assertEquals(maze.getWeightToRight(x, y), row.getWeightToRight(x));
+					}
+				}
+			}
+		});
+		assertEquals(30, rows[0]);
+	}
+
+	@Test
+	public void testParallelMazeGeneration() {
+		int width = 700, height = 600; // several tiles, some of them partial
+		Maze maze = new Maze(height, width, 0, 99, MazeGenerator::wallGrowth, 1);
+		Maze same = new Maze(height, width, 0, 99, MazeGenerator::wallGrowth, 4);
+		int passages = 0;
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				assertEquals(maze.isWallToRight(x, y), same.isWallToRight(x, y));
+				assertEquals(maze.isWallBelow(x, y), same.isWallBelow(x, y));
+				if(y < height - 1) {
+					assertEquals(maze.getWeightBelow(x, y), same.getWeightBelow(x, y));
+				}
+				passages += (maze.isWallToRight(x, y) ? 0 : 1) + (maze.isWallBelow(x, y) ? 0 : 1);
+			}
+		}
+		assertEquals(width * height - 1, passages);
+		MazeGraph graph = new MazeGraph(maze, MazeGraph.Storage.CSR);
+		RecordingObserver<Juncture> observer = new RecordingObserver<Juncture>();
+		graph.addObserver(observer);
+		graph.DoBFS(new Juncture(0, 0), new Juncture(-1, -1));
+		assertEquals(width * height, observer.visited.size());
+	}
+
+	@Test
+	public void testSaveAndLoadMaze() throws IOException {
+		int width = 70, height = 45; // rows that do not fill whole longs
+		Maze maze = new Maze(height, width, 30, 5);
+		Path file = Files.createTempFile("maze", ".bin");
+		try {
+			maze.save(file);
+			Maze loaded = Maze.load(file);
+			assertEquals(width, loaded.getMazeWidth());
+			assertEquals(height, loaded.getMazeHeight());
+			assertEquals(maze.getMaxWeight(), loaded.getMaxWeight());
+			for(int y = 0; y < height; y++) {
+				for(int x = 0; x < width; x++) {
+					assertEquals(maze.isWallAbove(x, y), loaded.isWallAbove(x, y));
+					assertEquals(maze.isWallToLeft(x, y), loaded.isWallToLeft(x, y));
+					assertEquals(maze.isWallToRight(x, y), loaded.isWallToRight(x, y));
+					assertEquals(maze.isWallBelow(x, y), loaded.isWallBelow(x, y));
+					if(x < width - 1) {
+						assertEquals(maze.getWeightToRight(x, y), loaded.getWeightToRight(x, y));
+					}
+					if(y < height - 1) {
+						assertEquals(maze.getWeightBelow(x, y), loaded.getWeightBelow(x, y));
+					}
+				}
+			}
+			Files.write(file, new byte[] {1, 2, 3});
+			try {
+				Maze.load(file);
+				fail("loaded a file that is not a maze");
+			} catch (IOException expected) {
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testHopDistances() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		for(String vertex : new String[] {"A", "B", "C", "D", "E"}) {
+			graph.addVertex(vertex);
+		}
+		graph.addEdge("A", "B", 7);
+		graph.addEdge("B", "C", 1);
+		graph.addEdge("A", "D", 1);
+		graph.addEdge("D", "C", 1);
+		graph.addEdge("E", "A", 1);
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			graph.setParallelThreshold(0);
+			int[] hops = graph.getHopDistances("A", pool);
+			assertEquals(0, hops[graph.getVertexId("A")]);
+			assertEquals(1, hops[graph.getVertexId("B")]);
+			assertEquals(2, hops[graph.getVertexId("C")]);
+			assertEquals(1, hops[graph.getVertexId("D")]);
+			assertEquals(-1, hops[graph.getVertexId("E")]);
+
+			MazeGraph maze = new MazeGraph(new Maze(120, 150, 40, 8), MazeGraph.Storage.IMPLICIT);
+			maze.setParallelThreshold(Integer.MAX_VALUE);
+			int[] sequential = maze.getHopDistances(new Juncture(3, 4), pool);
+			maze.setParallelThreshold(0);
+			assertArrayEquals(sequential, maze.getHopDistances(new Juncture(3, 4), pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testShortestPathTree() {
+		MazeGraph graph = new MazeGraph(new Maze(90, 110, 50, 21), MazeGraph.Storage.CSR);
+		Juncture start = new Juncture(5, 7);
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			graph.setParallelThreshold(Integer.MAX_VALUE);
+			ShortestPathTree sequential = graph.getShortestPathTree(start, pool);
+			graph.setParallelThreshold(0);
+			ShortestPathTree parallel = graph.getShortestPathTree(start, pool);
+			assertArrayEquals(sequential.getDistances(), parallel.getDistances());
+			Juncture end = new Juncture(100, 80);
+			int endId = graph.getVertexId(end);
+			assertEquals(graph.findPath(SearchAlgorithm.DIJKSTRA, start, end).getCost(), parallel.getDistance(endId));
+			int[] path = parallel.getPath(endId);
+			assertEquals(graph.getVertexId(start), path[0]);
+			int cost = 0;
+			for(int i = 1; i < path.length; i++) {
+				cost += graph.getWeight(graph.getVertex(path[i - 1]), graph.getVertex(path[i]));
+			}
+			assertEquals(parallel.getDistance(endId), cost);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testFrozenGraphSolveAll() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		for(String vertex : new String[] {"A", "B", "C", "D", "E"}) {
+			graph.addVertex(vertex);
+		}
+		graph.addEdge("A", "B", 1);
+		graph.addEdge("B", "C", 1);
+		graph.addEdge("A", "C", 5);
+		graph.addEdge("C", "D", 2);
+		FrozenGraph<String> frozen = graph.freeze();
+		graph.addEdge("A", "D", 1); // not in the snapshot
+
+		List<Query<String>> queries = new ArrayList<Query<String>>();
+		queries.add(new Query<String>("A", "D"));
+		queries.add(new Query<String>(SearchAlgorithm.BFS, "A", "C"));
+		queries.add(new Query<String>("A", "C"));
+		queries.add(new Query<String>("A", "E"));
+		queries.add(new Query<String>("B", "D"));
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			List<PathResult<String>> results = frozen.solveAll(queries, pool);
+			assertEquals(5, results.size());
+			assertEquals(Arrays.asList("A", "B", "C", "D"), results.get(0).getPath());
+			assertEquals(4, results.get(0).getCost());
+			assertEquals(Arrays.asList("A", "C"), results.get(1).getPath());
+			assertEquals(2, results.get(2).getCost());
+			assertFalse(results.get(3).isFound());
+			assertEquals(3, results.get(4).getCost());
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(1, graph.findPath(SearchAlgorithm.DIJKSTRA, "A", "D").getCost());
+	}
+
+	@Test
+	public void testPathCache() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		for(String vertex : new String[] {"A", "B", "C", "D"}) {
+			graph.addVertex(vertex);
+		}
+		graph.addEdge("A", "B", 1);
+		graph.addEdge("B", "C", 1);
+		graph.addEdge("A", "C", 5);
+		PathCache<String> cache = new PathCache<String>(graph, 100);
+		assertEquals(2, cache.findPath("A", "C").getCost());
+		assertEquals(2, cache.findPath("A", "C").getCost());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		cache.getShortestPathTree("A");
+		assertEquals(Arrays.asList("A", "B"), cache.findPath("A", "B").getPath()); // read off the tree
+		assertEquals(2, cache.getHitCount());
+
+		graph.addEdge("C", "D", 1);
+		assertEquals(3, cache.findPath("A", "D").getCost());
+		assertEquals(1, cache.getInvalidationCount());
+		assertEquals(1, cache.getEntryCount());
+
+		PathCache<String> small = new PathCache<String>(graph, 20); // room for one path only
+		small.findPath("A", "C");
+		small.findPath("B", "D");
+		small.findPath("A", "C");
+		assertEquals(2, small.getEvictionCount());
+		assertEquals(3, small.getMissCount());
+	}
+
+	@Test
+	public void testDynamicShortestPaths() {
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		for(String vertex : new String[] {"A", "B", "C", "D"}) {
+			graph.addVertex(vertex);
+		}
+		graph.addEdge("A", "B", 1);
+		graph.addEdge("B", "C", 1);
+		graph.addEdge("A", "C", 5);
+		DynamicShortestPaths<String> paths = new DynamicShortestPaths<String>(graph, "A");
+		assertEquals(2, paths.getDistance("C"));
+		assertEquals(-1, paths.getDistance("D"));
+
+		graph.addEdge("C", "D", 2); // a new edge reaches D
+		assertEquals(4, paths.getDistance("D"));
+		graph.addEdge("B", "C", 7); // heavier tree edge: C and D are rerouted through A -> C
+		assertEquals(5, paths.getDistance("C"));
+		assertEquals(7, paths.getDistance("D"));
+		assertEquals(Arrays.asList("A", "C", "D"), paths.getPath("D"));
+		graph.addVertex("E");
+		graph.addEdge("A", "E", 0);
+		graph.addEdge("E", "D", 1); // lower cost through the new vertex
+		assertEquals(1, paths.getDistance("D"));
+		assertEquals(Arrays.asList("A", "E", "D"), paths.getPath("D"));
+		assertEquals(1, paths.getLastRepairSize());
+
+		paths.detach();
+		graph.addEdge("A", "B", 9);
+		assertEquals(1, paths.getDistance("B"));
+	}
+
+	@Test
+	public void testContractionHierarchy() throws IOException {
+		MazeGraph graph = new MazeGraph(new Maze(30, 40, 30, 5), MazeGraph.Storage.CSR);
+		ContractionHierarchy hierarchy = graph.buildContractionHierarchy();
+		assertEquals(graph.getVertexCount(), hierarchy.getVertexCount());
+		Path file = Files.createTempFile("hierarchy", ".bin");
+		try {
+			hierarchy.save(file);
+			ContractionHierarchy loaded = ContractionHierarchy.load(file);
+			SearchContext context = new SearchContext();
+			for(int i = 0; i < 50; i++) {
+				Juncture start = new Juncture(i % 40, (i * 7) % 30);
+				Juncture end = new Juncture((i * 13) % 40, (i * 11) % 30);
+				PathResult<Juncture> expected = graph.findPath(SearchAlgorithm.DIJKSTRA, start, end);
+				for(ContractionHierarchy h : new ContractionHierarchy[] {hierarchy, loaded}) {
+					PathResult<Juncture> path = graph.findPath(h, start, end, context);
+					assertEquals(expected.getCost(), path.getCost());
+					assertEquals(start, path.getPath().get(0));
+					assertEquals(end, path.getPath().get(path.getPath().size() - 1));
+					int cost = 0;
+					for(int k = 1; k < path.getPath().size(); k++) {
+						cost += graph.getWeight(path.getPath().get(k - 1), path.getPath().get(k));
+					}
+					assertEquals(expected.getCost(), cost);
+				}
+			}
+			Files.write(file, new byte[] {1, 2, 3, 4});
+			try {
+				ContractionHierarchy.load(file);
+				fail("loaded a file that is not a contraction hierarchy");
+			} catch (IOException expected) {
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testSaveAndLoadGraph() throws IOException {
+		MazeGraph maze = new MazeGraph(new Maze(30, 40, 30, 5), MazeGraph.Storage.IMPLICIT);
+		WeightedGraph<String> graph = new WeightedGraph<String>();
+		for(String vertex : new String[] {"A", "B", "C", "\u00e9t\u00e9"}) {
+			graph.addVertex(vertex);
+		}
+		graph.addEdge("A", "B", 1);
+		graph.addEdge("B", "\u00e9t\u00e9", 300000);
+		graph.addEdge("\u00e9t\u00e9", "A", 0);
+		graph.addEdge("C", "A", 17);
+		Path file = Files.createTempFile("graph", ".bin");
+		try {
+			maze.save(file, MazeGraph.VERTEX_CODEC);
+			FrozenGraph<Juncture> loaded = FrozenGraph.load(file, MazeGraph.VERTEX_CODEC);
+			assertEquals(maze.getVertexCount(), loaded.getVertexCount());
+			for(int i = 0; i < 50; i++) {
+				Juncture start = new Juncture(i % 40, (i * 7) % 30);
+				Juncture end = new Juncture((i * 13) % 40, (i * 11) % 30);
+				assertEquals(maze.getVertexId(end), loaded.getVertexId(end));
+				for(SearchAlgorithm algorithm : new SearchAlgorithm[] {SearchAlgorithm.BFS, SearchAlgorithm.DIJKSTRA}) {
+					PathResult<Juncture> expected = maze.findPath(algorithm, start, end);
+					PathResult<Juncture> path = loaded.findPath(algorithm, start, end);
+					assertEquals(expected.getCost(), path.getCost());
+					assertEquals(expected.getPath(), path.getPath());
+				}
+			}
+
+			graph.save(file, VertexCodec.STRING);
+			WeightedGraph<String> copy = WeightedGraph.load(file, VertexCodec.STRING);
+			assertEquals(graph.getVertexCount(), copy.getVertexCount());
+			for(int id = 0; id < graph.getVertexCount(); id++) {
+				assertEquals(graph.getVertex(id), copy.getVertex(id));
+				for(int other = 0; other < graph.getVertexCount(); other++) {
+					assertEquals(graph.getWeight(graph.getVertex(id), graph.getVertex(other)),
+							copy.getWeight(copy.getVertex(id), copy.getVertex(other)));
+				}
+			}
+			assertEquals(300001, copy.findPath(SearchAlgorithm.DIJKSTRA, "A", "\u00e9t\u00e9").getCost());
+			copy.addEdge("A", "\u00e9t\u00e9", 5);
+			assertEquals(5, copy.findPath(SearchAlgorithm.DIJKSTRA, "A", "\u00e9t\u00e9").getCost());
+
+			byte[] bytes = Files.readAllBytes(file);
+			bytes[bytes.length / 2] ^= 1;
+			Files.write(file, bytes);
+			try {
+				WeightedGraph.load(file, VertexCodec.STRING);
+				fail("loaded a damaged graph file");
+			} catch (IOException expected) {
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testVisitParentsAndDepths() {
+		final MazeGraph graph = new MazeGraph(new Maze(25, 35, 30, 9L));
+		final int[] hops = graph.getHopDistances(new Juncture(0, 0));
+		final List<Juncture> dfsPath = new ArrayList<Juncture>();
+		graph.addObserver(new RecordingObserver<Juncture>() {
+			private boolean isDFS;
+
+			@Override
+			public void notifyDFSHasBegun() {
+				isDFS = true;
+			}
+
+			@Override
+			public void notifyVisit(Juncture vertex, Juncture parent, int depth) {
+				super.notifyVisit(vertex, parent, depth);
+				if (isDFS) { // the parent is on the path to the last vertex visited
+					while(parent != null && !dfsPath.get(dfsPath.size() - 1).equals(parent)) {
+						dfsPath.remove(dfsPath.size() - 1);
+					}
+					assertEquals(dfsPath.size(), depth);
+					dfsPath.add(vertex);
+				} else {
+					assertEquals(hops[graph.getVertexId(vertex)], depth);
+					assertEquals(depth == 0, parent == null);
+					if (parent != null) {
+						assertEquals(depth - 1, hops[graph.getVertexId(parent)]);
+					}
+				}
+			}
+		});
+		Juncture start = new Juncture(0, 0);
+		Juncture end = new Juncture(34, 24);
+		graph.DoBFS(start, end);
+		graph.DoDFS(start, end);
+		assertEquals(graph.findPath(SearchAlgorithm.DFS, start, end).getPath(), dfsPath);
+	}
+
+	/* Remembers everything a graph reports while running its algorithms */
+	private static class RecordingObserver<V> implements GraphAlgorithmObserver<V> {
+		List<V> visited = new ArrayList<V>();
+		List<V> finished = new ArrayList<V>();
+		List<V> expanded = new ArrayList<V>();
+		List<Integer> costs = new ArrayList<Integer>();
+		List<V> path;
+
+		public void notifyDFSHasBegun() {
+			visited.clear();
+		}
+
+		public void notifyBFSHasBegun() {
+			visited.clear();
+		}
+
+		public void notifyVisit(V vertexBeingVisited) {
+			visited.add(vertexBeingVisited);
+		}
+
+		public void notifySearchIsOver() {
+		}
+
+		public void notifyDijkstraHasBegun() {
+			finished.clear();
+			costs.clear();
+		}
+
+		public void notifyDijkstraVertexFinished(V vertexAddedToFinishedSet, Integer costOfPath) {
+			finished.add(vertexAddedToFinishedSet);
+			costs.add(costOfPath);
+		}
+
+		public void notifyDijkstraIsOver(List<V> path) {
+			this.path = path;
+		}
+
+		public void notifyAStarHasBegun() {
+			expanded.clear();
+		}
+
+		public void notifyAStarVisit(V vertex, boolean visited) {
+			if (visited) {
+				expanded.add(vertex);
+			}
+		}
+
+		public void notifyAStarIsOver(List<V> path) {
+			this.path = path;
+		}
+	}
 }
\ No newline at end of file